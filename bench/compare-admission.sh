@@ -0,0 +1,77 @@
+#!/usr/bin/env bash
+# Compares point reads under a flood of platform scans, with and without admission control.
+#
+# usage: bench/compare-admission.sh [scan-clients...]      (default: 64 256)
+# env:   JAVA          java executable running the application
+#        GAMES         number of games seeded before the runs (default 200000)
+#        READ_CLIENTS  clients reading single games by id (default 16)
+#        WARMUP        seconds to ramp up the clients (default 10)
+#        DURATION      measured seconds per run (default 30)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+GAMES=${GAMES:-200000}
+READ_CLIENTS=${READ_CLIENTS:-16}
+WARMUP=${WARMUP:-10}
+DURATION=${DURATION:-30}
+if [ $# -eq 0 ]; then
+    set -- 64 256
+fi
+PORT=8082
+WORK=$(mktemp -d)
+
+(cd "$ROOT" && mvn -B -q -P loadgen -DskipTests package)
+LOADGEN_CP="$ROOT/target/test-classes:$(cat "$ROOT/target/loadgen.classpath")"
+
+start_app() {
+    if curl -sf "localhost:$PORT/games?size=1" > /dev/null; then
+        echo "port $PORT is already in use" >&2
+        exit 1
+    fi
+    (cd "$WORK" && exec "$JAVA" -jar "$ROOT/target/JatekBazar.jar" \
+        --jatekbazar.admission.enabled="$1" > "$WORK/app.log" 2>&1) &
+    echo $! > "$WORK/app.pid"
+    for _ in $(seq 1 120); do
+        curl -sf "localhost:$PORT/games?size=1" > /dev/null && return
+        sleep 1
+    done
+    echo "application did not start, see $WORK/app.log" >&2
+    exit 1
+}
+
+seed() {
+    awk -v n="$GAMES" 'BEGIN {
+        for (i = 0; i < n; i++) {
+            printf "{\"name\":\"Game %d\",\"price\":%d,\"developer\":\"Dev %d\",", i, 1 + i % 100, i % 500
+            printf "\"platform\":\"%s\",\"yearOfPublication\":%d}\n", i % 8 ? "PC" : "PS5", 1990 + i % 35
+        }
+    }' > "$WORK/games.ndjson"
+    curl -sf -H 'Content-Type: application/x-ndjson' --data-binary "@$WORK/games.ndjson" \
+        "localhost:$PORT/games/bulk" > /dev/null
+}
+
+run() {
+    "$JAVA" -cp "$LOADGEN_CP" hu.nye.home.loadgen.ClosedLoop --url "$1" --ids "$2" --clients "$3" \
+        --warmup "$WARMUP" --duration "$DURATION" | tail -1
+}
+
+echo "admission,route,scan_clients,clients,requests,errors,rps,p50_ms,p99_ms,max_ms"
+for enabled in false true; do
+    start_app "$enabled"
+    seed
+    for clients in "$@"; do
+        # pages of 500 games, the most expensive read of the API
+        run "http://localhost:$PORT/games/platform/PC?size=500" 1 "$clients" > "$WORK/scan.csv" &
+        scan=$!
+        read=$(run "http://localhost:$PORT/games/{id}" "$GAMES" "$READ_CLIENTS")
+        wait "$scan"
+        echo "$enabled,by-id,$clients,$read"
+        echo "$enabled,scan,$clients,$(cat "$WORK/scan.csv")"
+    done
+    pid=$(cat "$WORK/app.pid")
+    kill "$pid"
+    while kill -0 "$pid" 2> /dev/null; do
+        sleep 1
+    done
+done
@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+# Compares platform listings read from the primary alone and from the replicas.
+#
+# usage: bench/compare-replicas.sh [clients...]      (default: 16 64)
+# env:   JAVA          java executable running the application
+#        GAMES         number of games seeded before the runs (default 200000)
+#        WARMUP        seconds to ramp up the clients (default 10)
+#        DURATION      measured seconds per run (default 30)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+GAMES=${GAMES:-200000}
+WARMUP=${WARMUP:-10}
+DURATION=${DURATION:-30}
+if [ $# -eq 0 ]; then
+    set -- 16 64
+fi
+PORT=8082
+WORK=$(mktemp -d)
+
+(cd "$ROOT" && mvn -B -q -P loadgen -DskipTests package)
+LOADGEN_CP="$ROOT/target/test-classes:$(cat "$ROOT/target/loadgen.classpath")"
+
+start_app() {
+    if curl -sf "localhost:$PORT/games?size=1" > /dev/null; then
+        echo "port $PORT is already in use" >&2
+        exit 1
+    fi
+    # admission control off, so that every listing is served rather than shed
+    (cd "$WORK" && exec "$JAVA" -jar "$ROOT/target/JatekBazar.jar" \
+        --spring.profiles.active="$1" --jatekbazar.admission.enabled=false \
+        > "$WORK/app.log" 2>&1) &
+    echo $! > "$WORK/app.pid"
+    for _ in $(seq 1 120); do
+        curl -sf "localhost:$PORT/games?size=1" > /dev/null && return
+        sleep 1
+    done
+    echo "application did not start, see $WORK/app.log" >&2
+    exit 1
+}
+
+seed() {
+    awk -v n="$GAMES" 'BEGIN {
+        for (i = 0; i < n; i++) {
+            printf "{\"name\":\"Game %d\",\"price\":%d,\"developer\":\"Dev %d\",", i, 1 + i % 100, i % 500
+            printf "\"platform\":\"%s\",\"yearOfPublication\":%d}\n", i % 8 ? "PC" : "PS5", 1990 + i % 35
+        }
+    }' > "$WORK/games.ndjson"
+    curl -sf -H 'Content-Type: application/x-ndjson' --data-binary "@$WORK/games.ndjson" \
+        "localhost:$PORT/games/bulk" > /dev/null
+}
+
+# the replicas serve lists once they applied the bulk import
+await_replicas() {
+    for _ in $(seq 1 300); do
+        available=$(curl -sf "localhost:$PORT/actuator/metrics/jatekbazar.replica.available" \
+            | sed 's/.*"value":\([0-9.]*\).*/\1/')
+        [ "${available%.*}" -ge 2 ] && sleep 1 && return
+        sleep 1
+    done
+    echo "the replicas did not catch up, see $WORK/app.log" >&2
+    exit 1
+}
+
+echo "profile,clients,requests,errors,rps,p50_ms,p99_ms,max_ms"
+for profile in default replicas; do
+    start_app "$profile"
+    seed
+    if [ "$profile" = replicas ]; then
+        await_replicas
+    fi
+    for clients in "$@"; do
+        result=$("$JAVA" -cp "$LOADGEN_CP" hu.nye.home.loadgen.ClosedLoop \
+            --url "http://localhost:$PORT/games/platform/PS5?size=100" --ids 1 \
+            --clients "$clients" --warmup "$WARMUP" --duration "$DURATION" | tail -1)
+        echo "$profile,$result"
+    done
+    pid=$(cat "$WORK/app.pid")
+    kill "$pid"
+    while kill -0 "$pid" 2> /dev/null; do
+        sleep 1
+    done
+done
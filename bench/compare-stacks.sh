@@ -0,0 +1,80 @@
+#!/usr/bin/env bash
+# Compares the blocking MVC application with the reactive one in reactive/.
+#
+# usage: bench/compare-stacks.sh [clients...]           (default: 1000 10000)
+# env:   JAVA      java executable running both applications
+#        GAMES     number of games seeded before the runs (default 20000)
+#        THINK     milliseconds each client pauses between requests (default 1000)
+#        WARMUP    seconds to ramp up the clients (default 15)
+#        DURATION  measured seconds per run (default 30)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+GAMES=${GAMES:-20000}
+THINK=${THINK:-1000}
+WARMUP=${WARMUP:-15}
+DURATION=${DURATION:-30}
+if [ $# -eq 0 ]; then
+    set -- 1000 10000
+fi
+WORK=$(mktemp -d)
+
+(cd "$ROOT" && mvn -B -q -P loadgen -DskipTests package)
+LOADGEN_CP="$ROOT/target/test-classes:$(cat "$ROOT/target/loadgen.classpath")"
+(cd "$ROOT/reactive" && mvn -B -q -DskipTests package)
+
+start_app() {
+    local port=$1
+    shift
+    if curl -sf "localhost:$port/games?size=1" > /dev/null; then
+        echo "port $port is already in use" >&2
+        exit 1
+    fi
+    (cd "$WORK" && exec "$JAVA" -jar "$@" > "$WORK/app.log" 2>&1) &
+    echo $! > "$WORK/app.pid"
+    for _ in $(seq 1 120); do
+        curl -sf "localhost:$port/games?size=1" > /dev/null && return
+        sleep 1
+    done
+    echo "application did not start, see $WORK/app.log" >&2
+    exit 1
+}
+
+seed() {
+    awk -v n="$GAMES" 'BEGIN {
+        split("PC PS5 Switch Xbox", platforms, " ")
+        for (i = 0; i < n; i++) {
+            printf "{\"name\":\"Game %d\",\"price\":%d,\"developer\":\"Dev %d\",", i, 1 + i % 100, i % 500
+            printf "\"platform\":\"%s\",\"yearOfPublication\":%d}\n", platforms[1 + i % 4], 1990 + i % 35
+        }
+    }' > "$WORK/games.ndjson"
+    curl -sf -H 'Content-Type: application/x-ndjson' --data-binary "@$WORK/games.ndjson" \
+        "localhost:$1/games/bulk" > /dev/null
+}
+
+echo "stack,clients,requests,errors,rps,p50_ms,p99_ms,max_ms"
+for stack in mvc reactive; do
+    if [ "$stack" = reactive ]; then
+        port=8083
+        start_app $port "$ROOT/reactive/target/JatekBazar-reactive.jar"
+    else
+        port=8082
+        start_app $port "$ROOT/target/JatekBazar.jar" \
+            --server.tomcat.max-connections=20000 --server.tomcat.accept-count=1000
+    fi
+    seed $port
+    for clients in "$@"; do
+        # one keyset page of a developer, a JDBC or R2DBC query on both stacks
+        result=$("$JAVA" -cp "$LOADGEN_CP" hu.nye.home.loadgen.ClosedLoop \
+            --url "http://localhost:$port/games/developer/Dev%20{id}?size=20" \
+            --ids 500 --clients "$clients" --think "$THINK" \
+            --warmup "$WARMUP" --duration "$DURATION" | tail -1)
+        echo "$stack,$result"
+    done
+    pid=$(cat "$WORK/app.pid")
+    kill "$pid"
+    while kill -0 "$pid" 2> /dev/null; do
+        sleep 1
+    done
+done
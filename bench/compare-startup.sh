@@ -0,0 +1,101 @@
+#!/usr/bin/env bash
+# Measures the time from launching the JVM to the first successful GET /games/{id}.
+#
+# usage: bench/compare-startup.sh [modes...]   (default: jar cds cds-aot cds-aot-lazy)
+#   jar           java -jar target/JatekBazar.jar, as the image ran it before
+#   cds           the plain jar of the startup profile with a CDS archive
+#   cds-aot       the same with the ahead-of-time processed bean definitions
+#   cds-aot-lazy  the same with lazy initialization, as the Docker image runs it
+# env:   JAVA  java executable (default java)
+#        RUNS  startups per mode (default 5)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+RUNS=${RUNS:-5}
+if [ $# -eq 0 ]; then
+    set -- jar cds cds-aot cds-aot-lazy
+fi
+PORT=8082
+WORK=$(mktemp -d)
+STARTUP=$ROOT/target/startup
+
+(cd "$ROOT" && mvn -B -q -P startup -DskipTests package)
+
+STARTUP_JAR="-jar $STARTUP/JatekBazar-startup.jar"
+
+command_for() {
+    case "$1" in
+        jar) echo "$JAVA -jar $ROOT/target/JatekBazar.jar" ;;
+        cds) echo "$JAVA -Xshare:on -XX:SharedArchiveFile=$WORK/cds.jsa $STARTUP_JAR" ;;
+        cds-aot) echo "$JAVA -Xshare:on -XX:SharedArchiveFile=$WORK/cds-aot.jsa \
+            -Dspring.aot.enabled=true $STARTUP_JAR" ;;
+        cds-aot-lazy) echo "$JAVA -Xshare:on -XX:SharedArchiveFile=$WORK/cds-aot.jsa \
+            -Dspring.aot.enabled=true -Dspring.main.lazy-initialization=true $STARTUP_JAR" ;;
+        *) echo "unknown mode $1" >&2; exit 1 ;;
+    esac
+}
+
+# A CDS archive is only used with the exact class path it was recorded with, so the one in
+# target/startup does not fit the absolute paths used here; record one per variant.
+# -Xshare:on makes a rejected archive fail the run instead of silently slowing it down.
+train() {
+    # shellcheck disable=SC2086
+    (cd "$WORK" && "$JAVA" -XX:ArchiveClassesAtExit="$WORK/$1.jsa" -Xlog:cds=error "${@:2}" \
+        -Dspring.context.exit=onRefresh $STARTUP_JAR > /dev/null)
+}
+
+now_ms() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+# The in-memory catalog starts empty, so the first game is created as soon as the port
+# answers; the clock stops at the first 200 for reading it back. Until then the port is
+# probed by bash itself: forking curl every few milliseconds would take a noticeable
+# share of a single CPU away from the JVM being measured.
+time_to_first_get() {
+    local started id= pid
+    started=$(now_ms)
+    # shellcheck disable=SC2046
+    (cd "$WORK" && exec $(command_for "$1") > "$WORK/app.log" 2>&1) &
+    pid=$!
+    for _ in $(seq 1 2400); do
+        if ! (exec 3<> "/dev/tcp/localhost/$PORT") 2> /dev/null; then
+            sleep 0.05
+            continue
+        fi
+        if [ -z "$id" ]; then
+            id=$(curl -s -H 'Content-Type: application/json' \
+                -d '{"name":"Probe","price":1,"developer":"Dev","platform":"PC","yearOfPublication":2000}' \
+                "localhost:$PORT/games" 2> /dev/null | sed -n 's/.*"id":\([0-9]*\).*/\1/p') || true
+        fi
+        if [ -n "$id" ] && curl -sf -o /dev/null "localhost:$PORT/games/$id"; then
+            echo $(($(now_ms) - started))
+            kill "$pid"
+            wait "$pid" 2> /dev/null || true
+            return
+        fi
+        sleep 0.02
+    done
+    kill "$pid"
+    echo "no successful GET within two minutes, see $WORK/app.log" >&2
+    exit 1
+}
+
+if curl -s -o /dev/null "localhost:$PORT"; then
+    echo "port $PORT is already in use" >&2
+    exit 1
+fi
+echo "mode,runs,median_ms,min_ms,max_ms"
+for mode in "$@"; do
+    case "$mode" in
+        cds) [ -f "$WORK/cds.jsa" ] || train cds ;;
+        cds-aot*) [ -f "$WORK/cds-aot.jsa" ] || train cds-aot -Dspring.aot.enabled=true ;;
+    esac
+    times=()
+    for _ in $(seq 1 "$RUNS"); do
+        times+=("$(time_to_first_get "$mode")")
+    done
+    sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+    echo "$mode,$RUNS,${sorted[$((RUNS / 2))]},${sorted[0]},${sorted[$((RUNS - 1))]}"
+done
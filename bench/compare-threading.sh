@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+# Compares platform-thread and virtual-thread request handling under a closed-loop load.
+#
+# usage: bench/compare-threading.sh [clients...]        (default: 1000 10000)
+# env:   JAVA      java executable running the application (virtual threads need 21+)
+#        GAMES     number of games seeded before the runs (default 20000)
+#        WARMUP    seconds to ramp up the clients (default 15)
+#        DURATION  measured seconds per run (default 30)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+GAMES=${GAMES:-20000}
+WARMUP=${WARMUP:-15}
+DURATION=${DURATION:-30}
+if [ $# -eq 0 ]; then
+    set -- 1000 10000
+fi
+PORT=8082
+WORK=$(mktemp -d)
+
+(cd "$ROOT" && mvn -B -q -P loadgen -DskipTests package)
+LOADGEN_CP="$ROOT/target/test-classes:$(cat "$ROOT/target/loadgen.classpath")"
+
+start_app() {
+    if curl -sf "localhost:$PORT/games?size=1" > /dev/null; then
+        echo "port $PORT is already in use" >&2
+        exit 1
+    fi
+    (cd "$WORK" && exec "$JAVA" -jar "$ROOT/target/JatekBazar.jar" \
+        --server.tomcat.max-connections=20000 --server.tomcat.accept-count=1000 \
+        "$@" > "$WORK/app.log" 2>&1) &
+    echo $! > "$WORK/app.pid"
+    for _ in $(seq 1 120); do
+        curl -sf "localhost:$PORT/games?size=1" > /dev/null && return
+        sleep 1
+    done
+    echo "application did not start, see $WORK/app.log" >&2
+    exit 1
+}
+
+seed() {
+    awk -v n="$GAMES" 'BEGIN {
+        split("PC PS5 Switch Xbox", platforms, " ")
+        for (i = 0; i < n; i++) {
+            printf "{\"name\":\"Game %d\",\"price\":%d,\"developer\":\"Dev %d\",", i, 1 + i % 100, i % 500
+            printf "\"platform\":\"%s\",\"yearOfPublication\":%d}\n", platforms[1 + i % 4], 1990 + i % 35
+        }
+    }' > "$WORK/games.ndjson"
+    curl -sf -H 'Content-Type: application/x-ndjson' --data-binary "@$WORK/games.ndjson" \
+        "localhost:$PORT/games/bulk" > /dev/null
+}
+
+echo "mode,clients,requests,errors,rps,p50_ms,p99_ms,max_ms"
+for mode in platform virtual; do
+    if [ "$mode" = virtual ]; then
+        start_app --spring.profiles.active=virtual-threads
+    else
+        start_app
+    fi
+    seed
+    for clients in "$@"; do
+        # /games/query misses every in-memory structure and runs one indexed JDBC query
+        result=$("$JAVA" -cp "$LOADGEN_CP" hu.nye.home.loadgen.ClosedLoop \
+            --url "http://localhost:$PORT/games/query?platform=PS5&minPrice={id}&size=20" \
+            --ids 100 --clients "$clients" --warmup "$WARMUP" --duration "$DURATION" | tail -1)
+        echo "$mode,$result"
+    done
+    pid=$(cat "$WORK/app.pid")
+    kill "$pid"
+    while kill -0 "$pid" 2> /dev/null; do
+        sleep 1
+    done
+done
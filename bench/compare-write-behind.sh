@@ -0,0 +1,82 @@
+#!/usr/bin/env bash
+# Compares synchronous writes with the write-behind profile under a closed-loop load.
+#
+# usage: bench/compare-write-behind.sh [clients...]      (default: 16 64)
+# env:   JAVA      java executable running the application
+#        GAMES     number of games seeded before the runs (default 20000)
+#        HOT       number of games the hot updates go to (default 100)
+#        PROFILES  profiles added to both modes, e.g. persistent (default none)
+#        WARMUP    seconds to ramp up the clients (default 10)
+#        DURATION  measured seconds per run (default 30)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+JAVA=${JAVA:-java}
+GAMES=${GAMES:-20000}
+HOT=${HOT:-100}
+PROFILES=${PROFILES:-}
+WARMUP=${WARMUP:-10}
+DURATION=${DURATION:-30}
+if [ $# -eq 0 ]; then
+    set -- 16 64
+fi
+PORT=8082
+WORK=$(mktemp -d)
+GAME='{"name":"Game {id}","price":{id},"developer":"Dev 1","platform":"PC","yearOfPublication":2000}'
+
+(cd "$ROOT" && mvn -B -q -P loadgen -DskipTests package)
+LOADGEN_CP="$ROOT/target/test-classes:$(cat "$ROOT/target/loadgen.classpath")"
+
+start_app() {
+    if curl -sf "localhost:$PORT/games?size=1" > /dev/null; then
+        echo "port $PORT is already in use" >&2
+        exit 1
+    fi
+    rm -rf "$WORK/data"
+    (cd "$WORK" && exec "$JAVA" -jar "$ROOT/target/JatekBazar.jar" \
+        --spring.profiles.active="$1" > "$WORK/app.log" 2>&1) &
+    echo $! > "$WORK/app.pid"
+    for _ in $(seq 1 120); do
+        curl -sf "localhost:$PORT/games?size=1" > /dev/null && return
+        sleep 1
+    done
+    echo "application did not start, see $WORK/app.log" >&2
+    exit 1
+}
+
+seed() {
+    awk -v n="$GAMES" 'BEGIN {
+        for (i = 0; i < n; i++) {
+            printf "{\"name\":\"Game %d\",\"price\":%d,\"developer\":\"Dev %d\",", i, 1 + i % 100, i % 500
+            printf "\"platform\":\"PC\",\"yearOfPublication\":%d}\n", 1990 + i % 35
+        }
+    }' > "$WORK/games.ndjson"
+    curl -sf -H 'Content-Type: application/x-ndjson' --data-binary "@$WORK/games.ndjson" \
+        "localhost:$PORT/games/bulk" > /dev/null
+}
+
+run() {
+    "$JAVA" -cp "$LOADGEN_CP" hu.nye.home.loadgen.ClosedLoop --method "$1" --url "$2" --ids "$3" \
+        --body "$GAME" --clients "$4" --warmup "$WARMUP" --duration "$DURATION" | tail -1
+}
+
+echo "mode,workload,clients,requests,errors,rps,p50_ms,p99_ms,max_ms"
+for mode in sync write-behind; do
+    profiles=$PROFILES
+    if [ "$mode" = write-behind ]; then
+        profiles=${profiles:+$profiles,}write-behind
+    fi
+    start_app "$profiles"
+    seed
+    for clients in "$@"; do
+        echo "$mode,create,$(run POST "http://localhost:$PORT/games" 1 "$clients")"
+        # many updates of few games, which write-behind coalesces
+        echo "$mode,update-hot,$(run PUT "http://localhost:$PORT/games/{id}" "$HOT" "$clients")"
+        echo "$mode,update-all,$(run PUT "http://localhost:$PORT/games/{id}" "$GAMES" "$clients")"
+    done
+    pid=$(cat "$WORK/app.pid")
+    kill "$pid"
+    while kill -0 "$pid" 2> /dev/null; do
+        sleep 1
+    done
+done
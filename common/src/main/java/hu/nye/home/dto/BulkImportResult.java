@@ -0,0 +1,26 @@
+package hu.nye.home.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of a bulk import.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+public class BulkImportResult {
+    
+    private long received;
+    
+    private long imported;
+    
+    private long failed;
+    
+    /**
+     * The first rejected records; {@link #failed} holds the full count.
+     */
+    private List<BulkRecordError> errors = new ArrayList<>();
+}
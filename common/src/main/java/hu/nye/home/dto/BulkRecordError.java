@@ -0,0 +1,22 @@
+package hu.nye.home.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A record of a bulk import that was rejected.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkRecordError {
+    
+    /**
+     * Zero-based position of the record in the uploaded payload.
+     */
+    private long index;
+    
+    private String message;
+}
@@ -0,0 +1,25 @@
+package hu.nye.home.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One keyset page of games together with the cursor of the next page.
+ *
+ * @param <G> the game type of the stack serving the page
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GamePage<G> {
+    
+    private List<G> items;
+    
+    /**
+     * Opaque token of the next page, or null if this is the last page.
+     */
+    private String nextCursor;
+}
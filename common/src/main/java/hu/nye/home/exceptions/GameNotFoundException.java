@@ -0,0 +1,26 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when a game is not found.
+ *
+ * <p>It is answered with a 404 and never logged, so it does not capture a stack trace.
+ * Clients guessing ids make it the most frequent exception of the application.
+ */
+public class GameNotFoundException extends Exception {
+  
+  public GameNotFoundException() {
+    super(null, null, false, false);
+  }
+  
+  public GameNotFoundException(String message) {
+    super(message, null, false, false);
+  }
+  
+  public GameNotFoundException(String message, Throwable cause) {
+    super(message, cause, false, false);
+  }
+  
+  public GameNotFoundException(Throwable cause) {
+    super(cause == null ? null : cause.toString(), cause, false, false);
+  }
+}
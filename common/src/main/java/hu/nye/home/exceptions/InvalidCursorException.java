@@ -0,0 +1,15 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when a page cursor cannot be decoded.
+ */
+public class InvalidCursorException extends Exception {
+  
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+  
+  public InvalidCursorException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,66 @@
+package hu.nye.home.service;
+
+import hu.nye.home.exceptions.InvalidCursorException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursors handed out to clients.
+ *
+ * <p>A cursor carries the id of the last game of the previous page, so the next
+ * page is an index range scan on the primary key no matter how deep it is.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public final class GameCursor {
+    
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    private GameCursor() {
+    }
+    
+    /**
+     * Encodes the id of the last game of a page.
+     *
+     * @param lastId the id of the last game of the page
+     * @return the opaque cursor of the next page
+     */
+    public static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                 .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+    
+    /**
+     * Decodes a cursor into the id after which the next page starts.
+     *
+     * @param cursor the cursor received from the client, may be null or empty
+     * @return the id after which the page starts, 0 for the first page
+     * @throws InvalidCursorException if the cursor was not produced by {@link #encode(long)}
+     */
+    public static long decode(String cursor) throws InvalidCursorException {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            byte[] raw = Base64.getUrlDecoder().decode(cursor);
+            long id = Long.parseLong(new String(raw, StandardCharsets.US_ASCII));
+            if (id < 0) {
+                throw new InvalidCursorException("Negative cursor: " + cursor);
+            }
+            return id;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Malformed cursor: " + cursor, e);
+        }
+    }
+    
+    /**
+     * Clamps a requested page size into the allowed range.
+     *
+     * @param size the page size requested by the client
+     * @return the page size that will be used
+     */
+    public static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -0,0 +1,41 @@
+package hu.nye.home.service;
+
+import hu.nye.home.exceptions.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCursorTest {
+    
+    @Test
+    public void testEncodeDecode_RoundTrip() throws Exception {
+        String cursor = GameCursor.encode(123456789L);
+        
+        assertEquals(123456789L, GameCursor.decode(cursor));
+    }
+    
+    @Test
+    public void testDecode_NullAndEmptyStartAtFirstPage() throws Exception {
+        assertEquals(0L, GameCursor.decode(null));
+        assertEquals(0L, GameCursor.decode(""));
+    }
+    
+    @Test
+    public void testDecode_Malformed() {
+        InvalidCursorException exception = assertThrows(InvalidCursorException.class,
+          () -> GameCursor.decode("%%%"));
+        assertNotNull(exception.getCause());
+    }
+    
+    @Test
+    public void testDecode_Negative() {
+        assertThrows(InvalidCursorException.class, () -> GameCursor.decode(GameCursor.encode(-5L)));
+    }
+    
+    @Test
+    public void testClampPageSize() {
+        assertEquals(1, GameCursor.clampPageSize(-3));
+        assertEquals(20, GameCursor.clampPageSize(20));
+        assertEquals(GameCursor.MAX_PAGE_SIZE, GameCursor.clampPageSize(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,15 @@
+package hu.nye.home.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Main class of the non-blocking variant of the game API.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@SpringBootApplication
+public class ReactiveMain {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveMain.class, args);
+    }
+}
@@ -0,0 +1,34 @@
+package hu.nye.home.reactive.controller;
+
+import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.InvalidCursorException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Controller advice to handle exceptions globally.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@RestControllerAdvice
+public class ExceptionHandlerController {
+    
+    /**
+     * Handles GameNotFoundException and returns HTTP 404 Not Found.
+     */
+    @ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Game not found in our database!")
+    @ExceptionHandler(GameNotFoundException.class)
+    public void gameNotFoundExceptionHandler() {
+    
+    }
+    
+    /**
+     * Handles InvalidCursorException and returns HTTP 400 Bad Request.
+     */
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid page cursor!")
+    @ExceptionHandler(InvalidCursorException.class)
+    public void invalidCursorExceptionHandler() {
+    
+    }
+}
@@ -0,0 +1,187 @@
+package hu.nye.home.reactive.controller;
+
+import hu.nye.home.dto.BulkImportResult;
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.reactive.model.Game;
+import hu.nye.home.reactive.service.ReactiveGameService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+
+/**
+ * Serves the /games routes of the main application on the non-blocking stack.
+ *
+ * <p>The developer and platform lookups answer {@code application/x-ndjson} requests
+ * with a stream of every matching game instead of a page; the stream is read from
+ * the database only as fast as the client consumes it.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@RestController
+public class ReactiveGameController {
+    
+    private final ReactiveGameService gameService;
+    
+    @Autowired
+    public ReactiveGameController(ReactiveGameService gameService) {
+        this.gameService = gameService;
+    }
+    
+    /**
+     * Adds a new game.
+     *
+     * @param dto the game to add
+     * @return the saved game
+     */
+    @PostMapping("/games")
+    public Mono<Game> addNewGame(@RequestBody @Valid GameDto dto) {
+        return gameService.saveGame(dto);
+    }
+    
+    /**
+     * Imports many games from a JSON array or newline-delimited JSON.
+     *
+     * @param dtos the games, decoded while the body arrives
+     * @return the number of received, imported and rejected records
+     */
+    @PostMapping(value = "/games/bulk",
+                 consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<BulkImportResult> importGames(@RequestBody Flux<GameDto> dtos) {
+        return gameService.importGames(dtos);
+    }
+    
+    /**
+     * Retrieves a game by its id.
+     *
+     * @param id the id of the game
+     * @return the game
+     */
+    @GetMapping("/games/{id}")
+    public Mono<Game> getGameById(@PathVariable("id") Long id) {
+        return gameService.getGameById(id);
+    }
+    
+    /**
+     * Updates an existing game.
+     *
+     * @param id the id of the game
+     * @param dto the new attributes
+     * @return the updated game
+     */
+    @PutMapping("/games/{id}")
+    public Mono<Game> updateGame(@PathVariable("id") Long id, @RequestBody @Valid GameDto dto) {
+        return gameService.updateGame(id, dto);
+    }
+    
+    /**
+     * Deletes a game by its id.
+     *
+     * @param id the id of the game
+     * @return completes once the game is deleted
+     */
+    @DeleteMapping("/games/{id}")
+    public Mono<Void> deleteGame(@PathVariable("id") Long id) {
+        return gameService.deleteGameById(id);
+    }
+    
+    /**
+     * Lists all games one keyset page at a time.
+     *
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games ordered by id
+     */
+    @GetMapping("/games")
+    public Mono<GamePage<Game>> findAllGames(@RequestParam(value = "cursor", required = false)
+                                             String cursor,
+                                             @RequestParam(value = "size", defaultValue = "50")
+                                             int size) {
+        return gameService.findAllGames(cursor, size);
+    }
+    
+    /**
+     * Finds the games with the specified name.
+     *
+     * @param name the name of the games
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games with the specified name
+     */
+    @GetMapping("/games/name/{name}")
+    public Mono<GamePage<Game>> findAllGameByName(@PathVariable("name") String name,
+                                                  @RequestParam(value = "cursor", required = false)
+                                                  String cursor,
+                                                  @RequestParam(value = "size", defaultValue = "50")
+                                                  int size) {
+        return gameService.findAllGameByName(name, cursor, size);
+    }
+    
+    /**
+     * Finds the games of the specified developer.
+     *
+     * @param developer the developer of the games
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games of the specified developer
+     */
+    @GetMapping("/games/developer/{developer}")
+    public Mono<GamePage<Game>> findAllGameByDeveloper(@PathVariable("developer") String developer,
+                                                       @RequestParam(value = "cursor",
+                                                         required = false) String cursor,
+                                                       @RequestParam(value = "size",
+                                                         defaultValue = "50") int size) {
+        return gameService.findAllGameByDeveloper(developer, cursor, size);
+    }
+    
+    /**
+     * Streams every game of the specified developer.
+     *
+     * @param developer the developer of the games
+     * @return the games as newline-delimited JSON, ordered by id
+     */
+    @GetMapping(value = "/games/developer/{developer}",
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Game> streamGamesByDeveloper(@PathVariable("developer") String developer) {
+        return gameService.streamGamesByDeveloper(developer);
+    }
+    
+    /**
+     * Finds the games of the specified platform.
+     *
+     * @param platform the platform of the games
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games of the specified platform
+     */
+    @GetMapping("/games/platform/{platform}")
+    public Mono<GamePage<Game>> findAllGameByPlatform(@PathVariable("platform") String platform,
+                                                      @RequestParam(value = "cursor",
+                                                        required = false) String cursor,
+                                                      @RequestParam(value = "size",
+                                                        defaultValue = "50") int size) {
+        return gameService.findAllGameByPlatform(platform, cursor, size);
+    }
+    
+    /**
+     * Streams every game of the specified platform.
+     *
+     * @param platform the platform of the games
+     * @return the games as newline-delimited JSON, ordered by id
+     */
+    @GetMapping(value = "/games/platform/{platform}",
+                produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Game> streamGamesByPlatform(@PathVariable("platform") String platform) {
+        return gameService.streamGamesByPlatform(platform);
+    }
+}
@@ -0,0 +1,30 @@
+package hu.nye.home.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Row of the games table, mapped the same way as the JPA entity of the main application.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table("games")
+public class Game {
+    @Id
+    private Long id;
+    private String name;
+    private int price;
+    private String developer;
+    private String platform;
+    private int yearOfPublication;
+    @Version
+    private Long version;
+}
@@ -0,0 +1,43 @@
+package hu.nye.home.reactive.repositories;
+
+import hu.nye.home.reactive.model.Game;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking repository over the games table.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Repository
+public interface ReactiveGameRepository extends ReactiveCrudRepository<Game, Long> {
+    
+    Flux<Game> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    Flux<Game> findByNameAndIdGreaterThanOrderByNameAscIdAsc(String name, Long afterId,
+                                                            Limit limit);
+    
+    Flux<Game> findByDeveloperAndIdGreaterThanOrderByDeveloperAscIdAsc(String developer,
+                                                                      Long afterId,
+                                                                      Limit limit);
+    
+    Flux<Game> findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc(String platform,
+                                                                    Long afterId,
+                                                                    Limit limit);
+    
+    Flux<Game> findByDeveloperOrderByIdAsc(String developer);
+    
+    Flux<Game> findByPlatformOrderByIdAsc(String platform);
+    
+    /**
+     * Reserves a block of ids, shared with the main application: under its pooled-lo
+     * optimizer the value v stands for the ids v to v + 49.
+     *
+     * @return the first id of the block
+     */
+    @Query("SELECT NEXT VALUE FOR games_seq")
+    Mono<Long> nextIdBlock();
+}
@@ -0,0 +1,286 @@
+package hu.nye.home.reactive.service;
+
+import hu.nye.home.dto.BulkImportResult;
+import hu.nye.home.dto.BulkRecordError;
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.reactive.model.Game;
+import hu.nye.home.reactive.repositories.ReactiveGameRepository;
+import hu.nye.home.service.GameCursor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+
+/**
+ * Non-blocking counterpart of the game service of the main application.
+ *
+ * <p>Nothing here blocks a thread: every method returns at once and the work runs on
+ * the event loop as the database answers. Streamed results are requested from the
+ * database only as fast as the client reads them.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+public class ReactiveGameService {
+    
+    /**
+     * Ids represented by one value of games_seq, see the pooled-lo optimizer of the main
+     * application.
+     */
+    static final int ID_BLOCK_SIZE = 50;
+    
+    /**
+     * Rejected records listed in the result, as in the main application.
+     */
+    static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private final ReactiveGameRepository gameRepository;
+    
+    private final R2dbcEntityOperations entityOperations;
+    
+    private final TransactionalOperator transactionalOperator;
+    
+    private final Validator validator;
+    
+    private final int chunkSize;
+    
+    /**
+     * Constructs a new ReactiveGameService.
+     *
+     * @param gameRepository the repository games are read from
+     * @param entityOperations inserts games with ids allocated from games_seq
+     * @param transactionalOperator wraps each chunk of a bulk import in a transaction
+     * @param validator validates the records of a bulk import
+     * @param chunkSize number of records per transaction of a bulk import
+     */
+    @Autowired
+    public ReactiveGameService(ReactiveGameRepository gameRepository,
+                               R2dbcEntityOperations entityOperations,
+                               TransactionalOperator transactionalOperator,
+                               Validator validator,
+                               @Value("${jatekbazar.bulk.chunk-size:1000}") int chunkSize) {
+        this.gameRepository = gameRepository;
+        this.entityOperations = entityOperations;
+        this.transactionalOperator = transactionalOperator;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+    }
+    
+    /**
+     * Saves a new game.
+     *
+     * @param dto the game to save
+     * @return the saved game with its id
+     */
+    public Mono<Game> saveGame(GameDto dto) {
+        return gameRepository.nextIdBlock()
+                 .flatMap(id -> entityOperations.insert(toGame(dto).id(id).build()));
+    }
+    
+    /**
+     * Imports games in chunks, one transaction per chunk; invalid records are reported
+     * and skipped.
+     *
+     * @param dtos the games to import, consumed as they arrive
+     * @return the number of received, imported and rejected records
+     */
+    public Mono<BulkImportResult> importGames(Flux<GameDto> dtos) {
+        return dtos.index()
+                 .buffer(chunkSize)
+                 .concatMap(chunk -> {
+                     BulkImportResult result = new BulkImportResult();
+                     result.setReceived(chunk.size());
+                     List<Game> valid = new ArrayList<>(chunk.size());
+                     for (Tuple2<Long, GameDto> record : chunk) {
+                         Set<ConstraintViolation<GameDto>> violations =
+                           validator.validate(record.getT2());
+                         if (violations.isEmpty()) {
+                             valid.add(toGame(record.getT2()).build());
+                         } else {
+                             result.setFailed(result.getFailed() + 1);
+                             result.getErrors().add(new BulkRecordError(record.getT1(),
+                               describe(violations)));
+                         }
+                     }
+                     result.setImported(valid.size());
+                     return insertAll(valid)
+                              .as(transactionalOperator::transactional)
+                              .then(Mono.just(result));
+                 })
+                 .reduceWith(BulkImportResult::new, (total, chunk) -> {
+                     total.setReceived(total.getReceived() + chunk.getReceived());
+                     total.setImported(total.getImported() + chunk.getImported());
+                     total.setFailed(total.getFailed() + chunk.getFailed());
+                     chunk.getErrors().stream()
+                       .limit(MAX_REPORTED_ERRORS - total.getErrors().size())
+                       .forEach(total.getErrors()::add);
+                     return total;
+                 });
+    }
+    
+    private static String describe(Set<ConstraintViolation<GameDto>> violations) {
+        return violations.stream()
+                 .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                 .sorted()
+                 .collect(Collectors.joining(", "));
+    }
+    
+    private Flux<Game> insertAll(List<Game> games) {
+        return Flux.fromIterable(games)
+                 .buffer(ID_BLOCK_SIZE)
+                 .concatMap(block -> gameRepository.nextIdBlock().flatMapMany(first -> {
+                     for (int i = 0; i < block.size(); i++) {
+                         block.get(i).setId(first + i);
+                     }
+                     return Flux.fromIterable(block).concatMap(entityOperations::insert);
+                 }));
+    }
+    
+    /**
+     * Retrieves a game by its id.
+     *
+     * @param id the id of the game
+     * @return the game, or a {@link GameNotFoundException} error
+     */
+    public Mono<Game> getGameById(Long id) {
+        return gameRepository.findById(id)
+                 .switchIfEmpty(Mono.error(GameNotFoundException::new));
+    }
+    
+    /**
+     * Replaces every attribute of an existing game and bumps its version.
+     *
+     * @param id the id of the game
+     * @param dto the new attributes
+     * @return the updated game, or a {@link GameNotFoundException} error
+     */
+    public Mono<Game> updateGame(Long id, GameDto dto) {
+        return getGameById(id)
+                 .flatMap(game -> gameRepository.save(toGame(dto).id(game.getId())
+                                                        .version(game.getVersion()).build()));
+    }
+    
+    /**
+     * Deletes a game; deleting a missing game is not an error.
+     *
+     * @param id the id of the game
+     * @return completes once the row is gone
+     */
+    public Mono<Void> deleteGameById(Long id) {
+        return gameRepository.deleteById(id);
+    }
+    
+    /**
+     * Lists all games one keyset page at a time.
+     *
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size
+     * @return one page of games ordered by id
+     */
+    public Mono<GamePage<Game>> findAllGames(String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        return Mono.fromCallable(() -> GameCursor.decode(cursor))
+                 .flatMap(afterId -> toPage(gameRepository.findByIdGreaterThanOrderByIdAsc(
+                   afterId, Limit.of(pageSize + 1)), pageSize));
+    }
+    
+    /**
+     * Lists the games with the given name one keyset page at a time.
+     *
+     * @param name the name of the games
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size
+     * @return one page of games ordered by id
+     */
+    public Mono<GamePage<Game>> findAllGameByName(String name, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        return Mono.fromCallable(() -> GameCursor.decode(cursor))
+                 .flatMap(afterId -> toPage(
+                   gameRepository.findByNameAndIdGreaterThanOrderByNameAscIdAsc(
+                     name, afterId, Limit.of(pageSize + 1)), pageSize));
+    }
+    
+    /**
+     * Lists the games of a developer one keyset page at a time.
+     *
+     * @param developer the developer of the games
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size
+     * @return one page of games ordered by id
+     */
+    public Mono<GamePage<Game>> findAllGameByDeveloper(String developer, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        return Mono.fromCallable(() -> GameCursor.decode(cursor))
+                 .flatMap(afterId -> toPage(
+                   gameRepository.findByDeveloperAndIdGreaterThanOrderByDeveloperAscIdAsc(
+                     developer, afterId, Limit.of(pageSize + 1)), pageSize));
+    }
+    
+    /**
+     * Lists the games of a platform one keyset page at a time.
+     *
+     * @param platform the platform of the games
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size
+     * @return one page of games ordered by id
+     */
+    public Mono<GamePage<Game>> findAllGameByPlatform(String platform, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        return Mono.fromCallable(() -> GameCursor.decode(cursor))
+                 .flatMap(afterId -> toPage(
+                   gameRepository.findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc(
+                     platform, afterId, Limit.of(pageSize + 1)), pageSize));
+    }
+    
+    /**
+     * Streams every game of a developer, fetched as fast as the subscriber demands.
+     *
+     * @param developer the developer of the games
+     * @return the games ordered by id
+     */
+    public Flux<Game> streamGamesByDeveloper(String developer) {
+        return gameRepository.findByDeveloperOrderByIdAsc(developer);
+    }
+    
+    /**
+     * Streams every game of a platform, fetched as fast as the subscriber demands.
+     *
+     * @param platform the platform of the games
+     * @return the games ordered by id
+     */
+    public Flux<Game> streamGamesByPlatform(String platform) {
+        return gameRepository.findByPlatformOrderByIdAsc(platform);
+    }
+    
+    private static Mono<GamePage<Game>> toPage(Flux<Game> rows, int pageSize) {
+        return rows.collectList().map(list -> {
+            if (list.size() <= pageSize) {
+                return new GamePage<>(list, null);
+            }
+            List<Game> items = list.subList(0, pageSize);
+            return new GamePage<>(items, GameCursor.encode(items.get(pageSize - 1).getId()));
+        });
+    }
+    
+    private static Game.GameBuilder toGame(GameDto dto) {
+        return Game.builder()
+                 .name(dto.getName())
+                 .price(dto.getPrice())
+                 .developer(dto.getDeveloper())
+                 .platform(dto.getPlatform())
+                 .yearOfPublication(dto.getYearOfPublication());
+    }
+}
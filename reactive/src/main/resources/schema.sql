@@ -0,0 +1,21 @@
+-- Same schema as the one Hibernate generates for the main application.
+CREATE SEQUENCE IF NOT EXISTS games_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS games (
+    id BIGINT NOT NULL PRIMARY KEY,
+    developer VARCHAR(255),
+    name VARCHAR(255),
+    platform VARCHAR(255),
+    price INTEGER NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    year_of_publication INTEGER NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_games_name_id ON games (name, id);
+CREATE INDEX IF NOT EXISTS idx_games_developer_id ON games (developer, id);
+CREATE INDEX IF NOT EXISTS idx_games_platform_id ON games (platform, id);
+CREATE INDEX IF NOT EXISTS idx_games_platform_price ON games (platform, price);
+CREATE INDEX IF NOT EXISTS idx_games_platform_year ON games (platform, year_of_publication);
+CREATE INDEX IF NOT EXISTS idx_games_developer_year ON games (developer, year_of_publication);
+CREATE INDEX IF NOT EXISTS idx_games_price_year ON games (price, year_of_publication);
+CREATE INDEX IF NOT EXISTS idx_games_year_price ON games (year_of_publication, price);
@@ -0,0 +1,185 @@
+package hu.nye.home.reactive.service;
+
+import hu.nye.home.dto.BulkRecordError;
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.InvalidCursorException;
+import hu.nye.home.reactive.model.Game;
+import hu.nye.home.reactive.repositories.ReactiveGameRepository;
+import hu.nye.home.service.GameCursor;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.core.R2dbcEntityOperations;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveGameServiceTest {
+    @Mock
+    private ReactiveGameRepository gameRepository;
+    @Mock
+    private R2dbcEntityOperations entityOperations;
+    @Mock
+    private TransactionalOperator transactionalOperator;
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private ReactiveGameService gameService;
+
+    private final GameDto dto = new GameDto(null, "Zelda", 60, "Nintendo", "Switch", 2017);
+
+    @BeforeEach
+    public void setUp() {
+        gameService = new ReactiveGameService(gameRepository, entityOperations,
+          transactionalOperator, validator, 3);
+    }
+
+    private static Game game(long id) {
+        return Game.builder().id(id).name("Game " + id).price(10).developer("Dev")
+                 .platform("PC").yearOfPublication(2000).build();
+    }
+
+    @Test
+    public void testSaveGame_UsesIdFromSequence() {
+        when(gameRepository.nextIdBlock()).thenReturn(Mono.just(51L));
+        when(entityOperations.insert(any(Game.class)))
+          .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(gameService.saveGame(dto))
+          .assertNext(saved -> {
+              assertEquals(51L, saved.getId());
+              assertEquals("Zelda", saved.getName());
+          })
+          .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportGames_ChunksAndSkipsInvalidRecords() {
+        List<Long> blocks = new ArrayList<>(List.of(1L, 51L));
+        when(gameRepository.nextIdBlock()).thenAnswer(invocation -> Mono.just(blocks.remove(0)));
+        List<Game> inserted = new ArrayList<>();
+        when(entityOperations.insert(any(Game.class))).thenAnswer(invocation -> {
+            inserted.add(invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+        when(transactionalOperator.transactional(any(Flux.class)))
+          .thenAnswer(invocation -> invocation.getArgument(0));
+        GameDto invalid = new GameDto(null, "", -1, "Dev", "PC", 2000);
+
+        StepVerifier.create(gameService.importGames(Flux.just(dto, invalid, dto, dto)))
+          .assertNext(result -> {
+              assertEquals(4, result.getReceived());
+              assertEquals(3, result.getImported());
+              assertEquals(1, result.getFailed());
+              assertEquals(List.of(new BulkRecordError(1, "name must not be empty, "
+                                                         + "price must be greater than 0")),
+                result.getErrors());
+          })
+          .verifyComplete();
+
+        assertEquals(List.of(1L, 2L, 51L), inserted.stream().map(Game::getId).toList());
+        verify(transactionalOperator, times(2)).transactional(any(Flux.class));
+    }
+
+    @Test
+    public void testGetGameById_NotFound() {
+        when(gameRepository.findById(7L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameService.getGameById(7L))
+          .verifyError(GameNotFoundException.class);
+    }
+
+    @Test
+    public void testUpdateGame_KeepsIdAndVersion() {
+        when(gameRepository.findById(7L))
+          .thenReturn(Mono.just(game(7L).toBuilder().version(3L).build()));
+        when(gameRepository.save(any(Game.class)))
+          .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier.create(gameService.updateGame(7L, dto))
+          .assertNext(updated -> assertEquals(game(7L).toBuilder().name("Zelda").price(60)
+                                                .developer("Nintendo").platform("Switch")
+                                                .yearOfPublication(2017).version(3L).build(),
+                                          updated))
+          .verifyComplete();
+    }
+
+    @Test
+    public void testDeleteGameById() {
+        when(gameRepository.deleteById(7L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(gameService.deleteGameById(7L)).verifyComplete();
+    }
+
+    @Test
+    public void testFindAllGames_FirstPageHasNextCursor() {
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+          .thenReturn(Flux.just(game(1L), game(2L), game(3L)));
+
+        StepVerifier.create(gameService.findAllGames(null, 2))
+          .assertNext(page -> {
+              assertEquals(List.of(game(1L), game(2L)), page.getItems());
+              assertEquals(GameCursor.encode(2L), page.getNextCursor());
+          })
+          .verifyComplete();
+    }
+
+    @Test
+    public void testFindAllGames_InvalidCursor() {
+        StepVerifier.create(gameService.findAllGames("!!", 2))
+          .verifyError(InvalidCursorException.class);
+        verifyNoInteractions(gameRepository);
+    }
+
+    @Test
+    public void testFindByAttribute_LastPageHasNoCursor() {
+        when(gameRepository.findByNameAndIdGreaterThanOrderByNameAscIdAsc("Game 5", 4L,
+          Limit.of(3)))
+          .thenReturn(Flux.just(game(5L)));
+        when(gameRepository.findByDeveloperAndIdGreaterThanOrderByDeveloperAscIdAsc("Dev", 0L,
+          Limit.of(3)))
+          .thenReturn(Flux.empty());
+        when(gameRepository.findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc("PC", 0L,
+          Limit.of(3)))
+          .thenReturn(Flux.just(game(1L)));
+
+        StepVerifier.create(gameService.findAllGameByName("Game 5", GameCursor.encode(4L), 2))
+          .assertNext(page -> assertNull(page.getNextCursor()))
+          .verifyComplete();
+        StepVerifier.create(gameService.findAllGameByDeveloper("Dev", null, 2))
+          .assertNext(page -> assertTrue(page.getItems().isEmpty()))
+          .verifyComplete();
+        StepVerifier.create(gameService.findAllGameByPlatform("PC", null, 2))
+          .assertNext(page -> assertEquals(List.of(game(1L)), page.getItems()))
+          .verifyComplete();
+    }
+
+    @Test
+    public void testStreams_HonourBackpressure() {
+        when(gameRepository.findByPlatformOrderByIdAsc("PC"))
+          .thenReturn(Flux.range(1, 1000).map(id -> game(id)));
+        when(gameRepository.findByDeveloperOrderByIdAsc("Dev")).thenReturn(Flux.just(game(1L)));
+
+        StepVerifier.create(gameService.streamGamesByPlatform("PC"), 2)
+          .expectNext(game(1L), game(2L))
+          .thenRequest(1)
+          .expectNext(game(3L))
+          .thenCancel()
+          .verify();
+        StepVerifier.create(gameService.streamGamesByDeveloper("Dev"))
+          .expectNext(game(1L))
+          .verifyComplete();
+    }
+}
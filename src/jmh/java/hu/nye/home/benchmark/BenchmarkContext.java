@@ -0,0 +1,72 @@
+package hu.nye.home.benchmark;
+
+import hu.nye.home.Main;
+import hu.nye.home.service.GameIdFilter;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Starts the application without the web server, on a private in-memory database.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class BenchmarkContext {
+    
+    static final int DEVELOPERS = 1000;
+    
+    static final String[] PLATFORMS = {"PC", "PS4", "PS5", "Switch", "Xbox One",
+        "Xbox Series", "Android", "iOS"};
+    
+    private static final int INSERT_BATCH = 10_000;
+    
+    private BenchmarkContext() {
+    }
+    
+    /**
+     * Starts a context.
+     *
+     * @param database name of the in-memory database, unique per benchmark class
+     * @param profiles the profiles to activate
+     * @return the running context
+     */
+    static ConfigurableApplicationContext start(String database, String... profiles) {
+        return new SpringApplicationBuilder(Main.class)
+                 .web(WebApplicationType.NONE)
+                 .profiles(profiles)
+                 .properties("spring.datasource.url=jdbc:h2:mem:" + database,
+                   "jatekbazar.index.rebuild-on-startup=false",
+                   "jatekbazar.stats.reconcile-interval=PT1000H",
+                   "logging.level.root=warn")
+                 .run();
+    }
+    
+    /**
+     * Inserts games 1..rows directly over JDBC, bypassing the service and its listeners,
+     * and rebuilds the id filter.
+     * Game i is made by developer {@code "Dev " + i % DEVELOPERS} for
+     * {@code PLATFORMS[i % PLATFORMS.length]}.
+     *
+     * @param context the running context
+     * @param rows the number of games
+     */
+    static void seed(ConfigurableApplicationContext context, int rows) {
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= rows; i++) {
+            batch.add(new Object[] {i, "Game " + i, 1 + i % 100, "Dev " + i % DEVELOPERS,
+                PLATFORMS[i % PLATFORMS.length], 1980 + i % 45});
+            if (batch.size() == INSERT_BATCH || i == rows) {
+                jdbc.batchUpdate("INSERT INTO games (id, name, price, developer, platform, "
+                                   + "year_of_publication) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        // ids handed out by games_seq must not collide with the seeded ones
+        jdbc.execute("ALTER SEQUENCE games_seq RESTART WITH " + (rows + 1));
+        // otherwise lookups of the seeded ids are answered as missing
+        context.getBean(GameIdFilter.class).rebuild();
+    }
+}
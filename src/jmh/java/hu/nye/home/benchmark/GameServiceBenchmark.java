@@ -0,0 +1,88 @@
+package hu.nye.home.benchmark;
+
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import hu.nye.home.service.GameServiceInterface;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Write and read paths of the game service against the embedded H2 database.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+    
+    private static final int ROWS = 10_000;
+    
+    private ConfigurableApplicationContext context;
+    
+    private GameServiceInterface gameService;
+    
+    private GameRepositoryInterface gameRepository;
+    
+    private final GameDto dto = new GameDto("Benchmark", 20, "Dev", "PC", 2024);
+    
+    /**
+     * Starts the application on a database holding {@value #ROWS} games.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("service");
+        BenchmarkContext.seed(context, ROWS);
+        gameService = context.getBean(GameServiceInterface.class);
+        gameRepository = context.getBean(GameRepositoryInterface.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    /**
+     * Inserts a game and notifies the cache, the indexes and the statistics.
+     */
+    @Benchmark
+    public Game saveGame() {
+        return gameService.saveGame(dto);
+    }
+    
+    /**
+     * Reads a game through the cache; after the first round every id is a hit.
+     *
+     * @throws GameNotFoundException never, every id exists
+     */
+    @Benchmark
+    public Game getGameByIdCached() throws GameNotFoundException {
+        return gameService.getGameById(ThreadLocalRandom.current().nextLong(1, ROWS + 1));
+    }
+    
+    /**
+     * Reads a game by primary key, the work of a cache miss.
+     */
+    @Benchmark
+    public Game findByIdUncached() {
+        return gameRepository.findById(ThreadLocalRandom.current().nextLong(1, ROWS + 1))
+                 .orElseThrow();
+    }
+}
@@ -0,0 +1,112 @@
+package hu.nye.home.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time a request thread spends writing its access log line: straight into the file, as
+ * the synchronous FileAppender did, or into the queue of an AsyncAppender whose worker
+ * writes every line ({@code async}) or fills the encoder's buffer first
+ * ({@code async-buffered}).
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+    
+    @Param({"sync", "async", "async-buffered"})
+    private String mode;
+    
+    private final LoggerContext context = new LoggerContext();
+    
+    private Path directory;
+    
+    private Logger logger;
+    
+    private Appender<ILoggingEvent> appender;
+    
+    /**
+     * Builds the appender chain of logback-spring.xml, without the rolling policy.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("jatekbazar-logging");
+        // set by SLF4J for the application's context; without it every event fails over
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("ts=%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} thread=%thread %msg%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(directory.resolve("access.log").toString());
+        file.setEncoder(encoder);
+        file.setImmediateFlush(!"async-buffered".equals(mode));
+        file.start();
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        } else {
+            appender = file;
+        }
+        logger = context.getLogger("jatekbazar.access");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+    }
+    
+    @TearDown
+    public void tearDown() throws IOException {
+        context.stop();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+    
+    /**
+     * Logs the line AccessLogFilter writes for {@code GET /games/{id}}.
+     */
+    @Benchmark
+    public void accessLogLine() {
+        logger.info("method={} path=\"{}\" route=\"{}\" status={} duration_us={}", "GET",
+          "/games/" + ThreadLocalRandom.current().nextInt(10_000), "/games/{id}", 200, 850);
+    }
+}
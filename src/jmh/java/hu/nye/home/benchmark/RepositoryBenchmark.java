@@ -0,0 +1,84 @@
+package hu.nye.home.benchmark;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+
+/**
+ * The derived lookups of the repository at growing catalog sizes. With
+ * {@value BenchmarkContext#DEVELOPERS} developers and eight platforms, a developer
+ * owns 0.1% and a platform 12.5% of the catalog.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class RepositoryBenchmark {
+    
+    @Param({"1000", "100000", "1000000"})
+    private int rows;
+    
+    private ConfigurableApplicationContext context;
+    
+    private GameRepositoryInterface gameRepository;
+    
+    /**
+     * Starts the application on a database holding {@link #rows} games.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("repository" + rows);
+        BenchmarkContext.seed(context, rows);
+        gameRepository = context.getBean(GameRepositoryInterface.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public List<Game> findByDeveloper() {
+        return gameRepository.findByDeveloper(
+          "Dev " + ThreadLocalRandom.current().nextInt(BenchmarkContext.DEVELOPERS));
+    }
+    
+    @Benchmark
+    public List<Game> findByPlatform() {
+        return gameRepository.findByPlatform(randomPlatform());
+    }
+    
+    /**
+     * The first keyset page of a platform, what the paged endpoint runs instead.
+     */
+    @Benchmark
+    public List<Game> findByPlatformFirstPage() {
+        return gameRepository.findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc(
+          randomPlatform(), 0L, Limit.of(51));
+    }
+    
+    private static String randomPlatform() {
+        return BenchmarkContext.PLATFORMS[ThreadLocalRandom.current()
+                                            .nextInt(BenchmarkContext.PLATFORMS.length)];
+    }
+}
@@ -0,0 +1,82 @@
+package hu.nye.home.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.model.Game;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization of the response bodies, with the mapper Spring MVC builds.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    
+    @Param({"50", "500"})
+    private int listSize;
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    
+    private Game game;
+    
+    private List<Game> games;
+    
+    private GamePage<Game> page;
+    
+    private byte[] gameJson;
+    
+    /**
+     * Builds the payloads.
+     */
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        game = new Game(42L, "The Legend of Zelda: Breath of the Wild", 60, "Nintendo",
+          "Switch", 2017);
+        games = LongStream.rangeClosed(1, listSize)
+                  .mapToObj(id -> game.toBuilder().id(id).build())
+                  .toList();
+        page = new GamePage<>(games, "NTAw");
+        gameJson = objectMapper.writeValueAsBytes(game);
+    }
+    
+    @Benchmark
+    public byte[] serializeGame() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(game);
+    }
+    
+    @Benchmark
+    public byte[] serializeGameList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(games);
+    }
+    
+    @Benchmark
+    public byte[] serializeGamePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+    
+    @Benchmark
+    public Game deserializeGame() throws IOException {
+        return objectMapper.readValue(gameJson, Game.class);
+    }
+}
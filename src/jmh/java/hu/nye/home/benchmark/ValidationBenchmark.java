@@ -0,0 +1,65 @@
+package hu.nye.home.benchmark;
+
+import hu.nye.home.dto.GameDto;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bean Validation of the request body of {@code POST /games} and the bulk import.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    
+    private ValidatorFactory factory;
+    
+    private Validator validator;
+    
+    private final GameDto valid = new GameDto("Minecraft", 30, "Mojang", "PC", 2011);
+    
+    private final GameDto invalid = new GameDto("", -1, null, "PC", 0);
+    
+    @Setup
+    public void setUp() {
+        factory = Validation.buildDefaultValidatorFactory();
+        validator = factory.getValidator();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        factory.close();
+    }
+    
+    @Benchmark
+    public Set<ConstraintViolation<GameDto>> validateValidDto() {
+        return validator.validate(valid);
+    }
+    
+    /**
+     * Every constraint fails, so this includes building the violation messages.
+     */
+    @Benchmark
+    public Set<ConstraintViolation<GameDto>> validateInvalidDto() {
+        return validator.validate(invalid);
+    }
+}
@@ -0,0 +1,115 @@
+package hu.nye.home.benchmark;
+
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.model.Game;
+import hu.nye.home.service.GameServiceInterface;
+import hu.nye.home.service.GameWriteBehindService;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Acknowledged writes per second of 16 concurrent writers, stored synchronously or by the
+ * {@code write-behind} profile. The write-behind queue is kept small, so after the first
+ * iteration its writers are held back to the rate the flusher stores them at.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class WriteBehindBenchmark {
+    
+    private static final int ROWS = 20_000;
+    
+    private static final int HOT_ROWS = 100;
+    
+    @Param({"sync", "write-behind"})
+    public String mode;
+    
+    private ConfigurableApplicationContext context;
+    
+    private GameServiceInterface gameService;
+    
+    private final GameDto dto = new GameDto("Benchmark", 20, "Dev", "PC", 2024);
+    
+    /**
+     * Starts the application on a database holding {@value #ROWS} games, with a fresh
+     * journal.
+     *
+     * @throws IOException if the journal directory cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        System.setProperty("jatekbazar.write-behind.journal",
+          Files.createTempDirectory("write-behind").toString());
+        System.setProperty("jatekbazar.write-behind.capacity", "2000");
+        context = mode.equals("sync")
+                    ? BenchmarkContext.start("writes")
+                    : BenchmarkContext.start("writesBehind", "write-behind");
+        BenchmarkContext.seed(context, ROWS);
+        gameService = context.getBean(GameServiceInterface.class);
+    }
+    
+    /**
+     * Stores the pending writes, so the next iteration starts with an empty queue and
+     * every write of this one was stored.
+     *
+     * @throws Exception if the writes cannot be stored
+     */
+    @TearDown(Level.Iteration)
+    public void flush() throws Exception {
+        if (gameService instanceof GameWriteBehindService writeBehind) {
+            writeBehind.flush();
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+    
+    /**
+     * Creates a game; every write is a new row.
+     */
+    @Benchmark
+    public Game saveGame() {
+        return gameService.saveGame(dto);
+    }
+    
+    /**
+     * Updates one of {@value #HOT_ROWS} games, which write-behind coalesces.
+     */
+    @Benchmark
+    public Game updateHotGame() {
+        return gameService.updateGame(ThreadLocalRandom.current().nextLong(1, HOT_ROWS + 1),
+          dto);
+    }
+    
+    /**
+     * Updates any of the games.
+     */
+    @Benchmark
+    public Game updateAnyGame() {
+        return gameService.updateGame(ThreadLocalRandom.current().nextLong(1, ROWS + 1), dto);
+    }
+}
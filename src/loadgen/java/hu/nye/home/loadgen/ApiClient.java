@@ -0,0 +1,157 @@
+package hu.nye.home.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Sends the requests of the workload to the running API.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class ApiClient {
+    
+    private static final int SEED_BATCH = 10_000;
+    
+    private final HttpClient client;
+    
+    private final String baseUrl;
+    
+    private final Duration timeout;
+    
+    private final GameGenerator generator;
+    
+    private final IdPool ids = new IdPool();
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    /**
+     * Constructs a new ApiClient.
+     *
+     * @param baseUrl the URL the API is served at, without the trailing slash
+     * @param timeout the time a single request may take
+     * @param generator makes the games of the seed and of the create and update requests
+     */
+    ApiClient(String baseUrl, Duration timeout, GameGenerator generator) {
+        this.client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(timeout)
+                        .build();
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.generator = generator;
+    }
+    
+    /**
+     * Imports generated games through {@code POST /games/bulk}.
+     *
+     * @param count the number of games
+     * @throws IOException if an import request fails
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    void seed(int count) throws IOException, InterruptedException {
+        for (int from = 0; from < count; from += SEED_BATCH) {
+            StringBuilder body = new StringBuilder();
+            for (int i = from; i < Math.min(count, from + SEED_BATCH); i++) {
+                body.append(objectMapper.writeValueAsString(generator.next())).append('\n');
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/games/bulk"))
+                                    .header("Content-Type", "application/x-ndjson")
+                                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                                    .build();
+            HttpResponse<String> response = client.send(request,
+              HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("seeding failed with " + response.statusCode() + ": "
+                                        + response.body());
+            }
+        }
+    }
+    
+    /**
+     * Reads the ids of every game through {@code GET /games/export}.
+     *
+     * @return the number of games
+     * @throws IOException if the export fails
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    int loadIds() throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/games/export"))
+                                .GET()
+                                .build();
+        HttpResponse<InputStream> response = client.send(request,
+          HttpResponse.BodyHandlers.ofInputStream());
+        try (BufferedReader lines = new BufferedReader(
+          new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+            if (response.statusCode() != 200) {
+                throw new IOException("export failed with " + response.statusCode());
+            }
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (!line.isBlank()) {
+                    ids.add(objectMapper.readTree(line).get("id").asLong());
+                }
+            }
+        }
+        return ids.size();
+    }
+    
+    /**
+     * Sends one request and waits for the complete response.
+     *
+     * @param operation the request to send
+     * @param random picks the game or the lookup value
+     * @return the status code of the response
+     * @throws IOException if the request fails or times out
+     * @throws InterruptedException if interrupted while waiting for the response
+     */
+    int send(Operation operation, Random random) throws IOException, InterruptedException {
+        HttpRequest.Builder request = switch (operation) {
+            case GET -> get("/games/" + ids.random(random));
+            case NAME -> get("/games/name/" + encode(generator.name(random)));
+            case DEVELOPER -> get("/games/developer/" + encode(generator.developer(random)));
+            case PLATFORM -> get("/games/platform/" + encode(generator.platform(random)));
+            case CREATE -> json("/games").POST(body());
+            case UPDATE -> json("/games/" + ids.random(random)).PUT(body());
+            case DELETE -> builder("/games/" + ids.removeRandom(random)).DELETE();
+        };
+        HttpResponse<byte[]> response = client.send(request.build(),
+          HttpResponse.BodyHandlers.ofByteArray());
+        if (operation == Operation.CREATE && response.statusCode() == 200) {
+            JsonNode created = objectMapper.readTree(response.body());
+            ids.add(created.get("id").asLong());
+        }
+        return response.statusCode();
+    }
+    
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+    }
+    
+    private HttpRequest.Builder get(String path) {
+        return builder(path).GET();
+    }
+    
+    private HttpRequest.Builder json(String path) {
+        return builder(path).header("Content-Type", "application/json");
+    }
+    
+    private HttpRequest.BodyPublisher body() throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(
+          objectMapper.writeValueAsBytes(generator.next()));
+    }
+    
+    private static String encode(String segment) {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
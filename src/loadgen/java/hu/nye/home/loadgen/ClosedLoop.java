@@ -0,0 +1,189 @@
+package hu.nye.home.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Closed-loop load of a single URL: every client sends its next request once the previous
+ * one completed. It drives the comparison scripts of {@code bench/}, which build it with
+ * the {@code loadgen} profile and run it on the classpath written by that profile:
+ *
+ * <pre>
+ * java -cp "target/test-classes:$(cat target/loadgen.classpath)" \
+ *     hu.nye.home.loadgen.ClosedLoop --url 'http://localhost:8082/games/{id}' \
+ *     --ids 10000 --clients 1000 --warmup 10 --duration 30
+ * </pre>
+ *
+ * <p>{@code {id}} in the URL is replaced by a random id between 1 and {@code --ids}.
+ * {@code --method} sends PUT or POST instead of GET, with the JSON {@code --body}, where
+ * {@code {id}} is replaced by the same id.
+ * {@code --think} makes every client pause that many milliseconds between requests,
+ * which models many slow clients holding mostly idle connections.
+ * A client answered with 503 waits as long as its {@code Retry-After} asks before the next
+ * request; the 503 counts as an error.
+ *
+ * <p>Unlike {@link LoadTest}, a slow server slows the clients down, so the latencies are
+ * those of a fixed number of connected clients rather than of a fixed arrival rate.
+ * Prints one CSV line: clients, requests, errors, requests/s, p50, p99 and max in ms.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public final class ClosedLoop {
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private static final double MICROS_PER_MILLI = 1000.0;
+    
+    private final HttpClient client;
+    
+    private final String url;
+    
+    private final int ids;
+    
+    private final long thinkMillis;
+    
+    private final String method;
+    
+    private final String body;
+    
+    private final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(runnable -> {
+          Thread thread = new Thread(runnable, "think-timer");
+          thread.setDaemon(true);
+          return thread;
+      });
+    
+    private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    
+    private final AtomicLong errors = new AtomicLong();
+    
+    private volatile boolean measuring;
+    
+    private volatile boolean running = true;
+    
+    private ClosedLoop(HttpClient client, String url, int ids, long thinkMillis, String method,
+                       String body) {
+        this.client = client;
+        this.url = url;
+        this.ids = ids;
+        this.thinkMillis = thinkMillis;
+        this.method = method;
+        this.body = body;
+    }
+    
+    /**
+     * Starts the clients over the warm-up, measures them and prints the report.
+     *
+     * @param args the options, all {@code --name value}
+     * @throws InterruptedException if interrupted during the run
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        String url = options.getOrDefault("url", "http://localhost:8082/games/{id}");
+        int ids = Integer.parseInt(options.getOrDefault("ids", "1000"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "100"));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "30"));
+        long think = Long.parseLong(options.getOrDefault("think", "0"));
+        String method = options.getOrDefault("method", "GET");
+        String body = options.getOrDefault("body", "");
+        
+        ExecutorService executor = Executors.newFixedThreadPool(
+          Math.max(2, Runtime.getRuntime().availableProcessors()));
+        HttpClient client = HttpClient.newBuilder()
+                              .version(HttpClient.Version.HTTP_1_1)
+                              .connectTimeout(Duration.ofSeconds(30))
+                              .executor(executor)
+                              .build();
+        ClosedLoop load = new ClosedLoop(client, url, ids, think, method, body);
+        
+        // Clients are started evenly over the warm-up, so connections are not opened
+        // in one burst that overflows the server's accept queue.
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            load.next();
+            long due = startedAt + TimeUnit.SECONDS.toNanos(warmup) * (i + 1) / clients;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+        }
+        load.measuring = true;
+        long from = System.nanoTime();
+        TimeUnit.SECONDS.sleep(duration);
+        load.measuring = false;
+        long elapsed = System.nanoTime() - from;
+        load.running = false;
+        load.report(clients, elapsed);
+        executor.shutdownNow();
+        System.exit(0);
+    }
+    
+    private void next() {
+        if (!running) {
+            return;
+        }
+        String id = Integer.toString(ThreadLocalRandom.current().nextInt(1, ids + 1));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url.replace("{id}", id)))
+                                .timeout(Duration.ofSeconds(60))
+                                .header("Content-Type", "application/json")
+                                .method(method, method.equals("GET")
+                                  ? HttpRequest.BodyPublishers.noBody()
+                                  : HttpRequest.BodyPublishers.ofString(
+                                    body.replace("{id}", id)))
+                                .build();
+        long sent = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+          .whenComplete((response, failure) -> {
+              boolean ok = failure == null && response.statusCode() < 500;
+              record(System.nanoTime() - sent, ok);
+              long pauseMillis = thinkMillis;
+              if (failure == null && response.statusCode() == 503) {
+                  pauseMillis = Math.max(pauseMillis, TimeUnit.SECONDS.toMillis(
+                    response.headers().firstValueAsLong("Retry-After").orElse(0)));
+              }
+              if (pauseMillis > 0) {
+                  timer.schedule(this::next, pauseMillis, TimeUnit.MILLISECONDS);
+              } else {
+                  next();
+              }
+          });
+    }
+    
+    private void record(long latencyNanos, boolean ok) {
+        if (!measuring) {
+            return;
+        }
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+    }
+    
+    private void report(int clients, long elapsedNanos) {
+        long requests = latencies.getTotalCount();
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("clients,requests,errors,rps,p50_ms,p99_ms,max_ms%n");
+        System.out.printf("%d,%d,%d,%.0f,%.1f,%.1f,%.1f%n", clients, requests, errors.get(),
+          requests / seconds, millis(50), millis(99), latencies.getMaxValue() / MICROS_PER_MILLI);
+    }
+    
+    private double millis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,74 @@
+package hu.nye.home.loadgen;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Produces plausible game records from a seed, so every run replays the same dataset.
+ *
+ * <p>Names repeat across games and developers publish many games, so the name, developer
+ * and platform lookups return pages of realistic size rather than single rows.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class GameGenerator {
+    
+    static final String[] PLATFORMS = {"PC", "PS4", "PS5", "Switch", "Xbox One",
+        "Xbox Series", "Android", "iOS"};
+    
+    private static final String[] ADJECTIVES = {"Dark", "Final", "Lost", "Iron", "Silent",
+        "Crimson", "Eternal", "Hidden", "Broken", "Wild", "Frozen", "Golden"};
+    
+    private static final String[] NOUNS = {"Kingdom", "Legacy", "Frontier", "Odyssey",
+        "Horizon", "Empire", "Saga", "Quest", "Chronicles", "Protocol", "Dominion", "Tides"};
+    
+    private static final int SEQUELS = 8;
+    
+    private final Random random;
+    
+    private final int developers;
+    
+    /**
+     * Constructs a new GameGenerator.
+     *
+     * @param seed the seed of the dataset
+     * @param developers the number of distinct developers
+     */
+    GameGenerator(long seed, int developers) {
+        this.random = new Random(seed);
+        this.developers = developers;
+    }
+    
+    /**
+     * Generates the next game as the JSON properties of {@code GameDto}.
+     *
+     * @return the attributes of a game without an id
+     */
+    synchronized Map<String, Object> next() {
+        Map<String, Object> game = new LinkedHashMap<>();
+        game.put("name", name(random));
+        game.put("price", 1 + random.nextInt(70));
+        game.put("developer", developer(random));
+        game.put("platform", platform(random));
+        game.put("yearOfPublication", 1985 + random.nextInt(41));
+        return game;
+    }
+    
+    /**
+     * Picks a name the generator produces, so lookups usually find games.
+     */
+    String name(Random source) {
+        String name = ADJECTIVES[source.nextInt(ADJECTIVES.length)] + " "
+                        + NOUNS[source.nextInt(NOUNS.length)];
+        int sequel = source.nextInt(SEQUELS);
+        return sequel < 2 ? name : name + " " + sequel;
+    }
+    
+    String developer(Random source) {
+        return "Studio " + source.nextInt(developers);
+    }
+    
+    String platform(Random source) {
+        return PLATFORMS[source.nextInt(PLATFORMS.length)];
+    }
+}
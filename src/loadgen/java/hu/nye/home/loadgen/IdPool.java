@@ -0,0 +1,48 @@
+package hu.nye.home.loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The ids of the games known to exist, shared by all workers.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class IdPool {
+    
+    /**
+     * Returned when the pool is empty; no game has this id, so the request gets a 404.
+     */
+    static final long MISSING = 0L;
+    
+    private long[] ids = new long[1024];
+    
+    private int size;
+    
+    synchronized void add(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+    
+    synchronized long random(Random random) {
+        return size == 0 ? MISSING : ids[random.nextInt(size)];
+    }
+    
+    /**
+     * Removes a random id, so no later request is sent for a game about to be deleted.
+     */
+    synchronized long removeRandom(Random random) {
+        if (size == 0) {
+            return MISSING;
+        }
+        int index = random.nextInt(size);
+        long id = ids[index];
+        ids[index] = ids[--size];
+        return id;
+    }
+    
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,117 @@
+package hu.nye.home.loadgen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histograms and error counts per operation, recorded in microseconds.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class LatencyReport {
+    
+    private static final int SIGNIFICANT_DIGITS = 3;
+    
+    private static final double MICROS_PER_MILLI = 1000.0;
+    
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    
+    private final Map<Operation, AtomicLong> serverErrors = new EnumMap<>(Operation.class);
+    
+    private final Map<Operation, AtomicLong> clientErrors = new EnumMap<>(Operation.class);
+    
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            serverErrors.put(operation, new AtomicLong());
+            clientErrors.put(operation, new AtomicLong());
+        }
+    }
+    
+    /**
+     * Records one response.
+     *
+     * @param operation the request
+     * @param latencyNanos the time from the intended send time to the end of the response
+     * @param status the status code, or -1 if no response arrived
+     */
+    void record(Operation operation, long latencyNanos, int status) {
+        histograms.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        if (status < 0 || status >= 500) {
+            serverErrors.get(operation).incrementAndGet();
+        } else if (status >= 400) {
+            clientErrors.get(operation).incrementAndGet();
+        }
+    }
+    
+    /**
+     * Prints one CSV line per operation that was sent, and one for all of them.
+     *
+     * @param out where to print
+     * @param seconds the length of the measurement
+     */
+    void printSummary(PrintStream out, double seconds) {
+        out.println("operation,requests,errors,4xx,rps,p50_ms,p90_ms,p99_ms,p99.9_ms,max_ms");
+        long errors = 0;
+        long rejected = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            if (histogram.getTotalCount() > 0) {
+                printLine(out, operation.key(), histogram, serverErrors.get(operation).get(),
+                  clientErrors.get(operation).get(), seconds);
+            }
+            errors += serverErrors.get(operation).get();
+            rejected += clientErrors.get(operation).get();
+        }
+        printLine(out, "all", total(), errors, rejected, seconds);
+    }
+    
+    /**
+     * Writes the percentile distribution of every operation as an {@code .hgrm} file, in
+     * milliseconds, ready for the HdrHistogram plotter.
+     *
+     * @param directory the directory of the files, created if missing
+     * @throws IOException if a file cannot be written
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Operation operation : Operation.values()) {
+            if (histograms.get(operation).getTotalCount() > 0) {
+                write(histograms.get(operation), directory.resolve(operation.key() + ".hgrm"));
+            }
+        }
+        write(total(), directory.resolve("all.hgrm"));
+    }
+    
+    private Histogram total() {
+        Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        histograms.values().forEach(total::add);
+        return total;
+    }
+    
+    private static void write(Histogram histogram, Path file) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false,
+          "UTF-8")) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+    
+    private static void printLine(PrintStream out, String name, Histogram histogram,
+                                  long errors, long rejected, double seconds) {
+        out.printf("%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f%n", name,
+          histogram.getTotalCount(), errors, rejected, histogram.getTotalCount() / seconds,
+          millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+          millis(histogram, 99.9), histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+    
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
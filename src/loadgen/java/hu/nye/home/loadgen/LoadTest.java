@@ -0,0 +1,138 @@
+package hu.nye.home.loadgen;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load test of the running API with a configurable read/write mix.
+ *
+ * <p>Requests are scheduled at a fixed arrival rate regardless of how fast the server
+ * answers, and each latency is measured from the time the request was due, not from the
+ * time a worker got around to sending it. A server that stalls therefore shows up in the
+ * percentiles with every request that queued behind the stall, instead of hiding it by
+ * slowing the generator down (coordinated omission).
+ *
+ * <p>Options, all {@code --name value}:
+ * <ul>
+ *   <li>{@code url}: base URL of the API (default {@code http://localhost:8082})</li>
+ *   <li>{@code rate}: requests per second (default 200)</li>
+ *   <li>{@code concurrency}: requests in flight at most (default 64)</li>
+ *   <li>{@code mix}: operation weights (default {@value WorkloadMix#DEFAULT})</li>
+ *   <li>{@code warmup} and {@code duration}: seconds (default 10 and 30)</li>
+ *   <li>{@code seed-games}: games imported before the run (default 10000, 0 to skip)</li>
+ *   <li>{@code developers}: distinct developers of the generated games (default 500)</li>
+ *   <li>{@code seed}: seed of the dataset and of the operation sequence (default 42)</li>
+ *   <li>{@code timeout}: seconds a request may take (default 30)</li>
+ *   <li>{@code out}: directory of the {@code .hgrm} files (default target/loadgen)</li>
+ * </ul>
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public final class LoadTest {
+    
+    private LoadTest() {
+    }
+    
+    /**
+     * Seeds the API, runs the load and prints the report.
+     *
+     * @param args the options
+     * @throws Exception if seeding fails or the report cannot be written
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        String url = options.getOrDefault("url", "http://localhost:8082").replaceAll("/$", "");
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "64"));
+        WorkloadMix mix = WorkloadMix.parse(options.getOrDefault("mix", WorkloadMix.DEFAULT));
+        long warmup = Long.parseLong(options.getOrDefault("warmup", "10"));
+        long duration = Long.parseLong(options.getOrDefault("duration", "30"));
+        int seedGames = Integer.parseInt(options.getOrDefault("seed-games", "10000"));
+        int developers = Integer.parseInt(options.getOrDefault("developers", "500"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Duration timeout = Duration.ofSeconds(
+          Long.parseLong(options.getOrDefault("timeout", "30")));
+        Path out = Path.of(options.getOrDefault("out", "target/loadgen"));
+        
+        ApiClient api = new ApiClient(url, timeout, new GameGenerator(seed, developers));
+        if (seedGames > 0) {
+            api.seed(seedGames);
+        }
+        int games = api.loadIds();
+        System.err.printf("%d games, %.0f requests/s, %.0f%% reads, %d in flight at most%n",
+          games, rate, mix.readShare() * 100, concurrency);
+        
+        LatencyReport report = new LatencyReport();
+        int backlog = run(api, mix, new Random(seed), report, rate, concurrency,
+          TimeUnit.SECONDS.toNanos(warmup), TimeUnit.SECONDS.toNanos(duration), timeout);
+        if (backlog > concurrency) {
+            System.err.printf("%d requests were still queued when the run ended: the server "
+                                + "did not keep up with %.0f requests/s%n", backlog, rate);
+        }
+        report.printSummary(System.out, duration);
+        report.writeDistributions(out);
+        System.exit(0);
+    }
+    
+    /**
+     * Sends requests at the given rate for the warm-up and the measurement, then waits for
+     * the outstanding ones.
+     *
+     * @return the number of requests still queued when the last one was due; more than the
+     *     workers means the server fell behind the rate
+     */
+    private static int run(ApiClient api, WorkloadMix mix, Random sequence,
+                           LatencyReport report, double rate, int concurrency,
+                           long warmupNanos, long durationNanos, Duration timeout)
+      throws InterruptedException {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(concurrency, concurrency,
+          0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        double interval = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (long i = 0; ; i++) {
+            long due = start + (long) (i * interval);
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = mix.next(sequence);
+            workers.execute(() -> {
+                int status;
+                try {
+                    status = api.send(operation, ThreadLocalRandom.current());
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (due >= measureFrom) {
+                    report.record(operation, System.nanoTime() - due, status);
+                }
+            });
+        }
+        int backlog = workers.getQueue().size();
+        workers.shutdown();
+        if (!workers.awaitTermination(timeout.toSeconds() * (backlog / concurrency + 2),
+          TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        return backlog;
+    }
+}
@@ -0,0 +1,51 @@
+package hu.nye.home.loadgen;
+
+/**
+ * The requests of the workload, each reported with its own latency histogram.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+enum Operation {
+    GET("get", "GET /games/{id}", true),
+    NAME("name", "GET /games/name/{name}", true),
+    DEVELOPER("developer", "GET /games/developer/{developer}", true),
+    PLATFORM("platform", "GET /games/platform/{platform}", true),
+    CREATE("create", "POST /games", false),
+    UPDATE("update", "PUT /games/{id}", false),
+    DELETE("delete", "DELETE /games/{id}", false);
+    
+    private final String key;
+    
+    private final String endpoint;
+    
+    private final boolean read;
+    
+    Operation(String key, String endpoint, boolean read) {
+        this.key = key;
+        this.endpoint = endpoint;
+        this.read = read;
+    }
+    
+    /**
+     * The name of the operation in {@code --mix} and in the report.
+     */
+    String key() {
+        return key;
+    }
+    
+    String endpoint() {
+        return endpoint;
+    }
+    
+    boolean isRead() {
+        return read;
+    }
+    
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("unknown operation: " + key);
+    }
+}
@@ -0,0 +1,86 @@
+package hu.nye.home.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Relative weights of the operations, e.g. {@code get=60,name=10,create=4}.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class WorkloadMix {
+    
+    /**
+     * About 90% reads, spread over the lookup by id and the three attribute lookups.
+     */
+    static final String DEFAULT =
+      "get=60,name=10,developer=10,platform=10,create=4,update=4,delete=2";
+    
+    private final Operation[] operations;
+    
+    private final int[] cumulative;
+    
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        operations = weights.keySet().toArray(new Operation[0]);
+        cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulative[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("the mix has no operation with a weight");
+        }
+    }
+    
+    /**
+     * Parses a comma separated list of {@code operation=weight} pairs; operations left out
+     * are not sent.
+     *
+     * @param spec the mix
+     * @return the parsed mix
+     */
+    static WorkloadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String pair : spec.split(",")) {
+            String[] parts = pair.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("expected operation=weight: " + pair);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("negative weight: " + pair);
+            }
+            weights.put(Operation.of(parts[0].trim()), weight);
+        }
+        return new WorkloadMix(weights);
+    }
+    
+    /**
+     * Draws the next operation.
+     *
+     * @param random the source of randomness
+     * @return an operation, with the probability of its weight
+     */
+    Operation next(Random random) {
+        int draw = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (draw < cumulative[i]) {
+                return operations[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+    
+    double readShare() {
+        int reads = 0;
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            if (operations[i].isRead()) {
+                reads += cumulative[i] - previous;
+            }
+            previous = cumulative[i];
+        }
+        return (double) reads / cumulative[cumulative.length - 1];
+    }
+}
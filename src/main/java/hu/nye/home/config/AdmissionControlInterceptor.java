@@ -0,0 +1,65 @@
+package hu.nye.home.config;
+
+import hu.nye.home.service.AdmissionControl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Takes a slot of {@link AdmissionControl} for each request before its handler runs, and
+ * frees it when the request completes.
+ *
+ * <p>The route is the HTTP method and the matched pattern, e.g. {@code GET /games/{id}}.
+ * Reads of a single game, by id or through the in-memory index, are point reads. Creating,
+ * replacing and deleting a single game are single writes. Every other route reads or
+ * writes many games and is a scan.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+    
+    private static final String PERMIT = AdmissionControlInterceptor.class.getName() + ".permit";
+    
+    private static final String SINGLE_GAME = "/games/{id}";
+    
+    private final AdmissionControl admissionControl;
+    
+    @Autowired
+    public AdmissionControlInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) throws Exception {
+        String pattern = String.valueOf(
+          request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        String method = request.getMethod();
+        request.setAttribute(PERMIT,
+          admissionControl.admit(method + " " + pattern, priority(method, pattern)));
+        return true;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof AdmissionControl.Permit permit) {
+            permit.release();
+        }
+    }
+    
+    static AdmissionControl.Priority priority(String method, String pattern) {
+        boolean read = method.equals("GET") || method.equals("HEAD");
+        if (read && (pattern.equals(SINGLE_GAME) || pattern.equals("/games/lookup/{field}"))) {
+            return AdmissionControl.Priority.READ;
+        }
+        if (!read && (pattern.equals(SINGLE_GAME)
+                        || method.equals("POST") && pattern.equals("/games"))) {
+            return AdmissionControl.Priority.WRITE;
+        }
+        return AdmissionControl.Priority.SCAN;
+    }
+}
@@ -0,0 +1,32 @@
+package hu.nye.home.config;
+
+import hu.nye.home.service.CatalogVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Tags the responses listing games with the catalog version, and answers a matching
+ * {@code If-None-Match} with 304 Not Modified before the query runs.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class CatalogEtagInterceptor implements HandlerInterceptor {
+    
+    private final CatalogVersion catalogVersion;
+    
+    @Autowired
+    public CatalogEtagInterceptor(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) {
+        return !new ServletWebRequest(request, response).checkNotModified(
+          catalogVersion.etag());
+    }
+}
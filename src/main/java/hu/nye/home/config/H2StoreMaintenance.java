@@ -0,0 +1,85 @@
+package hu.nye.home.config;
+
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.mvstore.MVStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Periodic maintenance of the file-backed H2 store of the {@code persistent} profile.
+ *
+ * <p>The MVStore never overwrites a page in place, so updated and deleted rows leave
+ * partly empty chunks behind. The store's own background compaction is disabled: on a
+ * small machine it competes with the requests all the time. Instead the sparse chunks are
+ * rewritten here at a fixed interval, with a bounded amount of writing per run. The
+ * checkpoint forces the committed changes to disk, so a crash loses at most one
+ * checkpoint interval of writes.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+@Profile("persistent")
+public class H2StoreMaintenance {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(H2StoreMaintenance.class);
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final int compactFillRate;
+    
+    private final int compactWriteLimit;
+    
+    /**
+     * Constructs a new H2StoreMaintenance.
+     *
+     * @param jdbcTemplate runs the maintenance on a pooled connection
+     * @param compactFillRate chunks with less live data than this percentage are rewritten
+     * @param compactWriteLimit the amount of data one compaction rewrites at most
+     */
+    public H2StoreMaintenance(JdbcTemplate jdbcTemplate,
+                              @Value("${jatekbazar.store.compact-fill-rate}")
+                              int compactFillRate,
+                              @Value("${jatekbazar.store.compact-write-limit}")
+                              DataSize compactWriteLimit) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactFillRate = compactFillRate;
+        this.compactWriteLimit = (int) compactWriteLimit.toBytes();
+    }
+    
+    /**
+     * Writes and syncs the committed changes of the store.
+     */
+    @Scheduled(initialDelayString = "${jatekbazar.store.checkpoint-interval}",
+               fixedDelayString = "${jatekbazar.store.checkpoint-interval}")
+    public void checkpoint() {
+        long start = System.nanoTime();
+        jdbcTemplate.execute("CHECKPOINT SYNC");
+        LOG.debug("H2 checkpoint took {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+    
+    /**
+     * Rewrites the live data of the sparsest chunks, if the store is below the fill rate.
+     */
+    @Scheduled(initialDelayString = "${jatekbazar.store.compact-interval}",
+               fixedDelayString = "${jatekbazar.store.compact-interval}")
+    public void compact() {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            MVStore store = ((SessionLocal) connection.unwrap(JdbcConnection.class).getSession())
+                              .getDatabase().getStore().getMvStore();
+            int before = store.getFillRate();
+            long start = System.nanoTime();
+            if (store.compact(compactFillRate, compactWriteLimit)) {
+                LOG.info("Compacted the H2 store from {}% to {}% fill rate in {} ms", before,
+                  store.getFillRate(), (System.nanoTime() - start) / 1_000_000);
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package hu.nye.home.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Decides which beans stay eager when {@code spring.main.lazy-initialization} is enabled,
+ * as it is in the Docker image.
+ *
+ * <p>Everything else is created on first use. The connection pool and Hibernate are still
+ * started before the port opens: the first request needs them anyway, and a broken
+ * database URL or mapping should fail the startup instead of the first request. Beans
+ * with {@code @Scheduled} methods are kept eager by Spring Boot itself.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Configuration
+public class LazyInitializationConfig {
+
+    /**
+     * Keeps the data source and the entity manager factory out of lazy initialization.
+     *
+     * @return the filter
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerPersistence() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class,
+          EntityManagerFactory.class);
+    }
+}
@@ -0,0 +1,92 @@
+package hu.nye.home.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import hu.nye.home.repositories.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Data sources of the {@code replicas} profile: the primary configured by
+ * {@code spring.datasource.*}, and a pool for each of {@code jatekbazar.replicas.urls}.
+ *
+ * <p>The data source of the application opens a connection only when the first statement
+ * runs, once the transaction is known to be read-only. Read-only connections are handed
+ * to {@link ReplicaRoutingDataSource}, every other one to the primary.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Configuration
+@Profile("replicas")
+public class ReplicaDataSourceConfig {
+    
+    /**
+     * The primary, configured like the single data source of the other profiles.
+     *
+     * @param properties the {@code spring.datasource.*} properties
+     * @return the pool of the primary
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                                        .type(HikariDataSource.class)
+                                        .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    /**
+     * The replicas, reached with the credentials of the primary. Their pools publish the
+     * same {@code hikaricp.*} metrics as the primary.
+     *
+     * @param primaryDataSource the pool of the primary
+     * @param properties the {@code spring.datasource.*} properties
+     * @param meterRegistry the registry the metrics of the pools are published to
+     * @param urls the JDBC URLs of the replicas
+     * @return the routing of the read-only connections
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+        HikariDataSource primaryDataSource, DataSourceProperties properties,
+        MeterRegistry meterRegistry, @Value("${jatekbazar.replicas.urls}") List<String> urls) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url);
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas);
+    }
+    
+    /**
+     * The data source of the application.
+     *
+     * @param primaryDataSource the pool of the primary
+     * @param replicaRoutingDataSource the routing of the read-only connections
+     * @return the data source used by JPA and the JDBC templates
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource =
+          new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
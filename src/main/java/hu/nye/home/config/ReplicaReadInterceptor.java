@@ -0,0 +1,141 @@
+package hu.nye.home.config;
+
+import hu.nye.home.repositories.ReplicaRoutingDataSource;
+import hu.nye.home.service.ReplicaSynchronizer;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Lets the reads of the game routes use the replicas of the {@code replicas} profile.
+ *
+ * <p>A client whose write succeeded is sent a cookie, and reads from the primary until it
+ * expires, so it sees its own writes even while the replicas are behind. The cookie is
+ * added as a {@link ResponseBodyAdvice} before the body of the write is sent, or after the
+ * handler for a write without a body, once the status is known. The cookie should outlive
+ * the poll interval of {@link ReplicaSynchronizer} and, with write-behind, the delay of
+ * the writes.
+ *
+ * <p>A read is only sent to the replicas when they applied every write counted in the
+ * catalog version, since a list is tagged with that version and a client keeps it until
+ * the version changes. This interceptor runs after the tag was read, so the list is never
+ * older than its tag. A single game is answered by {@link hu.nye.home.service.GameCache},
+ * which loads its misses from the primary.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@ControllerAdvice
+@Profile("replicas")
+public class ReplicaReadInterceptor implements HandlerInterceptor, ResponseBodyAdvice<Object> {
+    
+    static final String COOKIE = "jatekbazar-primary";
+    
+    /**
+     * The request attribute marking a write whose response still needs the cookie.
+     */
+    private static final String WRITE = ReplicaReadInterceptor.class.getName() + ".WRITE";
+    
+    private final ReplicaSynchronizer replicaSynchronizer;
+    
+    private final Duration stickiness;
+    
+    /**
+     * Constructs a new ReplicaReadInterceptor.
+     *
+     * @param replicaSynchronizer tells whether the replicas are up to date
+     * @param stickiness how long a client reads from the primary after it wrote
+     */
+    @Autowired
+    public ReplicaReadInterceptor(ReplicaSynchronizer replicaSynchronizer,
+                                  @Value("${jatekbazar.replicas.stickiness:PT5S}")
+                                  Duration stickiness) {
+        this.replicaSynchronizer = replicaSynchronizer;
+        this.stickiness = stickiness;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response,
+                             Object handler) {
+        String method = request.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD")) {
+            request.setAttribute(WRITE, Boolean.TRUE);
+        } else if (!wroteRecently(request) && replicaSynchronizer.isCurrent()) {
+            ReplicaRoutingDataSource.readFromReplicas(true);
+        }
+        return true;
+    }
+    
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response,
+                           Object handler, ModelAndView modelAndView) {
+        if (!response.isCommitted()) {
+            markWriter(request, response);
+        }
+    }
+    
+    @Override
+    public boolean supports(MethodParameter returnType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+              && response instanceof ServletServerHttpResponse servletResponse) {
+            markWriter(servletRequest.getServletRequest(), servletResponse.getServletResponse());
+        }
+        return body;
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        ReplicaRoutingDataSource.readFromReplicas(false);
+    }
+    
+    /**
+     * Sends the cookie with the response of a write that succeeded, once.
+     */
+    private void markWriter(HttpServletRequest request, HttpServletResponse response) {
+        if (request.getAttribute(WRITE) != null && response.getStatus() < 300) {
+            request.removeAttribute(WRITE);
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, "1")
+                                                         .path("/")
+                                                         .maxAge(stickiness)
+                                                         .httpOnly(true)
+                                                         .build()
+                                                         .toString());
+        }
+    }
+    
+    private static boolean wroteRecently(HttpServletRequest request) {
+        if (request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (cookie.getName().equals(COOKIE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
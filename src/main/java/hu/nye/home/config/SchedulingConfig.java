@@ -0,0 +1,18 @@
+package hu.nye.home.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the periodic maintenance tasks, such as the reconciliation of the catalog
+ * statistics.
+ *
+ * <p>The scheduler has a thread for each task ({@code spring.task.scheduling.pool.size}).
+ * With Spring Boot's default single thread, a full scan such as the snapshot refresh
+ * would delay the 100 ms replica poll and write-behind flush for as long as it runs.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
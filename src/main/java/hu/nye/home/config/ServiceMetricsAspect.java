@@ -0,0 +1,78 @@
+package hu.nye.home.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the game services as {@value #METRIC}, tagged with the
+ * class, the method and the exception thrown.
+ *
+ * <p>Controller routes, repository queries, the connection pool and Hibernate are
+ * measured by the actuator auto-configuration, see application.properties.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    
+    static final String METRIC = "jatekbazar.service";
+    
+    private final MeterRegistry meterRegistry;
+    
+    /**
+     * The timers of successful calls, so the hot path does not look them up in the
+     * registry every time.
+     */
+    private final Map<Method, Timer> timers = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Records the duration of a service call.
+     *
+     * @param call the intercepted call
+     * @return the result of the call
+     * @throws Throwable whatever the call throws
+     */
+    @Around("execution(public * hu.nye.home.service.Game*Service.*(..))")
+    public Object time(ProceedingJoinPoint call) throws Throwable {
+        Method method = ((MethodSignature) call.getSignature()).getMethod();
+        long start = System.nanoTime();
+        try {
+            Object result = call.proceed();
+            timers.computeIfAbsent(method, key -> timer(key, "none"))
+              .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            // checked exceptions thrown with @SneakyThrows arrive wrapped by the proxy
+            Throwable cause = e instanceof UndeclaredThrowableException && e.getCause() != null
+                                ? e.getCause() : e;
+            timer(method, cause.getClass().getSimpleName())
+              .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+    
+    private Timer timer(Method method, String exception) {
+        return Timer.builder(METRIC)
+                 .description("Duration of the game service calls")
+                 .tag("class", method.getDeclaringClass().getSimpleName())
+                 .tag("method", method.getName())
+                 .tag("exception", exception)
+                 .register(meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package hu.nye.home.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Reports when virtual threads were requested but the runtime cannot provide them.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    /**
+     * Logs a warning if the application falls back to platform threads.
+     *
+     * @param event the ready event, carrying the environment
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkVirtualThreads(ApplicationReadyEvent event) {
+        Environment environment = event.getApplicationContext().getEnvironment();
+        if (virtualThreadsRequested && !Threading.VIRTUAL.isActive(environment)) {
+            LOG.warn("spring.threads.virtual.enabled is set, but Java {} has no virtual "
+                       + "threads; requests run on platform threads",
+              Runtime.version().feature());
+        }
+    }
+}
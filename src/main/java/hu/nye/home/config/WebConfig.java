@@ -0,0 +1,80 @@
+package hu.nye.home.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    private final CatalogEtagInterceptor catalogEtagInterceptor;
+    
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    
+    private final boolean admissionControlEnabled;
+    
+    private final ObjectProvider<ReplicaReadInterceptor> replicaReadInterceptor;
+    
+    /**
+     * Constructs a new WebConfig.
+     *
+     * @param catalogEtagInterceptor tags the listing routes with the catalog version
+     * @param admissionControlInterceptor limits the concurrency of the game routes
+     * @param admissionControlEnabled whether the game routes are limited
+     * @param replicaReadInterceptor lets the game routes read from the replicas, if any
+     */
+    @Autowired
+    public WebConfig(CatalogEtagInterceptor catalogEtagInterceptor,
+                     AdmissionControlInterceptor admissionControlInterceptor,
+                     @Value("${jatekbazar.admission.enabled:true}")
+                     boolean admissionControlEnabled,
+                     ObjectProvider<ReplicaReadInterceptor> replicaReadInterceptor) {
+        this.catalogEtagInterceptor = catalogEtagInterceptor;
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.admissionControlEnabled = admissionControlEnabled;
+        this.replicaReadInterceptor = replicaReadInterceptor;
+    }
+    
+    /**
+     * Lets request parameters name enum constants in any case, e.g. {@code match=prefix}.
+     */
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        ApplicationConversionService.addApplicationConverters(registry);
+    }
+    
+    /**
+     * Limits the concurrency of the game routes, then tags every route listing games; a
+     * single game is tagged with its own version. With the {@code replicas} profile, the
+     * game routes then choose between the primary and the replicas.
+     *
+     * <p>The export is not limited: it streams for minutes, and its duration says nothing
+     * about how busy the database is.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (admissionControlEnabled) {
+            registry.addInterceptor(admissionControlInterceptor)
+              .addPathPatterns("/games", "/games/{id:[0-9]+}", "/games/bulk", "/games/query",
+                "/games/lookup/*", "/games/search", "/games/name/*", "/games/developer/*",
+                "/games/platform/*");
+        }
+        registry.addInterceptor(catalogEtagInterceptor)
+          .addPathPatterns("/games", "/games/query", "/games/lookup/*", "/games/search",
+            "/games/name/*", "/games/developer/*", "/games/platform/*", "/games/stats",
+            "/games/facets/*");
+        replicaReadInterceptor.ifAvailable(interceptor -> registry.addInterceptor(interceptor)
+          .addPathPatterns("/games", "/games/{id:[0-9]+}", "/games/bulk", "/games/query",
+            "/games/lookup/*", "/games/search", "/games/name/*", "/games/developer/*",
+            "/games/platform/*"));
+    }
+}
@@ -0,0 +1,76 @@
+package hu.nye.home.controller;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+
+/**
+ * Writes one key=value line per request to the {@code jatekbazar.access} logger.
+ *
+ * <p>The line carries the method, the path, the matched route, the status and the time
+ * from the start of the request to the end of the response in microseconds. Streamed
+ * responses, such as the export, are logged when the stream completes.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    private static final Logger ACCESS = LoggerFactory.getLogger("jatekbazar.access");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        if (!ACCESS.isInfoEnabled()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        log(request, response, start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                log(request, response, start);
+            }
+        }
+    }
+
+    private static void log(HttpServletRequest request, HttpServletResponse response,
+                            long start) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        ACCESS.info("method={} path=\"{}\" route=\"{}\" status={} duration_us={}",
+          request.getMethod(), request.getRequestURI(), route == null ? "" : route,
+          response.getStatus(), (System.nanoTime() - start) / 1000);
+    }
+}
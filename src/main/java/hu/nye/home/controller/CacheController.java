@@ -0,0 +1,49 @@
+package hu.nye.home.controller;
+
+import hu.nye.home.dto.CacheStatistics;
+import hu.nye.home.dto.IdFilterStatistics;
+import hu.nye.home.service.GameCache;
+import hu.nye.home.service.GameIdFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+
+/**
+ * REST controller exposing the counters of the game cache and of the filter of missing ids.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@RestController
+public class CacheController {
+
+    private final GameCache gameCache;
+
+    private final GameIdFilter gameIdFilter;
+
+    @Autowired
+    public CacheController(GameCache gameCache, GameIdFilter gameIdFilter) {
+        this.gameCache = gameCache;
+        this.gameIdFilter = gameIdFilter;
+    }
+
+    /**
+     * Retrieves the hit, miss and eviction counters of the game cache.
+     *
+     * @return the cache statistics
+     */
+    @GetMapping("/games/cache/stats")
+    public CacheStatistics cacheStatistics() {
+        return gameCache.statistics();
+    }
+
+    /**
+     * Retrieves how many lookups by id the filter answered without the cache and the
+     * database.
+     *
+     * @return the filter statistics
+     */
+    @GetMapping("/games/id-filter/stats")
+    public IdFilterStatistics idFilterStatistics() {
+        return gameIdFilter.statistics();
+    }
+}
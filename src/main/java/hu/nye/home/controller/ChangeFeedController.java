@@ -0,0 +1,61 @@
+package hu.nye.home.controller;
+
+import hu.nye.home.dto.ChangePage;
+import hu.nye.home.exceptions.ChangesCompactedException;
+import hu.nye.home.service.GameChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+
+/**
+ * REST controller exposing the change log of the catalog, for consumers keeping a copy of
+ * it in sync.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@RestController
+public class ChangeFeedController {
+
+    private final GameChangeFeed gameChangeFeed;
+
+    @Autowired
+    public ChangeFeedController(GameChangeFeed gameChangeFeed) {
+        this.gameChangeFeed = gameChangeFeed;
+    }
+
+    /**
+     * Retrieves the changes after a sequence. Deleted games are returned as tombstones
+     * without attributes.
+     *
+     * @param since the last sequence already applied, 0 for the whole log
+     * @param limit the maximum number of changes
+     * @return the changes in log order, with the sequence to continue from
+     * @throws ChangesCompactedException if the log no longer covers the sequence
+     */
+    @GetMapping("/games/changes")
+    public ChangePage changes(@RequestParam(value = "since", defaultValue = "0") long since,
+                              @RequestParam(value = "limit", defaultValue = "500") int limit)
+      throws ChangesCompactedException {
+        return gameChangeFeed.changesSince(since, limit);
+    }
+
+    /**
+     * Streams the changes after a sequence as Server-Sent Events. A reconnecting client
+     * continues after the {@code Last-Event-ID} it sends.
+     *
+     * @param since the last sequence already applied, or null to start at the current head
+     * @param lastEventId the last event id the client received, takes precedence
+     * @return the event stream
+     * @throws ChangesCompactedException if the log no longer covers the sequence
+     */
+    @GetMapping(value = "/games/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value = "since", required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false)
+                                    Long lastEventId) throws ChangesCompactedException {
+        return gameChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+    }
+}
@@ -1,7 +1,22 @@
 package hu.nye.home.controller;
 
+import hu.nye.home.exceptions.ChangesCompactedException;
 import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.GameVersionMismatchException;
+import hu.nye.home.exceptions.InvalidBulkRequestException;
+import hu.nye.home.exceptions.InvalidCursorException;
+import hu.nye.home.exceptions.RouteOverloadedException;
+import hu.nye.home.exceptions.WriteQueueFullException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -15,10 +30,112 @@ public class ExceptionHandlerController {
     
     /**
      * Handles GameNotFoundException and returns HTTP 404 Not Found.
+     *
+     * <p>Unlike the other handlers, it writes the error body itself: a reason in
+     * {@code @ResponseStatus} makes Tomcat forward the request to {@code /error}, which runs
+     * the filters and the dispatcher a second time. Lookups of ids that do not exist are
+     * frequent enough for that to matter. The body has the fields of the
+     * {@code /error} response, and it is JSON whatever the request accepts.
+     *
+     * @param request the request of the missing game
+     * @return the 404 response
      */
-    @ResponseStatus(value = HttpStatus.NOT_FOUND, reason = "Game not found in our database!")
     @ExceptionHandler(GameNotFoundException.class)
-    public void gameNotFoundExceptionHandler() {
+    public ResponseEntity<Map<String, Object>> gameNotFoundExceptionHandler(
+        HttpServletRequest request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.NOT_FOUND.value());
+        body.put("error", HttpStatus.NOT_FOUND.getReasonPhrase());
+        body.put("path", request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                 .body(body);
+    }
+    
+    /**
+     * Handles InvalidCursorException and returns HTTP 400 Bad Request.
+     */
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid page cursor!")
+    @ExceptionHandler(InvalidCursorException.class)
+    public void invalidCursorExceptionHandler() {
+    
+    }
+    
+    /**
+     * Handles InvalidBulkRequestException and returns HTTP 400 Bad Request.
+     */
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST, reason = "Invalid bulk request!")
+    @ExceptionHandler(InvalidBulkRequestException.class)
+    public void invalidBulkRequestExceptionHandler() {
+    
+    }
+    
+    /**
+     * Handles ChangesCompactedException and returns HTTP 410 Gone.
+     */
+    @ResponseStatus(value = HttpStatus.GONE,
+        reason = "The change log was compacted past this sequence, synchronize again!")
+    @ExceptionHandler(ChangesCompactedException.class)
+    public void changesCompactedExceptionHandler() {
+    
+    }
     
+    /**
+     * Handles GameVersionMismatchException and returns HTTP 412 Precondition Failed.
+     */
+    @ResponseStatus(value = HttpStatus.PRECONDITION_FAILED,
+        reason = "The game was changed since it was read!")
+    @ExceptionHandler(GameVersionMismatchException.class)
+    public void gameVersionMismatchExceptionHandler() {
+    
+    }
+    
+    /**
+     * Handles an update that lost the race against a concurrent one, and returns HTTP 412
+     * Precondition Failed.
+     */
+    @ResponseStatus(value = HttpStatus.PRECONDITION_FAILED,
+        reason = "The game was changed since it was read!")
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public void optimisticLockingFailureExceptionHandler() {
+    
+    }
+    
+    /**
+     * Handles WriteQueueFullException and returns HTTP 503 Service Unavailable, asking the
+     * client to retry a second later.
+     *
+     * @param response the response the header is added to
+     */
+    @ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE,
+        reason = "Too many writes are waiting to be stored, try again later!")
+    @ExceptionHandler(WriteQueueFullException.class)
+    public void writeQueueFullExceptionHandler(HttpServletResponse response) {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    }
+    
+    /**
+     * Handles RouteOverloadedException and returns HTTP 503 Service Unavailable, asking the
+     * client to retry a second later.
+     *
+     * <p>Like the 404 handler, it writes the body itself, so a shed request is not
+     * dispatched a second time to {@code /error}.
+     *
+     * @param request the shed request
+     * @return the 503 response
+     */
+    @ExceptionHandler(RouteOverloadedException.class)
+    public ResponseEntity<Map<String, Object>> routeOverloadedExceptionHandler(
+        HttpServletRequest request) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", new Date());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        body.put("message", "The server is overloaded, try again later!");
+        body.put("path", request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                 .header(HttpHeaders.RETRY_AFTER, "1")
+                 .contentType(MediaType.APPLICATION_JSON)
+                 .body(body);
     }
 }
@@ -1,18 +1,37 @@
 package hu.nye.home.controller;
 
+import hu.nye.home.dto.BulkChangeResult;
+import hu.nye.home.dto.BulkImportResult;
 import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.dto.SearchHit;
+import hu.nye.home.exceptions.GameNotFoundException;
 import hu.nye.home.model.Game;
+import hu.nye.home.service.GameExportService;
+import hu.nye.home.service.GameImportService;
+import hu.nye.home.service.GameIndex;
 import hu.nye.home.service.GameServiceInterface;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 /**
@@ -24,14 +43,24 @@ public class GameController {
 
     private final GameServiceInterface gameService;
 
+    private final GameExportService gameExportService;
+
+    private final GameImportService gameImportService;
+
     /**
      * Constructs a new GameController with the specified GameServiceInterface.
      *
      * @param gameService the game service to be used by this controller
+     * @param gameExportService the service streaming the catalog export
+     * @param gameImportService the service importing games in bulk
      */
     @Autowired
-    public GameController(GameServiceInterface gameService) {
+    public GameController(GameServiceInterface gameService,
+                          GameExportService gameExportService,
+                          GameImportService gameImportService) {
         this.gameService = gameService;
+        this.gameExportService = gameExportService;
+        this.gameImportService = gameImportService;
     }
 
     /**
@@ -45,27 +74,55 @@ public class GameController {
         return gameService.saveGame(dto);
     }
 
+    /**
+     * Imports many games at once from a JSON array or newline-delimited JSON.
+     *
+     * @param body the raw request body, read incrementally
+     * @return the import summary with the rejected records
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/games/bulk",
+        consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public BulkImportResult importGames(InputStream body) throws IOException {
+        return gameImportService.importGames(body);
+    }
+
     /**
      * Retrieves a game by its ID.
      *
+     * <p>Answers 304 Not Modified, without a body, if {@code If-None-Match} holds the
+     * current version.
+     *
      * @param id the ID of the game to be retrieved
-     * @return the game with the specified ID
+     * @return the game with the specified ID, tagged with its version
+     * @throws GameNotFoundException if there is no game with the ID
      */
     @GetMapping("/games/{id}")
-    public Game getGameById(@PathVariable("id") Long id) {
-        return gameService.getGameById(id);
+    public ResponseEntity<Game> getGameById(@PathVariable("id") Long id)
+        throws GameNotFoundException {
+        Game game = gameService.getGameById(id);
+        return ResponseEntity.ok().eTag(etag(game)).body(game);
     }
 
     /**
      * Updates an existing game.
      *
+     * <p>With {@code If-Match}, the update is refused with 412 Precondition Failed unless the
+     * game still has the tagged version. Only a single strong tag, or {@code *}, is
+     * accepted.
+     *
      * @param id the ID of the game to be updated
      * @param dto the data transfer object containing updated game details
-     * @return the updated game
+     * @param ifMatch the ETag the client read the game with, if any
+     * @return the updated game, tagged with its new version
      */
     @PutMapping("/games/{id}")
-    public Game updateGame(@PathVariable("id") Long id, @RequestBody @Valid GameDto dto) {
-        return gameService.updateGame(id, dto);
+    public ResponseEntity<Game> updateGame(@PathVariable("id") Long id,
+                                           @RequestBody @Valid GameDto dto,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                             required = false) String ifMatch) {
+        Game game = gameService.updateGame(id, dto, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(etag(game)).body(game);
     }
 
     /**
@@ -78,38 +135,190 @@ public class GameController {
         gameService.deleteGameById(id);
     }
 
+    /**
+     * Updates every game matching the filter with a single set-based statement.
+     *
+     * @param filter the query parameters selecting the games, at least one is required
+     * @param patch the fields to set or, for the price, to adjust
+     * @return the number of updated games
+     */
+    @PatchMapping("/games")
+    public BulkChangeResult updateGames(GameFilter filter, @RequestBody @Valid GamePatch patch) {
+        return new BulkChangeResult(gameService.updateGamesMatching(filter, patch));
+    }
+
+    /**
+     * Deletes every game matching the filter with a single set-based statement.
+     *
+     * @param filter the query parameters selecting the games, at least one is required
+     * @return the number of deleted games
+     */
+    @DeleteMapping("/games")
+    public BulkChangeResult deleteGames(GameFilter filter) {
+        return new BulkChangeResult(gameService.deleteGamesMatching(filter));
+    }
+
+    /**
+     * Lists all games one keyset page at a time.
+     *
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games ordered by id
+     */
+    @GetMapping("/games")
+    public GamePage<Game> findAllGames(@RequestParam(value = "cursor", required = false)
+                                       String cursor,
+                                       @RequestParam(value = "size", defaultValue = "50")
+                                       int size) {
+        return gameService.findAllGames(cursor, size);
+    }
+
+    /**
+     * Lists the games matching every given criterion, one keyset page at a time.
+     *
+     * @param filter name, developer and platform (exact), minPrice, maxPrice, minYear
+     *               and maxYear (inclusive); absent criteria do not restrict the result
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of matching games ordered by id
+     */
+    @GetMapping("/games/query")
+    public GamePage<Game> queryGames(GameFilter filter,
+                                     @RequestParam(value = "cursor", required = false)
+                                     String cursor,
+                                     @RequestParam(value = "size", defaultValue = "50")
+                                     int size) {
+        return gameService.queryGames(filter, cursor, size);
+    }
+
+    /**
+     * Looks games up in the in-memory index, without scanning the database.
+     *
+     * @param field the attribute to search: name, developer or platform
+     * @param query the searched value
+     * @param match exact, ignore_case or prefix; prefix matches the start of any
+     *              word of the name
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of matching games ordered by id
+     */
+    @GetMapping("/games/lookup/{field}")
+    public GamePage<Game> lookupGames(@PathVariable("field") GameIndex.Field field,
+                                      @RequestParam("q") String query,
+                                      @RequestParam(value = "match", defaultValue = "ignore_case")
+                                      GameIndex.Match match,
+                                      @RequestParam(value = "cursor", required = false)
+                                      String cursor,
+                                      @RequestParam(value = "size", defaultValue = "50") int size) {
+        return gameService.lookupGames(field, match, query, cursor, size);
+    }
+
+    /**
+     * Searches games by name, tolerating typos.
+     *
+     * @param query the searched name
+     * @param limit the maximum number of results, at most 100
+     * @return the most similar games, best match first
+     */
+    @GetMapping("/games/search")
+    public List<SearchHit> searchGames(@RequestParam("q") String query,
+                                       @RequestParam(value = "limit", defaultValue = "10")
+                                       int limit) {
+        return gameService.searchGames(query, limit);
+    }
+
     /**
      * Finds all games with the specified name.
      *
      * @param name the name of the games to be retrieved
-     * @return a list of games with the specified name
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games with the specified name
      */
     @GetMapping("/games/name/{name}")
-    public List<Game> findAllGameByName(@PathVariable("name") String name) {
-        return gameService.findAllGameByName(name);
+    public GamePage<Game> findAllGameByName(@PathVariable("name") String name,
+                                            @RequestParam(value = "cursor", required = false)
+                                            String cursor,
+                                            @RequestParam(value = "size", defaultValue = "50")
+                                            int size) {
+        return gameService.findAllGameByName(name, cursor, size);
     }
 
     /**
      * Finds all games developed by the specified developer.
      *
      * @param developer the developer of the games to be retrieved
-     * @return a list of games developed by the specified developer
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games developed by the specified developer
      */
     @GetMapping("/games/developer/{developer}")
-    public List<Game> findAllGameByDeveloper(@PathVariable("developer") String developer) {
-        return gameService.findAllGameByDeveloper(developer);
+    public GamePage<Game> findAllGameByDeveloper(@PathVariable("developer") String developer,
+                                                 @RequestParam(value = "cursor", required = false)
+                                                 String cursor,
+                                                 @RequestParam(value = "size", defaultValue = "50")
+                                                 int size) {
+        return gameService.findAllGameByDeveloper(developer, cursor, size);
     }
 
     /**
      * Finds all games for the specified platform.
      *
      * @param platform the platform of the games to be retrieved
-     * @return a list of games for the specified platform
+     * @param cursor the cursor returned with the previous page, absent for the first page
+     * @param size the requested page size, capped by the service
+     * @return one page of games for the specified platform
      */
     @GetMapping("/games/platform/{platform}")
-    public List<Game> findAllGameByPlatform(@PathVariable("platform") String platform) {
-        return gameService.findAllGameByPlatform(platform);
+    public GamePage<Game> findAllGameByPlatform(@PathVariable("platform") String platform,
+                                                @RequestParam(value = "cursor", required = false)
+                                                String cursor,
+                                                @RequestParam(value = "size", defaultValue = "50")
+                                                int size) {
+        return gameService.findAllGameByPlatform(platform, cursor, size);
+    }
+
+    /**
+     * Streams the catalog as newline-delimited JSON, one game per line.
+     *
+     * @param platform only export games for this platform
+     * @param developer only export games by this developer
+     * @param fromYear only export games published in or after this year
+     * @param toYear only export games published in or before this year
+     * @return the streamed response body
+     */
+    @GetMapping(value = "/games/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportGames(
+      @RequestParam(value = "platform", required = false) String platform,
+      @RequestParam(value = "developer", required = false) String developer,
+      @RequestParam(value = "fromYear", required = false) Integer fromYear,
+      @RequestParam(value = "toYear", required = false) Integer toYear) {
+        StreamingResponseBody body = out -> gameExportService.exportGames(
+          platform, developer, fromYear, toYear, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
-}
 
+    private static String etag(Game game) {
+        return "\"" + game.getVersion() + "\"";
+    }
 
+    /**
+     * Reads the version out of an {@code If-Match} header.
+     *
+     * @return null if there is nothing to check, -1 if no version can match
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return -1L;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package hu.nye.home.controller;
+
+import hu.nye.home.dto.CatalogStatistics;
+import hu.nye.home.dto.DeveloperTitles;
+import hu.nye.home.dto.FacetBucket;
+import hu.nye.home.dto.PricePercentiles;
+import hu.nye.home.dto.SnapshotInfo;
+import hu.nye.home.service.CatalogAggregates;
+import hu.nye.home.service.CatalogSnapshot;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+
+/**
+ * REST controller exposing the catalog statistics, facet counts and the analytic queries
+ * answered from the columnar catalog snapshot.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@RestController
+public class StatisticsController {
+
+    private final CatalogAggregates catalogAggregates;
+
+    private final CatalogSnapshot catalogSnapshot;
+
+    @Autowired
+    public StatisticsController(CatalogAggregates catalogAggregates,
+                                CatalogSnapshot catalogSnapshot) {
+        this.catalogAggregates = catalogAggregates;
+        this.catalogSnapshot = catalogSnapshot;
+    }
+
+    /**
+     * Retrieves the game counts and price ranges per platform, developer and year.
+     *
+     * @return the catalog statistics
+     */
+    @GetMapping("/games/stats")
+    public CatalogStatistics catalogStatistics() {
+        return catalogAggregates.statistics();
+    }
+
+    /**
+     * Retrieves the most frequent values of a facet.
+     *
+     * @param facet platform, developer or year
+     * @param limit the maximum number of values
+     * @return the values with their game counts, most games first
+     */
+    @GetMapping("/games/facets/{facet}")
+    public List<FacetBucket> facet(@PathVariable("facet") CatalogAggregates.Facet facet,
+                                   @RequestParam(value = "limit", defaultValue = "20")
+                                   int limit) {
+        return catalogAggregates.facet(facet, limit);
+    }
+
+    /**
+     * Retrieves price percentiles per platform from the catalog snapshot.
+     *
+     * @param percentiles the percentiles to compute
+     * @param fromYear the first year of publication, or null for no lower bound
+     * @param toYear the last year of publication, or null for no upper bound
+     * @return the price distribution of every platform, ordered by platform
+     */
+    @GetMapping("/games/analytics/price-percentiles")
+    public List<PricePercentiles> pricePercentiles(
+      @RequestParam(value = "percentile", defaultValue = "50,90,99") List<Integer> percentiles,
+      @RequestParam(value = "fromYear", required = false) Integer fromYear,
+      @RequestParam(value = "toYear", required = false) Integer toYear) {
+        return catalogSnapshot.pricePercentiles(percentiles, fromYear, toYear);
+    }
+
+    /**
+     * Retrieves the number of games per year of the developers with the most games from
+     * the catalog snapshot.
+     *
+     * @param developer the only developer to count, or null for every developer
+     * @param limit the maximum number of developers
+     * @return the developers, most games first
+     */
+    @GetMapping("/games/analytics/titles-per-year")
+    public List<DeveloperTitles> titlesPerYear(
+      @RequestParam(value = "developer", required = false) String developer,
+      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return catalogSnapshot.titlesPerYear(developer, limit);
+    }
+
+    /**
+     * Retrieves the size and age of the catalog snapshot.
+     *
+     * @return the snapshot description
+     */
+    @GetMapping("/games/analytics/snapshot")
+    public SnapshotInfo snapshotInfo() {
+        return catalogSnapshot.info();
+    }
+}
@@ -0,0 +1,17 @@
+package hu.nye.home.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of games touched by a bulk update or delete.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkChangeResult {
+    
+    private long affected;
+}
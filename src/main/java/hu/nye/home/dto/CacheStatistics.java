@@ -0,0 +1,27 @@
+package hu.nye.home.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the game lookup cache.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatistics {
+    
+    private long size;
+    
+    private long capacity;
+    
+    private long hits;
+    
+    private long misses;
+    
+    private long evictions;
+    
+    private double hitRate;
+}
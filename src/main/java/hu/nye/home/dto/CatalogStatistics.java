@@ -0,0 +1,24 @@
+package hu.nye.home.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counts of the whole catalog per platform, developer and year of publication.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogStatistics {
+    
+    private long totalGames;
+    
+    private List<FacetBucket> platforms;
+    
+    private List<FacetBucket> developers;
+    
+    private List<FacetBucket> years;
+}
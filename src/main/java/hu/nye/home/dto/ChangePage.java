@@ -0,0 +1,30 @@
+package hu.nye.home.dto;
+
+import hu.nye.home.model.GameChange;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One page of the change log of the catalog.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePage {
+    
+    private List<GameChange> changes;
+    
+    /**
+     * The sequence to pass as {@code since} for the next page.
+     */
+    private long lastSequence;
+    
+    /**
+     * The sequence of the latest change when the page was read; the reader has caught up
+     * once {@code lastSequence} reaches it.
+     */
+    private long headSequence;
+}
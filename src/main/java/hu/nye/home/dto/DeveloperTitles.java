@@ -0,0 +1,25 @@
+package hu.nye.home.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of games of one developer per year of publication.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeveloperTitles {
+    
+    private String developer;
+    
+    private long titles;
+    
+    /**
+     * Game counts by year, in ascending order of the years.
+     */
+    private Map<Integer, Integer> perYear;
+}
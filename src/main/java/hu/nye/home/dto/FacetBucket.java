@@ -0,0 +1,25 @@
+package hu.nye.home.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of games sharing one value of a facet, with their price range.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetBucket {
+    
+    private String value;
+    
+    private long count;
+    
+    private int minPrice;
+    
+    private int maxPrice;
+    
+    private double avgPrice;
+}
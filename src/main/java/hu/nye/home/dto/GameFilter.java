@@ -0,0 +1,43 @@
+package hu.nye.home.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Criteria selecting a set of games. Null fields do not restrict the selection;
+ * the ranges are inclusive.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GameFilter {
+    
+    private String name;
+    
+    private String developer;
+    
+    private String platform;
+    
+    private Integer minPrice;
+    
+    private Integer maxPrice;
+    
+    private Integer minYear;
+    
+    private Integer maxYear;
+    
+    /**
+     * Tells whether no criterion is set, i.e. the filter selects the whole catalog.
+     *
+     * @return true if every field is null
+     */
+    public boolean isEmpty() {
+        return name == null && developer == null && platform == null
+                 && minPrice == null && maxPrice == null
+                 && minYear == null && maxYear == null;
+    }
+}
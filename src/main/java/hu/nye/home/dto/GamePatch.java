@@ -0,0 +1,53 @@
+package hu.nye.home.dto;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Changes applied to every game selected by a {@link GameFilter}.
+ * Null fields are left untouched.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GamePatch {
+    
+    @Size(min = 1)
+    private String name;
+    
+    /**
+     * New price; cannot be combined with {@link #priceDelta}.
+     */
+    @Positive
+    private Integer price;
+    
+    /**
+     * Amount added to the current price, negative for a discount.
+     */
+    private Integer priceDelta;
+    
+    @Size(min = 1)
+    private String developer;
+    
+    @Size(min = 1)
+    private String platform;
+    
+    @Positive
+    private Integer yearOfPublication;
+    
+    /**
+     * Tells whether the patch changes nothing.
+     *
+     * @return true if every field is null
+     */
+    public boolean isEmpty() {
+        return name == null && price == null && priceDelta == null && developer == null
+                 && platform == null && yearOfPublication == null;
+    }
+}
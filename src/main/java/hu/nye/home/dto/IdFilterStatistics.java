@@ -0,0 +1,23 @@
+package hu.nye.home.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Counters of the filter answering lookups of ids that do not exist.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdFilterStatistics {
+    
+    private boolean loaded;
+    
+    private long ids;
+    
+    private long lookups;
+    
+    private long shortCircuited;
+}
@@ -0,0 +1,29 @@
+package hu.nye.home.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Price distribution of the games of one platform.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricePercentiles {
+    
+    private String platform;
+    
+    private long count;
+    
+    private int minPrice;
+    
+    private int maxPrice;
+    
+    /**
+     * The price at each requested percentile, keyed like {@code p90}.
+     */
+    private Map<String, Integer> percentiles;
+}
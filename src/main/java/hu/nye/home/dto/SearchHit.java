@@ -0,0 +1,23 @@
+package hu.nye.home.dto;
+
+import hu.nye.home.model.Game;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A game found by the fuzzy name search.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchHit {
+    
+    private Game game;
+    
+    /**
+     * Trigram similarity between the query and the name, from 0 to 1.
+     */
+    private double score;
+}
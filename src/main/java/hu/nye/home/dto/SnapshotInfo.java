@@ -0,0 +1,29 @@
+package hu.nye.home.dto;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Size and age of the columnar catalog snapshot the analytic queries run on.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnapshotInfo {
+    
+    private long games;
+    
+    private int platforms;
+    
+    private int developers;
+    
+    /**
+     * When the last refresh finished, or null before the first one.
+     */
+    private Instant refreshedAt;
+    
+    private long refreshMillis;
+}
@@ -0,0 +1,23 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when the change log no longer holds every deletion after the requested
+ * sequence, so the reader has to synchronize the whole catalog again.
+ */
+public class ChangesCompactedException extends Exception {
+  
+  public ChangesCompactedException() {
+  }
+  
+  public ChangesCompactedException(String message) {
+    super(message);
+  }
+  
+  public ChangesCompactedException(String message, Throwable cause) {
+    super(message, cause);
+  }
+  
+  public ChangesCompactedException(Throwable cause) {
+    super(cause);
+  }
+}
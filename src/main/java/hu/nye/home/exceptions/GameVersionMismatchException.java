@@ -0,0 +1,23 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when a game was changed since the client read the version it sends.
+ */
+public class GameVersionMismatchException extends Exception {
+  
+  public GameVersionMismatchException() {
+    super();
+  }
+  
+  public GameVersionMismatchException(String message) {
+    super(message);
+  }
+  
+  public GameVersionMismatchException(String message, Throwable cause) {
+    super(message, cause);
+  }
+  
+  public GameVersionMismatchException(Throwable cause) {
+    super(cause);
+  }
+}
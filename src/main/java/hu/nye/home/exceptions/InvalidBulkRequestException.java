@@ -0,0 +1,11 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when a bulk update or delete request is not acceptable.
+ */
+public class InvalidBulkRequestException extends Exception {
+  
+  public InvalidBulkRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,27 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when a route is at its concurrency limit and the request cannot wait
+ * for a slot, so it is shed instead of queued.
+ *
+ * <p>Shedding has to stay cheap when the server is overloaded, so it does not capture a
+ * stack trace.
+ */
+public class RouteOverloadedException extends Exception {
+  
+  public RouteOverloadedException() {
+    super(null, null, false, false);
+  }
+  
+  public RouteOverloadedException(String message) {
+    super(message, null, false, false);
+  }
+  
+  public RouteOverloadedException(String message, Throwable cause) {
+    super(message, cause, false, false);
+  }
+  
+  public RouteOverloadedException(Throwable cause) {
+    super(cause == null ? null : cause.toString(), cause, false, false);
+  }
+}
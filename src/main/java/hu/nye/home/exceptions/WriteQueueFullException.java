@@ -0,0 +1,23 @@
+package hu.nye.home.exceptions;
+
+/**
+ * Exception thrown when the write-behind queue stayed full for longer than a write may
+ * wait, so the write is refused instead of queued.
+ */
+public class WriteQueueFullException extends Exception {
+  
+  public WriteQueueFullException() {
+  }
+  
+  public WriteQueueFullException(String message) {
+    super(message);
+  }
+  
+  public WriteQueueFullException(String message, Throwable cause) {
+    super(message, cause);
+  }
+  
+  public WriteQueueFullException(Throwable cause) {
+    super(cause);
+  }
+}
@@ -1,14 +1,19 @@
 package hu.nye.home.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 /**
  * Entity representing a game.
@@ -18,11 +23,21 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Builder
-@Table(name = "games")
+@Builder(toBuilder = true)
+@Table(name = "games", indexes = {
+    @Index(name = "idx_games_name_id", columnList = "name, id"),
+    @Index(name = "idx_games_developer_id", columnList = "developer, id"),
+    @Index(name = "idx_games_platform_id", columnList = "platform, id"),
+    @Index(name = "idx_games_platform_price", columnList = "platform, price"),
+    @Index(name = "idx_games_platform_year", columnList = "platform, year_of_publication"),
+    @Index(name = "idx_games_developer_year", columnList = "developer, year_of_publication"),
+    @Index(name = "idx_games_price_year", columnList = "price, year_of_publication"),
+    @Index(name = "idx_games_year_price", columnList = "year_of_publication, price")
+})
 public class Game {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "games_seq")
+    @SequenceGenerator(name = "games_seq", sequenceName = "games_seq", allocationSize = 50)
     private Long id;
     private String name;
     private int price;
@@ -30,6 +45,23 @@ public class Game {
     private String platform;
     private int yearOfPublication;
     
+    /**
+     * Incremented by every update; the ETag of the game and the guard of its updates.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+    
+    /**
+     * This is a Constructor without version field.
+     */
+    public Game(Long id, String name, int price, String developer,
+                String platform, int yearOfPublication) {
+        this(name, price, developer, platform, yearOfPublication);
+        this.id = id;
+    }
+    
     /**
      * This is a Constructor without id field.
      */
@@ -0,0 +1,71 @@
+package hu.nye.home.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Entry of the change log of the games table, written by the database in the transaction
+ * of the change. A deleted game is logged as a tombstone without attributes.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Immutable
+@Table(name = "game_changes", indexes = {
+    @Index(name = "idx_game_changes_game_id_seq", columnList = "game_id, seq")
+})
+public class GameChange {
+    
+    /**
+     * The kind of a change.
+     */
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+    
+    /**
+     * Position in the log, taken from {@code game_change_seq} when the change is made. A
+     * transaction may commit after one holding a higher sequence, so sequences do not follow
+     * commit order; readers stop at {@code GameChangeTrigger.committedThrough}.
+     */
+    @Id
+    @Column(name = "seq")
+    private Long sequence;
+    
+    @Column(nullable = false)
+    private Long gameId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Type type;
+    
+    /**
+     * The version of the game after the change, or before it for a tombstone.
+     */
+    private Long version;
+    
+    private String name;
+    
+    private Integer price;
+    
+    private String developer;
+    
+    private String platform;
+    
+    private Integer yearOfPublication;
+    
+    @Column(nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,74 @@
+package hu.nye.home.repositories;
+
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+import hu.nye.home.model.GameChange;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+
+/**
+ * Repository of the change log of the games table. The entries are only written by
+ * {@link GameChangeTrigger}.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Repository
+public interface GameChangeRepository extends JpaRepository<GameChange, Long> {
+    
+    /**
+     * Finds the next page of the change log.
+     *
+     * @param fromSequence the first sequence to return
+     * @param throughSequence the last sequence to return, see
+     *                        {@link GameChangeTrigger#committedThrough(java.sql.Connection)}
+     * @param limit the maximum number of changes to return
+     * @return the changes between both sequences, in log order
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<GameChange> findBySequenceBetweenOrderBySequenceAsc(Long fromSequence,
+                                                             Long throughSequence, Limit limit);
+    
+    /**
+     * Deletes the changes a later change of the same game makes redundant, so the log
+     * keeps the latest change of each game.
+     *
+     * @return the number of deleted changes
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "delete from game_changes c where exists (select 1 from game_changes n"
+                     + " where n.game_id = c.game_id and n.seq > c.seq)", nativeQuery = true)
+    int deleteSuperseded();
+    
+    /**
+     * Finds the last tombstone written before a point in time.
+     *
+     * @param before the exclusive upper bound of the change time
+     * @return its sequence, or null if there is none
+     */
+    @Query("select max(c.sequence) from GameChange c"
+             + " where c.type = hu.nye.home.model.GameChange$Type.DELETED"
+             + " and c.changedAt < :before")
+    Long findLastTombstoneBefore(@Param("before") Instant before);
+    
+    /**
+     * Deletes the tombstones up to a sequence.
+     *
+     * @param throughSequence the last sequence to delete
+     * @return the number of deleted tombstones
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from GameChange c where c.type = hu.nye.home.model.GameChange$Type.DELETED"
+             + " and c.sequence <= :through")
+    int deleteTombstonesThrough(@Param("through") Long throughSequence);
+}
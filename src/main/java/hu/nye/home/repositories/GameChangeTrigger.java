@@ -0,0 +1,233 @@
+package hu.nye.home.repositories;
+
+import hu.nye.home.model.GameChange;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.h2.api.Trigger;
+
+
+/**
+ * H2 row trigger that appends every insert, update and delete of the games table to
+ * {@code game_changes}, on the connection and in the transaction of the change. Set-based
+ * statements and writes that bypass the service are logged like single writes.
+ *
+ * <p>The sequence is taken from {@code game_change_seq}, which takes no lock, so writers
+ * do not wait for each other. Sequences are then no longer assigned in commit order: a
+ * bulk update may hold sequence 10 uncommitted while a single write commits 11. The
+ * trigger therefore remembers the first sequence of every open transaction, and
+ * {@link #committedThrough(Connection)} stops just before the lowest of them, so a reader
+ * that has seen a sequence will never find a smaller one committed later.
+ *
+ * <p>The open transactions are kept in memory, which holds for the embedded database the
+ * trigger runs in. Whether they are still open is read from
+ * {@code information_schema.sessions}, which shows the other sessions to an admin only.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public class GameChangeTrigger implements Trigger {
+    
+    static final String NEXT_SEQUENCE = "select session_id(), transaction_id(),"
+                                          + " next value for game_change_seq";
+    
+    static final String HEAD = "select database(), base_value - 1"
+                                 + " from information_schema.sequences"
+                                 + " where sequence_schema = schema()"
+                                 + " and sequence_name = 'GAME_CHANGE_SEQ'";
+    
+    static final String UNCOMMITTED_SESSIONS = "select session_id"
+                                                 + " from information_schema.sessions"
+                                                 + " where contains_uncommitted";
+    
+    static final String INSERT_CHANGE = "insert into game_changes (seq, game_id, type,"
+                                          + " version, name, price, developer, platform,"
+                                          + " year_of_publication, changed_at)"
+                                          + " values (?, ?, ?, ?, ?, ?, ?, ?, ?,"
+                                          + " current_timestamp)";
+    
+    /**
+     * The open transactions of each database by name; tests run several in one JVM.
+     */
+    private static final Map<String, OpenTransactions> OPEN = new ConcurrentHashMap<>();
+    
+    private OpenTransactions open;
+    
+    private int id;
+    
+    private int version;
+    
+    private int name;
+    
+    private int price;
+    
+    private int developer;
+    
+    private int platform;
+    
+    private int yearOfPublication;
+    
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        Map<String, Integer> columns = new HashMap<>();
+        try (ResultSet rs = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+            while (rs.next()) {
+                columns.put(rs.getString("COLUMN_NAME").toLowerCase(Locale.ROOT),
+                  rs.getInt("ORDINAL_POSITION") - 1);
+            }
+        }
+        id = columns.get("id");
+        version = columns.get("version");
+        name = columns.get("name");
+        price = columns.get("price");
+        developer = columns.get("developer");
+        platform = columns.get("platform");
+        yearOfPublication = columns.get("year_of_publication");
+        try (PreparedStatement select = conn.prepareStatement("select database()");
+             ResultSet rs = select.executeQuery()) {
+            rs.next();
+            open = OPEN.computeIfAbsent(rs.getString(1), database -> new OpenTransactions());
+        }
+    }
+    
+    /**
+     * Tells the sequence up to which every change is committed or rolled back. It is the
+     * last sequence taken, or the one before the first sequence of the oldest open
+     * transaction.
+     *
+     * @param conn a connection to the database of the games
+     * @return the sequence a reader may read up to without missing a later commit
+     * @throws SQLException if the sequence or the sessions cannot be read
+     */
+    public static long committedThrough(Connection conn) throws SQLException {
+        String database;
+        long head;
+        // read before the open transactions: a sequence taken by then is registered
+        try (PreparedStatement select = conn.prepareStatement(HEAD);
+             ResultSet rs = select.executeQuery()) {
+            rs.next();
+            database = rs.getString(1);
+            head = rs.getLong(2);
+        }
+        OpenTransactions registry = OPEN.get(database);
+        List<OpenTransaction> transactions = registry == null ? List.of() : registry.snapshot();
+        if (transactions.isEmpty()) {
+            return head;
+        }
+        Set<Integer> uncommitted = new HashSet<>();
+        try (PreparedStatement select = conn.prepareStatement(UNCOMMITTED_SESSIONS);
+             ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+                uncommitted.add(rs.getInt(1));
+            }
+        }
+        long committed = head;
+        for (OpenTransaction transaction : transactions) {
+            if (uncommitted.contains(transaction.session())) {
+                committed = Math.min(committed, transaction.firstSequence() - 1);
+            } else {
+                registry.remove(transaction);
+            }
+        }
+        return committed;
+    }
+    
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        long sequence = nextSequence(conn);
+        try (PreparedStatement insert = conn.prepareStatement(INSERT_CHANGE)) {
+            insert.setLong(1, sequence);
+            if (newRow == null) {
+                insert.setObject(2, oldRow[id]);
+                insert.setString(3, GameChange.Type.DELETED.name());
+                insert.setObject(4, oldRow[version]);
+                for (int parameter = 5; parameter <= 9; parameter++) {
+                    insert.setObject(parameter, null);
+                }
+            } else {
+                insert.setObject(2, newRow[id]);
+                insert.setString(3, (oldRow == null ? GameChange.Type.CREATED
+                                       : GameChange.Type.UPDATED).name());
+                insert.setObject(4, newRow[version]);
+                insert.setObject(5, newRow[name]);
+                insert.setObject(6, newRow[price]);
+                insert.setObject(7, newRow[developer]);
+                insert.setObject(8, newRow[platform]);
+                insert.setObject(9, newRow[yearOfPublication]);
+            }
+            insert.executeUpdate();
+        }
+    }
+    
+    /**
+     * Takes the next sequence and registers it if it is the first of the transaction. The
+     * lock makes a reader find the transaction of every sequence it counted in the head.
+     */
+    private long nextSequence(Connection conn) throws SQLException {
+        open.lock.lock();
+        try (PreparedStatement next = conn.prepareStatement(NEXT_SEQUENCE);
+             ResultSet rs = next.executeQuery()) {
+            rs.next();
+            long sequence = rs.getLong(3);
+            open.register(new OpenTransaction(rs.getInt(1), rs.getLong(2), sequence));
+            return sequence;
+        } finally {
+            open.lock.unlock();
+        }
+    }
+    
+    /**
+     * The first sequence taken by a transaction that may not be committed yet.
+     */
+    private record OpenTransaction(int session, long transaction, long firstSequence) {
+    }
+    
+    /**
+     * The transactions of a database that took a sequence and may still be open, at most
+     * one per session.
+     */
+    private static final class OpenTransactions {
+    
+        private final Lock lock = new ReentrantLock();
+    
+        private final Map<Integer, OpenTransaction> bySession = new HashMap<>();
+    
+        private void register(OpenTransaction transaction) {
+            OpenTransaction current = bySession.get(transaction.session());
+            // a session runs one transaction at a time, so another one has ended
+            if (current == null || current.transaction() != transaction.transaction()) {
+                bySession.put(transaction.session(), transaction);
+            }
+        }
+    
+        private List<OpenTransaction> snapshot() {
+            lock.lock();
+            try {
+                return List.copyOf(bySession.values());
+            } finally {
+                lock.unlock();
+            }
+        }
+    
+        /**
+         * Forgets an ended transaction, unless its session has started another one since.
+         */
+        private void remove(OpenTransaction transaction) {
+            lock.lock();
+            try {
+                bySession.remove(transaction.session(), transaction);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
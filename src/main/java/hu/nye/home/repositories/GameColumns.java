@@ -0,0 +1,15 @@
+package hu.nye.home.repositories;
+
+/**
+ * The attributes of a game the catalog snapshot is built from, read without loading the
+ * entity.
+ *
+ * @param id the id of the game
+ * @param price the price of the game
+ * @param yearOfPublication the year the game was published
+ * @param developer the developer of the game
+ * @param platform the platform of the game
+ */
+public record GameColumns(Long id, int price, int yearOfPublication, String developer,
+                          String platform) {
+}
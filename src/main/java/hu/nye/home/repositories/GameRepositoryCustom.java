@@ -0,0 +1,40 @@
+package hu.nye.home.repositories;
+
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.model.Game;
+import java.util.Optional;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom set-based operations of the Game repository.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public interface GameRepositoryCustom {
+    
+    /**
+     * Applies the patch to every matching game with a single UPDATE statement.
+     *
+     * @param spec selects the games to update
+     * @param patch the changes to apply
+     * @return the number of updated rows
+     */
+    int updateMatching(Specification<Game> spec, GamePatch patch);
+    
+    /**
+     * Replaces the attributes of a game and increments its version with a single
+     * statement that also returns the row as it was before the update.
+     *
+     * @param values the id of the game and its new attributes
+     * @param expectedVersion the version the game must still have, or null for any
+     * @return the game before the update, or empty if no game matched
+     */
+    Optional<Game> updateReturningPrevious(Game values, Long expectedVersion);
+    
+    /**
+     * Deletes a game with a single statement that also returns the deleted row.
+     *
+     * @param id the id of the game
+     * @return the deleted game, or empty if there was no game with the id
+     */
+    Optional<Game> deleteReturningPrevious(Long id);
+}
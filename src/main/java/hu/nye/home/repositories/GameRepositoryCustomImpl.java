@@ -0,0 +1,108 @@
+package hu.nye.home.repositories;
+
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.model.Game;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Criteria API implementation of {@link GameRepositoryCustom}.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public class GameRepositoryCustomImpl implements GameRepositoryCustom {
+    
+    // H2 data change delta tables: the modified rows are read back by the same statement,
+    // so neither a SELECT before the change nor one after it is needed.
+    
+    private static final String UPDATE_BY_ID =
+        "select * from old table (update games set name = :name, price = :price,"
+          + " developer = :developer, platform = :platform,"
+          + " year_of_publication = :yearOfPublication, version = version + 1"
+          + " where id = :id%s)";
+    
+    private static final String DELETE_BY_ID =
+        "select * from old table (delete from games where id = :id)";
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional
+    public int updateMatching(Specification<Game> spec, GamePatch patch) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Game> update = cb.createCriteriaUpdate(Game.class);
+        Root<Game> root = update.from(Game.class);
+        if (patch.getName() != null) {
+            update.set(root.<String>get("name"), patch.getName());
+        }
+        if (patch.getDeveloper() != null) {
+            update.set(root.<String>get("developer"), patch.getDeveloper());
+        }
+        if (patch.getPlatform() != null) {
+            update.set(root.<String>get("platform"), patch.getPlatform());
+        }
+        if (patch.getYearOfPublication() != null) {
+            update.set(root.<Integer>get("yearOfPublication"), patch.getYearOfPublication());
+        }
+        // changes the ETag of every updated game
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+        Path<Integer> price = root.get("price");
+        if (patch.getPrice() != null) {
+            update.set(price, patch.getPrice());
+        }
+        if (patch.getPriceDelta() != null) {
+            update.set(price, cb.sum(price, patch.getPriceDelta()));
+            // Games that would drop to a non-positive price are left unchanged.
+            update.where(spec.toPredicate(root, null, cb),
+              cb.gt(cb.sum(price, patch.getPriceDelta()), 0));
+        } else {
+            update.where(spec.toPredicate(root, null, cb));
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+    
+    @Override
+    @Transactional
+    public Optional<Game> updateReturningPrevious(Game values, Long expectedVersion) {
+        Query query = entityManager.createNativeQuery(String.format(UPDATE_BY_ID,
+          expectedVersion == null ? "" : " and version = :version"), Game.class)
+                        .setParameter("name", values.getName())
+                        .setParameter("price", values.getPrice())
+                        .setParameter("developer", values.getDeveloper())
+                        .setParameter("platform", values.getPlatform())
+                        .setParameter("yearOfPublication", values.getYearOfPublication())
+                        .setParameter("id", values.getId());
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        return previous(query);
+    }
+    
+    @Override
+    @Transactional
+    public Optional<Game> deleteReturningPrevious(Long id) {
+        return previous(entityManager.createNativeQuery(DELETE_BY_ID, Game.class)
+                          .setParameter("id", id));
+    }
+    
+    /**
+     * Runs a delta table query and detaches the returned row, which no longer exists in
+     * this form and must not be flushed back.
+     */
+    private Optional<Game> previous(Query query) {
+        @SuppressWarnings("unchecked")
+        List<Game> rows = query.getResultList();
+        rows.forEach(entityManager::detach);
+        return rows.stream().findFirst();
+    }
+}
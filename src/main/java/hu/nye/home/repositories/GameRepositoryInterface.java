@@ -1,8 +1,19 @@
 package hu.nye.home.repositories;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 import hu.nye.home.model.Game;
+import jakarta.persistence.QueryHint;
 import java.util.List;
-import org.springframework.data.repository.CrudRepository;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 
@@ -11,7 +22,9 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("checkstyle:Indentation")
 @Repository
-public interface GameRepositoryInterface extends CrudRepository<Game, Long> {
+public interface GameRepositoryInterface extends JpaRepository<Game, Long>,
+                                                   JpaSpecificationExecutor<Game>,
+                                                   GameRepositoryCustom {
     
     /**
      * Finds games by name.
@@ -36,4 +49,93 @@ public interface GameRepositoryInterface extends CrudRepository<Game, Long> {
      * @return the list of games with the specified developer
      */
     List<Game> findByDeveloper(String developer);
+    
+    /**
+     * Finds the next keyset page of games ordered by id. The games are loaded read-only,
+     * without the snapshots for dirty checking, as the projections scan the whole table
+     * with it.
+     *
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of games to return
+     * @return the games with an id greater than {@code afterId}
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<Game> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
+    /**
+     * Finds the next keyset page of the analytic columns of the games ordered by id. The
+     * rows are plain values, so neither the persistence context nor the dirty checking
+     * sees them.
+     *
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of rows to return
+     * @return the columns of the games with an id greater than {@code afterId}
+     */
+    @Query("select new hu.nye.home.repositories.GameColumns(g.id, g.price,"
+             + " g.yearOfPublication, g.developer, g.platform)"
+             + " from Game g where g.id > :afterId order by g.id")
+    List<GameColumns> findColumnsByIdGreaterThan(@Param("afterId") Long afterId, Limit limit);
+    
+    // The keyset queries also order by the equality column: H2 only reads the (column, id)
+    // index in order if ORDER BY starts with its first column, otherwise it sorts every match.
+    
+    /**
+     * Finds the next keyset page of games with the specified name.
+     *
+     * @param name the name of the game
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of games to return
+     * @return the games with the specified name and an id greater than {@code afterId}
+     */
+    List<Game> findByNameAndIdGreaterThanOrderByNameAscIdAsc(String name, Long afterId,
+                                                            Limit limit);
+    
+    /**
+     * Finds the next keyset page of games for the specified platform.
+     *
+     * @param platform the platform of the game
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of games to return
+     * @return the games for the specified platform and an id greater than {@code afterId}
+     */
+    List<Game> findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc(String platform,
+                                                                    Long afterId,
+                                                                    Limit limit);
+    
+    /**
+     * Finds the next keyset page of games by the specified developer.
+     *
+     * @param developer the developer of the game
+     * @param afterId the last id of the previous page
+     * @param limit the maximum number of games to return
+     * @return the games by the specified developer and an id greater than {@code afterId}
+     */
+    List<Game> findByDeveloperAndIdGreaterThanOrderByDeveloperAscIdAsc(String developer,
+                                                                      Long afterId,
+                                                                      Limit limit);
+    
+    /**
+     * Streams the games matching the export filters through a forward-only cursor.
+     * Null filters are ignored. Must be consumed inside a transaction and closed.
+     *
+     * @param platform the platform of the games, or null for every platform
+     * @param developer the developer of the games, or null for every developer
+     * @param fromYear the first year of publication, inclusive
+     * @param toYear the last year of publication, inclusive
+     * @return a lazily fetched stream of games ordered by id
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select g from Game g"
+             + " where (:platform is null or g.platform = :platform)"
+             + " and (:developer is null or g.developer = :developer)"
+             + " and g.yearOfPublication between :fromYear and :toYear"
+             + " order by g.id")
+    Stream<Game> streamForExport(@Param("platform") String platform,
+                                 @Param("developer") String developer,
+                                 @Param("fromYear") int fromYear,
+                                 @Param("toYear") int toYear);
 }
@@ -0,0 +1,64 @@
+package hu.nye.home.repositories;
+
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.model.Game;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Builds JPA specifications for Game queries.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public final class GameSpecifications {
+    
+    private GameSpecifications() {
+    }
+    
+    /**
+     * Creates a specification matching every game selected by the filter.
+     * The specification only uses the root and the builder, so it can also
+     * restrict criteria updates and deletes.
+     *
+     * @param filter the criteria, null fields are ignored
+     * @return the specification
+     */
+    public static Specification<Game> matching(GameFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getName() != null) {
+                predicates.add(cb.equal(root.get("name"), filter.getName()));
+            }
+            if (filter.getDeveloper() != null) {
+                predicates.add(cb.equal(root.get("developer"), filter.getDeveloper()));
+            }
+            if (filter.getPlatform() != null) {
+                predicates.add(cb.equal(root.get("platform"), filter.getPlatform()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.ge(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.le(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getMinYear() != null) {
+                predicates.add(cb.ge(root.get("yearOfPublication"), filter.getMinYear()));
+            }
+            if (filter.getMaxYear() != null) {
+                predicates.add(cb.le(root.get("yearOfPublication"), filter.getMaxYear()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+    
+    /**
+     * Creates a specification matching the games after a keyset cursor.
+     *
+     * @param afterId the exclusive lower bound of the id
+     * @return the specification
+     */
+    public static Specification<Game> idGreaterThan(long afterId) {
+        return (root, query, cb) -> cb.gt(root.get("id"), afterId);
+    }
+}
@@ -0,0 +1,140 @@
+package hu.nye.home.repositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes read-only connections to the replicas of the catalog.
+ *
+ * <p>It is the read-only data source of a {@link LazyConnectionDataSourceProxy}, so it only
+ * sees transactions marked read-only. Even those go to the primary unless the thread
+ * allowed replica reads with {@link #readFromReplicas(boolean)}. The projections, the
+ * change feed and the scheduled tasks read in read-only transactions too, and they must
+ * see every committed write.
+ *
+ * <p>The replicas take turns. A replica is skipped until it is reported caught up with
+ * {@link #setAvailable(String, boolean)}; with none available, reads go to the primary.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    
+    static final String PRIMARY = "primary";
+    
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+    
+    private final Map<String, DataSource> replicas;
+    
+    private final List<String> names;
+    
+    private final Set<String> available = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicInteger next = new AtomicInteger();
+    
+    /**
+     * Constructs a new ReplicaRoutingDataSource.
+     *
+     * @param primary the data source of the writes, and of the reads no replica can serve
+     * @param replicas the data sources of the replicas by name, in the order they take turns
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+        this.replicas = replicas;
+        this.names = List.copyOf(replicas.keySet());
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+    
+    /**
+     * Allows or forbids the read-only transactions of the current thread to use a replica.
+     *
+     * @param allowed whether the thread may read from a replica
+     */
+    public static void readFromReplicas(boolean allowed) {
+        if (allowed) {
+            REPLICA_READS.set(Boolean.TRUE);
+        } else {
+            REPLICA_READS.remove();
+        }
+    }
+    
+    /**
+     * Runs a read on the primary, even if the current thread may read from a replica.
+     *
+     * @param read the read
+     * @param <T> the type of the result
+     * @return the result of the read
+     */
+    public static <T> T readFromPrimary(Supplier<T> read) {
+        Boolean allowed = REPLICA_READS.get();
+        if (allowed == null) {
+            return read.get();
+        }
+        REPLICA_READS.remove();
+        try {
+            return read.get();
+        } finally {
+            REPLICA_READS.set(allowed);
+        }
+    }
+    
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+    
+    /**
+     * Lets reads use a replica, or stops them.
+     *
+     * @param name the name of the replica
+     * @param caughtUp whether the replica has applied the change log up to its head
+     */
+    public void setAvailable(String name, boolean caughtUp) {
+        if (caughtUp) {
+            available.add(name);
+        } else {
+            available.remove(name);
+        }
+    }
+    
+    public boolean isAvailable(String name) {
+        return available.contains(name);
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (REPLICA_READS.get() == null) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), names.size());
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get((start + i) % names.size());
+            if (available.contains(name)) {
+                return name;
+            }
+        }
+        return PRIMARY;
+    }
+    
+    /**
+     * Closes the connection pools of the replicas; the primary is closed by its owner.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package hu.nye.home.service;
+
+import hu.nye.home.exceptions.RouteOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Admits requests to the routes of the API under a concurrency limit per route, which
+ * {@link RouteLimiter} adapts from the latency of the route.
+ *
+ * <p>A slow route therefore runs fewer requests at a time, and the others keep their
+ * slots. Point reads and single writes may wait a short time in a bounded queue for a
+ * slot. Scans are shed as soon as their route is full, and also while point reads are
+ * waiting, so that reads get the database first.
+ *
+ * <p>Every route publishes {@value #METRIC}.limit, .in-flight and .queued gauges, and
+ * a {@value #METRIC}.shed counter tagged with the reason.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+public class AdmissionControl {
+    
+    static final String METRIC = "jatekbazar.admission";
+    
+    private final MeterRegistry meterRegistry;
+    
+    private final int initialLimit;
+    
+    private final int minLimit;
+    
+    private final int maxLimit;
+    
+    private final int queueSize;
+    
+    private final Duration maxWait;
+    
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+    
+    /**
+     * The number of point reads waiting for a slot, on any route.
+     */
+    private final AtomicInteger readsWaiting = new AtomicInteger();
+    
+    /**
+     * Constructs a new AdmissionControl.
+     *
+     * @param meterRegistry the registry the metrics of the routes are published to
+     * @param initialLimit the limit of a route before its first request completed
+     * @param minLimit the lowest the limit of a route may shrink to
+     * @param maxLimit the highest the limit of a route may grow to
+     * @param queueSize the number of requests that may wait for a slot on a route
+     * @param maxWait how long a request may wait for a slot
+     */
+    @Autowired
+    public AdmissionControl(MeterRegistry meterRegistry,
+                            @Value("${jatekbazar.admission.initial-limit:20}") int initialLimit,
+                            @Value("${jatekbazar.admission.min-limit:2}") int minLimit,
+                            @Value("${jatekbazar.admission.max-limit:200}") int maxLimit,
+                            @Value("${jatekbazar.admission.queue-size:50}") int queueSize,
+                            @Value("${jatekbazar.admission.max-wait:PT0.1S}")
+                            Duration maxWait) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.maxWait = maxWait;
+    }
+    
+    /**
+     * Priority of a route when the database is busy.
+     */
+    public enum Priority {
+        /**
+         * A read of a single game, which waits for a slot and holds back the scans.
+         */
+        READ,
+        /**
+         * A write of a single game, which waits for a slot.
+         */
+        WRITE,
+        /**
+         * A read or write of many games, which is shed rather than queued.
+         */
+        SCAN
+    }
+    
+    /**
+     * Admits a request, waiting for a slot if its priority allows.
+     *
+     * @param route the route of the request, e.g. {@code GET /games/{id}}
+     * @param priority the priority of the route
+     * @return the slot, to be released when the request completes
+     * @throws RouteOverloadedException if the request is shed
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public Permit admit(String route, Priority priority)
+        throws RouteOverloadedException, InterruptedException {
+        RouteLimiter limiter = limiters.computeIfAbsent(route, this::register);
+        if (priority == Priority.SCAN) {
+            if (readsWaiting.get() > 0) {
+                throw shed(route, "priority");
+            }
+            if (!limiter.tryAcquire()) {
+                throw shed(route, "limit");
+            }
+        } else if (!limiter.tryAcquire()) {
+            if (priority == Priority.READ) {
+                readsWaiting.incrementAndGet();
+            }
+            try {
+                if (!limiter.acquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                    throw shed(route, "queue");
+                }
+            } finally {
+                if (priority == Priority.READ) {
+                    readsWaiting.decrementAndGet();
+                }
+            }
+        }
+        return new Permit(limiter, System.nanoTime());
+    }
+    
+    private RouteLimiter register(String route) {
+        RouteLimiter limiter = new RouteLimiter(initialLimit, minLimit, maxLimit, queueSize);
+        Gauge.builder(METRIC + ".limit", limiter, RouteLimiter::limit)
+          .description("Concurrency limit of the route")
+          .tag("route", route)
+          .register(meterRegistry);
+        Gauge.builder(METRIC + ".in-flight", limiter, RouteLimiter::inFlight)
+          .description("Requests of the route being handled")
+          .tag("route", route)
+          .register(meterRegistry);
+        Gauge.builder(METRIC + ".queued", limiter, RouteLimiter::queued)
+          .description("Requests of the route waiting for a slot")
+          .tag("route", route)
+          .register(meterRegistry);
+        return limiter;
+    }
+    
+    private RouteOverloadedException shed(String route, String reason) {
+        Counter.builder(METRIC + ".shed")
+          .description("Requests rejected because their route was overloaded")
+          .tag("route", route)
+          .tag("reason", reason)
+          .register(meterRegistry)
+          .increment();
+        return new RouteOverloadedException(route + " is overloaded (" + reason + ")");
+    }
+    
+    /**
+     * A slot taken on a route.
+     */
+    public static final class Permit {
+    
+        private final RouteLimiter limiter;
+    
+        private final long start;
+    
+        private Permit(RouteLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+    
+        /**
+         * Frees the slot, and adapts the limit of the route to the time the request took.
+         */
+        public void release() {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.CatalogStatistics;
+import hu.nye.home.dto.FacetBucket;
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Game counts and price aggregates per platform, developer and year of publication,
+ * kept up to date by the write callbacks instead of GROUP BY queries.
+ *
+ * <p>Each bucket holds a count, a price sum and a price histogram, so removing a game
+ * keeps the minimum and maximum exact. A scheduled reconciliation rebuilds the
+ * aggregates from the database and reports when they had drifted.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class CatalogAggregates extends CatalogProjection<CatalogAggregates.Aggregates> {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogAggregates.class);
+    
+    private static final Comparator<FacetBucket> MOST_GAMES_FIRST =
+      Comparator.comparingLong(FacetBucket::getCount).reversed()
+        .thenComparing(FacetBucket::getValue);
+    
+    /**
+     * Constructs a new CatalogAggregates.
+     *
+     * @param gameRepository the repository the aggregates are rebuilt from
+     * @param rebuildOnStartup whether to load the aggregates when the application starts
+     */
+    @Autowired
+    public CatalogAggregates(GameRepositoryInterface gameRepository,
+                             @Value("${jatekbazar.index.rebuild-on-startup:true}")
+                             boolean rebuildOnStartup) {
+        super(gameRepository, rebuildOnStartup);
+    }
+    
+    /**
+     * The attributes games can be counted by.
+     */
+    public enum Facet {
+        PLATFORM, DEVELOPER, YEAR
+    }
+    
+    @Override
+    protected Aggregates newGeneration() {
+        return new Aggregates();
+    }
+    
+    @Override
+    protected void add(Aggregates aggregates, Game game) {
+        Counted previous = aggregates.counted.get(game.getId());
+        if (previous != null) {
+            // replayed after a rebuild that already saw the game
+            uncount(aggregates, previous);
+        }
+        int price = game.getPrice();
+        Counted counted = new Counted(
+          aggregates.platforms.computeIfAbsent(key(game.getPlatform()), Bucket::new),
+          aggregates.developers.computeIfAbsent(key(game.getDeveloper()), Bucket::new),
+          aggregates.years.computeIfAbsent(game.getYearOfPublication(), Bucket::new),
+          price);
+        counted.platform().add(price);
+        counted.developer().add(price);
+        counted.year().add(price);
+        aggregates.counted.put(game.getId(), counted);
+    }
+    
+    /**
+     * Removes what was counted for the game, which may be newer than {@code game}.
+     */
+    @Override
+    protected void remove(Aggregates aggregates, Game game) {
+        Counted counted = aggregates.counted.remove(game.getId());
+        if (counted != null) {
+            uncount(aggregates, counted);
+        }
+    }
+    
+    private static void uncount(Aggregates aggregates, Counted counted) {
+        removeFrom(aggregates.platforms, counted.platform(), counted.price());
+        removeFrom(aggregates.developers, counted.developer(), counted.price());
+        removeFrom(aggregates.years, counted.year(), counted.price());
+    }
+    
+    private static void removeFrom(Map<?, Bucket> buckets, Bucket bucket, int price) {
+        bucket.remove(price);
+        if (bucket.count == 0) {
+            buckets.remove(bucket.value);
+        }
+    }
+    
+    private static String key(String value) {
+        return value == null ? "" : value;
+    }
+    
+    /**
+     * Summarizes the whole catalog.
+     *
+     * @return the buckets of every facet, platforms and developers by name,
+     *         years in ascending order
+     */
+    public CatalogStatistics statistics() {
+        return read(aggregates -> new CatalogStatistics(
+          aggregates.counted.size(),
+          toBuckets(new TreeMap<>(aggregates.platforms)),
+          toBuckets(new TreeMap<>(aggregates.developers)),
+          toBuckets(aggregates.years)));
+    }
+    
+    /**
+     * Lists the most frequent values of a facet.
+     *
+     * @param facet the attribute to count by
+     * @param limit the maximum number of buckets
+     * @return the buckets, most games first
+     */
+    public List<FacetBucket> facet(Facet facet, int limit) {
+        return read(aggregates -> {
+            Map<?, Bucket> buckets = switch (facet) {
+                case PLATFORM -> aggregates.platforms;
+                case DEVELOPER -> aggregates.developers;
+                case YEAR -> aggregates.years;
+            };
+            return toBuckets(buckets).stream()
+                     .sorted(MOST_GAMES_FIRST)
+                     .limit(Math.max(0, limit))
+                     .toList();
+        });
+    }
+    
+    /**
+     * Rebuilds the aggregates from the database and reports whether the incrementally
+     * maintained ones had drifted, e.g. because of a write that bypassed the service.
+     *
+     * @return true if the rebuilt aggregates differ from the previous ones
+     */
+    @Scheduled(initialDelayString = "${jatekbazar.stats.reconcile-interval:PT10M}",
+               fixedDelayString = "${jatekbazar.stats.reconcile-interval:PT10M}")
+    public boolean reconcile() {
+        CatalogStatistics before = statistics();
+        rebuild();
+        CatalogStatistics after = statistics();
+        if (before.equals(after)) {
+            return false;
+        }
+        LOG.warn("Catalog statistics drifted from the database and were rebuilt: "
+                   + "{} games counted, {} stored", before.getTotalGames(), after.getTotalGames());
+        return true;
+    }
+    
+    private static List<FacetBucket> toBuckets(Map<?, Bucket> buckets) {
+        return buckets.entrySet().stream()
+                 .map(entry -> entry.getValue().toFacetBucket())
+                 .toList();
+    }
+    
+    /**
+     * One complete generation of the aggregates.
+     */
+    static final class Aggregates {
+    
+        private final Map<Long, Counted> counted = new HashMap<>();
+    
+        private final Map<String, Bucket> platforms = new HashMap<>();
+    
+        private final Map<String, Bucket> developers = new HashMap<>();
+    
+        private final TreeMap<Integer, Bucket> years = new TreeMap<>();
+    }
+    
+    /**
+     * The buckets a game was counted in, so that changes are applied exactly once.
+     */
+    private record Counted(Bucket platform, Bucket developer, Bucket year, int price) {
+    }
+    
+    /**
+     * Counters of the games sharing one facet value.
+     */
+    private static final class Bucket {
+    
+        private final Object value;
+    
+        private long count;
+    
+        private long priceSum;
+    
+        /**
+         * Number of games per price, so that the extremes survive removals.
+         */
+        private final TreeMap<Integer, int[]> prices = new TreeMap<>();
+    
+        private Bucket(Object value) {
+            this.value = value;
+        }
+    
+        private void add(int price) {
+            count++;
+            priceSum += price;
+            prices.computeIfAbsent(price, k -> new int[1])[0]++;
+        }
+    
+        private void remove(int price) {
+            if (--prices.get(price)[0] == 0) {
+                prices.remove(price);
+            }
+            count--;
+            priceSum -= price;
+        }
+    
+        private FacetBucket toFacetBucket() {
+            return new FacetBucket(value.toString(), count, prices.firstKey(), prices.lastKey(),
+              (double) priceSum / count);
+        }
+    }
+}
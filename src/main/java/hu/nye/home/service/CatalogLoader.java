@@ -0,0 +1,104 @@
+package hu.nye.home.service;
+
+import hu.nye.home.repositories.GameRepositoryInterface;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the catalog projections when the application starts, and reloads them after a
+ * set-based statement changed an unknown set of games.
+ *
+ * <p>All projections are filled from the same keyset scan of the games table, so a large
+ * persistent catalog is read once instead of once per projection. The readiness state
+ * of the application only changes to accepting traffic after the scan.
+ *
+ * <p>The reloads run on a single background thread, so the request that made the change
+ * does not wait for the scan. Until a reload completes, the projections answer from their
+ * previous generation. Changes made before a reload started share it.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class CatalogLoader implements GameChangeListener {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogLoader.class);
+    
+    private final GameRepositoryInterface gameRepository;
+    
+    private final List<CatalogProjection<?>> projections;
+    
+    private final ExecutorService reloader;
+    
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
+    
+    /**
+     * Constructs a new CatalogLoader.
+     *
+     * @param gameRepository the repository the projections are loaded from
+     * @param projections every projection of the catalog
+     */
+    @Autowired
+    public CatalogLoader(GameRepositoryInterface gameRepository,
+                         List<CatalogProjection<?>> projections) {
+        this(gameRepository, projections, Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "catalog-reload");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+    
+    CatalogLoader(GameRepositoryInterface gameRepository,
+                  List<CatalogProjection<?>> projections, ExecutorService reloader) {
+        this.gameRepository = gameRepository;
+        this.projections = projections;
+        this.reloader = reloader;
+    }
+    
+    /**
+     * Loads the projections that rebuild on startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        List<CatalogProjection<?>> enabled = projections.stream()
+                                               .filter(CatalogProjection::rebuildsOnStartup)
+                                               .toList();
+        if (!enabled.isEmpty()) {
+            CatalogProjection.rebuild(gameRepository, enabled);
+        }
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Schedules a reload of every projection, unless one is already waiting to start.
+     */
+    @Override
+    public void catalogChanged() {
+        if (reloadRequested.compareAndSet(false, true)) {
+            reloader.execute(() -> {
+                reloadRequested.set(false);
+                try {
+                    CatalogProjection.rebuild(gameRepository, projections);
+                } catch (RuntimeException e) {
+                    LOG.warn("Could not reload the catalog projections after a bulk change", e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Stops the reloads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        reloader.shutdownNow();
+    }
+}
@@ -0,0 +1,262 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+
+/**
+ * Base class of the in-memory structures derived from the whole catalog.
+ *
+ * <p>A projection holds one generation of data, updated in place by the
+ * {@link GameChangeListener} callbacks and replaced wholesale by {@link #rebuild()},
+ * which scans the games table in keyset pages. Queries keep using the old generation
+ * while a rebuild runs; writes made meanwhile are applied to both generations.
+ * {@link CatalogLoader} loads all projections with a single scan, at startup and after
+ * set-based statements.
+ *
+ * @param <G> the type of one generation
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public abstract class CatalogProjection<G> implements GameChangeListener {
+    
+    static final int REBUILD_PAGE_SIZE = 1000;
+    
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogProjection.class);
+    
+    private final GameRepositoryInterface gameRepository;
+    
+    private final boolean rebuildOnStartup;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Serializes rebuilds. Not a synchronized method, which would pin a virtual thread to
+     * its carrier for the whole table scan.
+     */
+    private final Lock rebuildLock = new ReentrantLock();
+    
+    private G current;
+    
+    /**
+     * Whether {@link #current} was loaded by a complete scan of the database.
+     */
+    private volatile boolean loaded;
+    
+    /**
+     * Changes applied while a rebuild is scanning the database, replayed on the new generation.
+     */
+    private List<Consumer<G>> pendingDuringRebuild;
+    
+    /**
+     * Constructs a new projection with an empty generation.
+     *
+     * @param gameRepository the repository the projection is rebuilt from
+     * @param rebuildOnStartup whether to load the projection when the application starts
+     */
+    protected CatalogProjection(GameRepositoryInterface gameRepository,
+                                boolean rebuildOnStartup) {
+        this.gameRepository = gameRepository;
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.current = newGeneration();
+    }
+    
+    /**
+     * Creates an empty generation.
+     *
+     * @return the new generation
+     */
+    protected abstract G newGeneration();
+    
+    /**
+     * Adds a game to a generation.
+     *
+     * @param generation the generation to update
+     * @param game the game to add
+     */
+    protected abstract void add(G generation, Game game);
+    
+    /**
+     * Removes a game from a generation.
+     *
+     * @param generation the generation to update
+     * @param game the last known state of the game
+     */
+    protected abstract void remove(G generation, Game game);
+    
+    /**
+     * Runs a query against the current generation under the read lock.
+     *
+     * @param query the query
+     * @param <R> the type of the result
+     * @return the result of the query
+     */
+    protected <R> R read(Function<G, R> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void gameSaved(Game game) {
+        apply(generation -> add(generation, game));
+    }
+    
+    @Override
+    public void gameUpdated(Game previous, Game current) {
+        apply(generation -> {
+            remove(generation, previous);
+            add(generation, current);
+        });
+    }
+    
+    @Override
+    public void gameDeleted(Game previous) {
+        apply(generation -> remove(generation, previous));
+    }
+    
+    /**
+     * Tells whether the current generation was loaded by a complete scan of the database.
+     * Until then it may be missing games. Until the reload after a set-based statement
+     * completes, or after a scan that failed, the previous generation is kept, so it may
+     * lack that statement.
+     *
+     * @return true if the projection holds every game
+     */
+    protected boolean isLoaded() {
+        return loaded;
+    }
+    
+    /**
+     * Tells whether the projection is loaded when the application starts.
+     *
+     * @return true unless disabled
+     */
+    boolean rebuildsOnStartup() {
+        return rebuildOnStartup;
+    }
+    
+    /**
+     * Rebuilds the projection from the database.
+     */
+    public void rebuild() {
+        rebuild(gameRepository, List.of(this));
+    }
+    
+    /**
+     * Rebuilds several projections from a single scan of the games table.
+     *
+     * @param gameRepository the repository the games are read from
+     * @param projections the projections to rebuild
+     */
+    static void rebuild(GameRepositoryInterface gameRepository,
+                        List<? extends CatalogProjection<?>> projections) {
+        List<CatalogProjection<?>.Rebuild> rebuilds = new ArrayList<>(projections.size());
+        long start = System.nanoTime();
+        long games = 0;
+        try {
+            for (CatalogProjection<?> projection : projections) {
+                rebuilds.add(projection.startRebuild());
+            }
+            long afterId = 0;
+            List<Game> page;
+            do {
+                page = gameRepository.findByIdGreaterThanOrderByIdAsc(afterId,
+                  Limit.of(REBUILD_PAGE_SIZE));
+                for (Game game : page) {
+                    for (CatalogProjection<?>.Rebuild rebuild : rebuilds) {
+                        rebuild.add(game);
+                    }
+                    afterId = game.getId();
+                }
+                games += page.size();
+            } while (page.size() == REBUILD_PAGE_SIZE);
+            rebuilds.forEach(CatalogProjection.Rebuild::complete);
+            LOG.info("Rebuilt {} from {} games in {} ms", projections.stream()
+                       .map(projection -> projection.getClass().getSimpleName()).toList(),
+              games, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            rebuilds.forEach(CatalogProjection.Rebuild::finish);
+        }
+    }
+    
+    /**
+     * Serializes rebuilds of the projection and starts recording the concurrent changes.
+     */
+    private Rebuild startRebuild() {
+        rebuildLock.lock();
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return new Rebuild();
+    }
+    
+    /**
+     * A generation being loaded from the database.
+     */
+    private final class Rebuild {
+        
+        private final G fresh = newGeneration();
+        
+        private boolean complete;
+        
+        private void add(Game game) {
+            CatalogProjection.this.add(fresh, game);
+        }
+        
+        private void complete() {
+            complete = true;
+        }
+        
+        /**
+         * Replays the changes made during the scan and replaces the current generation. A
+         * scan that failed leaves the current generation in place, since it already has
+         * the changes made meanwhile; a partial one would silently miss games.
+         */
+        private void finish() {
+            try {
+                lock.writeLock().lock();
+                try {
+                    if (complete) {
+                        pendingDuringRebuild.forEach(change -> change.accept(fresh));
+                        current = fresh;
+                    }
+                    loaded = complete;
+                    pendingDuringRebuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+    }
+    
+    private void apply(Consumer<G> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
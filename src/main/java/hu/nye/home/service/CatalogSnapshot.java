@@ -0,0 +1,378 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.DeveloperTitles;
+import hu.nye.home.dto.PricePercentiles;
+import hu.nye.home.dto.SnapshotInfo;
+import hu.nye.home.repositories.GameColumns;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Read-only columnar copy of the catalog for analytic queries over every game.
+ *
+ * <p>Prices, years and the dictionary codes of the developers and platforms are held in one
+ * int array per column, so a query scans a few arrays instead of materializing millions of
+ * entities, and allocates per group rather than per game. Scans are split into chunks that
+ * run on the common fork-join pool and are merged without locks.
+ *
+ * <p>The snapshot is rebuilt from the database periodically and replaced with a single
+ * volatile write; a running query keeps the generation it started with. It trails the
+ * writes by up to the refresh interval, keeps the previous generation when a refresh fails
+ * and is empty until the first refresh.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class CatalogSnapshot {
+    
+    static final int REFRESH_PAGE_SIZE = 10_000;
+    
+    /**
+     * Fewest rows of a chunk of a scan; smaller scans are not worth a fork.
+     */
+    static final int MIN_CHUNK_SIZE = 1 << 16;
+    
+    private static final Logger LOG = LoggerFactory.getLogger(CatalogSnapshot.class);
+    
+    private final GameRepositoryInterface gameRepository;
+    
+    private final int maxChunks;
+    
+    private final int minChunkSize;
+    
+    private volatile Columns columns = Columns.EMPTY;
+    
+    /**
+     * Constructs a new CatalogSnapshot.
+     *
+     * @param gameRepository the repository the snapshot is built from
+     */
+    @Autowired
+    public CatalogSnapshot(GameRepositoryInterface gameRepository) {
+        this(gameRepository, ForkJoinPool.getCommonPoolParallelism(), MIN_CHUNK_SIZE);
+    }
+    
+    CatalogSnapshot(GameRepositoryInterface gameRepository, int maxChunks, int minChunkSize) {
+        this.gameRepository = gameRepository;
+        this.maxChunks = maxChunks;
+        this.minChunkSize = minChunkSize;
+    }
+    
+    /**
+     * Reads the analytic columns of every game and replaces the snapshot. The table is read
+     * in keyset pages, so games written during the refresh may or may not be included.
+     */
+    @Scheduled(initialDelayString = "${jatekbazar.snapshot.initial-delay:PT0S}",
+               fixedDelayString = "${jatekbazar.snapshot.refresh-interval:PT5M}")
+    public void refresh() {
+        long started = System.nanoTime();
+        Columns.Builder builder = new Columns.Builder(columns.size);
+        Long afterId = 0L;
+        List<GameColumns> page;
+        do {
+            page = gameRepository.findColumnsByIdGreaterThan(afterId,
+              Limit.of(REFRESH_PAGE_SIZE));
+            for (GameColumns row : page) {
+                builder.add(row);
+                afterId = row.id();
+            }
+        } while (page.size() == REFRESH_PAGE_SIZE);
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        columns = builder.build(Instant.now(), millis);
+        LOG.info("Catalog snapshot refreshed: {} games in {} ms", columns.size, millis);
+    }
+    
+    /**
+     * Describes the snapshot the queries currently run on.
+     *
+     * @return the number of games and dictionary entries, and when it was refreshed
+     */
+    public SnapshotInfo info() {
+        Columns snapshot = columns;
+        return new SnapshotInfo(snapshot.size, snapshot.platformNames.length,
+          snapshot.developerNames.length, snapshot.refreshedAt, snapshot.refreshMillis);
+    }
+    
+    /**
+     * Computes price percentiles per platform with the nearest-rank method.
+     *
+     * @param percentiles the percentiles to compute; values outside of 0..100 are clamped
+     * @param fromYear the first year of publication, or null for no lower bound
+     * @param toYear the last year of publication, or null for no upper bound
+     * @return one entry per platform with a matching game, ordered by platform
+     */
+    public List<PricePercentiles> pricePercentiles(List<Integer> percentiles, Integer fromYear,
+                                                   Integer toYear) {
+        Columns snapshot = columns;
+        int from = fromYear == null ? Integer.MIN_VALUE : fromYear;
+        int to = toYear == null ? Integer.MAX_VALUE : toYear;
+        Groups groups = group(snapshot, snapshot.platforms, snapshot.platformNames.length,
+          snapshot.prices, row -> snapshot.years[row] >= from && snapshot.years[row] <= to);
+        IntStream.range(0, groups.count()).parallel().forEach(groups::sort);
+        List<PricePercentiles> result = new ArrayList<>();
+        for (int platform : snapshot.platformOrder) {
+            int count = groups.size(platform);
+            if (count == 0) {
+                continue;
+            }
+            Map<String, Integer> prices = new LinkedHashMap<>();
+            for (int percentile : percentiles) {
+                int clamped = Math.max(0, Math.min(100, percentile));
+                int rank = (int) Math.ceil(clamped / 100.0 * count);
+                prices.put("p" + clamped, groups.value(platform, Math.max(0, rank - 1)));
+            }
+            result.add(new PricePercentiles(snapshot.platformNames[platform], count,
+              groups.value(platform, 0), groups.value(platform, count - 1), prices));
+        }
+        return result;
+    }
+    
+    /**
+     * Counts the games of the developers with the most games per year of publication.
+     *
+     * @param developer the only developer to count, or null for every developer
+     * @param limit the maximum number of developers
+     * @return the developers, most games first, then by name
+     */
+    public List<DeveloperTitles> titlesPerYear(String developer, int limit) {
+        Columns snapshot = columns;
+        IntPredicate matches = row -> true;
+        if (developer != null) {
+            int code = Arrays.asList(snapshot.developerNames).indexOf(developer);
+            matches = row -> snapshot.developers[row] == code;
+        }
+        Groups groups = group(snapshot, snapshot.developers, snapshot.developerNames.length,
+          snapshot.years, matches);
+        Comparator<Integer> mostTitlesFirst = Comparator.<Integer>comparingInt(groups::size)
+                                                .reversed()
+                                                .thenComparing(d -> snapshot.developerNames[d]);
+        List<Integer> selected = IntStream.range(0, groups.count())
+                                   .filter(d -> groups.size(d) > 0)
+                                   .boxed()
+                                   .sorted(mostTitlesFirst)
+                                   .limit(Math.max(0, limit))
+                                   .toList();
+        return selected.parallelStream()
+                 .map(d -> new DeveloperTitles(snapshot.developerNames[d], groups.size(d),
+                   groups.sortAndCount(d)))
+                 .toList();
+    }
+    
+    /**
+     * Collects the values of the matching rows grouped by a dictionary code, with a counting
+     * sort in two parallel passes: each chunk counts its rows per group, then copies them to
+     * the positions the counts of the previous chunks leave free.
+     */
+    private Groups group(Columns snapshot, int[] codes, int groupCount, int[] values,
+                         IntPredicate matches) {
+        int wanted = (snapshot.size + minChunkSize - 1) / minChunkSize;
+        int chunks = Math.max(1, Math.min(wanted, maxChunks));
+        int chunkSize = (snapshot.size + chunks - 1) / chunks;
+        int[][] positions = new int[chunks][];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] counts = new int[groupCount];
+            int end = Math.min(snapshot.size, (chunk + 1) * chunkSize);
+            for (int row = chunk * chunkSize; row < end; row++) {
+                if (matches.test(row)) {
+                    counts[codes[row]]++;
+                }
+            }
+            positions[chunk] = counts;
+        });
+        int[] offsets = new int[groupCount + 1];
+        int position = 0;
+        for (int group = 0; group < groupCount; group++) {
+            offsets[group] = position;
+            for (int[] counts : positions) {
+                int count = counts[group];
+                counts[group] = position;
+                position += count;
+            }
+        }
+        offsets[groupCount] = position;
+        int[] grouped = new int[position];
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int[] next = positions[chunk];
+            int end = Math.min(snapshot.size, (chunk + 1) * chunkSize);
+            for (int row = chunk * chunkSize; row < end; row++) {
+                if (matches.test(row)) {
+                    grouped[next[codes[row]]++] = values[row];
+                }
+            }
+        });
+        return new Groups(offsets, grouped);
+    }
+    
+    /**
+     * Values of one column laid out group after group.
+     *
+     * @param offsets the first position of each group, followed by the number of values
+     * @param values the values of every group
+     */
+    record Groups(int[] offsets, int[] values) {
+    
+        int count() {
+            return offsets.length - 1;
+        }
+    
+        int size(int group) {
+            return offsets[group + 1] - offsets[group];
+        }
+    
+        int value(int group, int index) {
+            return values[offsets[group] + index];
+        }
+    
+        void sort(int group) {
+            Arrays.sort(values, offsets[group], offsets[group + 1]);
+        }
+    
+        /**
+         * Sorts the values of a group and counts how often each of them occurs.
+         */
+        Map<Integer, Integer> sortAndCount(int group) {
+            sort(group);
+            Map<Integer, Integer> counts = new LinkedHashMap<>();
+            int first = offsets[group];
+            for (int i = first + 1; i <= offsets[group + 1]; i++) {
+                if (i == offsets[group + 1] || values[i] != values[first]) {
+                    counts.put(values[first], i - first);
+                    first = i;
+                }
+            }
+            return counts;
+        }
+    }
+    
+    /**
+     * One immutable generation of the snapshot. Row {@code i} of every column belongs to the
+     * same game; developers and platforms are indexes into their dictionaries.
+     */
+    static final class Columns {
+    
+        private static final Columns EMPTY = new Builder(0).build(null, 0);
+    
+        private final int size;
+    
+        private final int[] prices;
+    
+        private final int[] years;
+    
+        private final int[] developers;
+    
+        private final int[] platforms;
+    
+        private final String[] developerNames;
+    
+        private final String[] platformNames;
+    
+        /**
+         * Platform codes ordered by name.
+         */
+        private final int[] platformOrder;
+    
+        private final Instant refreshedAt;
+    
+        private final long refreshMillis;
+    
+        private Columns(Builder builder, Instant refreshedAt, long refreshMillis) {
+            this.size = builder.size;
+            this.prices = Arrays.copyOf(builder.prices, size);
+            this.years = Arrays.copyOf(builder.years, size);
+            this.developers = Arrays.copyOf(builder.developers, size);
+            this.platforms = Arrays.copyOf(builder.platforms, size);
+            this.developerNames = builder.developerNames.toArray(String[]::new);
+            this.platformNames = builder.platformNames.toArray(String[]::new);
+            this.platformOrder = IntStream.range(0, platformNames.length)
+                                   .boxed()
+                                   .sorted(Comparator.comparing(p -> platformNames[p]))
+                                   .mapToInt(Integer::intValue)
+                                   .toArray();
+            this.refreshedAt = refreshedAt;
+            this.refreshMillis = refreshMillis;
+        }
+    
+        /**
+         * Appends rows to growing column arrays and assigns the dictionary codes.
+         */
+        static final class Builder {
+    
+            private int size;
+    
+            private int[] prices;
+    
+            private int[] years;
+    
+            private int[] developers;
+    
+            private int[] platforms;
+    
+            private final Map<String, Integer> developerCodes = new HashMap<>();
+    
+            private final Map<String, Integer> platformCodes = new HashMap<>();
+    
+            private final List<String> developerNames = new ArrayList<>();
+    
+            private final List<String> platformNames = new ArrayList<>();
+    
+            /**
+             * Creates a builder sized for about as many games as the previous generation.
+             */
+            Builder(int expectedSize) {
+                int capacity = Math.max(16, expectedSize + expectedSize / 8);
+                prices = new int[capacity];
+                years = new int[capacity];
+                developers = new int[capacity];
+                platforms = new int[capacity];
+            }
+    
+            void add(GameColumns row) {
+                if (size == prices.length) {
+                    int capacity = size + (size >> 1);
+                    prices = Arrays.copyOf(prices, capacity);
+                    years = Arrays.copyOf(years, capacity);
+                    developers = Arrays.copyOf(developers, capacity);
+                    platforms = Arrays.copyOf(platforms, capacity);
+                }
+                prices[size] = row.price();
+                years[size] = row.yearOfPublication();
+                developers[size] = code(developerCodes, developerNames, row.developer());
+                platforms[size] = code(platformCodes, platformNames, row.platform());
+                size++;
+            }
+    
+            private static int code(Map<String, Integer> codes, List<String> names,
+                                    String value) {
+                String key = value == null ? "" : value;
+                Integer code = codes.get(key);
+                if (code == null) {
+                    code = names.size();
+                    codes.put(key, code);
+                    names.add(key);
+                }
+                return code;
+            }
+    
+            Columns build(Instant refreshedAt, long refreshMillis) {
+                return new Columns(this, refreshedAt, refreshMillis);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the writes to the catalog; the ETag of every response listing games.
+ *
+ * <p>Any write changes the tag of every list, which keeps the tag a single counter read.
+ * The tag also carries the start time of the application, so a counter that started over
+ * after a restart never repeats a tag handed out before.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class CatalogVersion implements GameChangeListener {
+    
+    private final String epoch;
+    
+    private final AtomicLong changes = new AtomicLong();
+    
+    public CatalogVersion() {
+        this(System.currentTimeMillis());
+    }
+    
+    CatalogVersion(long epoch) {
+        this.epoch = Long.toString(epoch, Character.MAX_RADIX);
+    }
+    
+    /**
+     * Returns the current tag. Read it before running the query, so a write racing with the
+     * query can only make the tag older than the response, never newer.
+     *
+     * @return a quoted strong entity tag
+     */
+    public String etag() {
+        return "\"" + epoch + "-" + changes.get() + "\"";
+    }
+    
+    @Override
+    public void gameSaved(Game game) {
+        changes.incrementAndGet();
+    }
+    
+    @Override
+    public void gameUpdated(Game previous, Game current) {
+        changes.incrementAndGet();
+    }
+    
+    @Override
+    public void gameDeleted(Game previous) {
+        changes.incrementAndGet();
+    }
+    
+    @Override
+    public void catalogChanged() {
+        changes.incrementAndGet();
+    }
+}
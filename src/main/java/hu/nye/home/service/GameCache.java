@@ -0,0 +1,99 @@
+package hu.nye.home.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import hu.nye.home.dto.CacheStatistics;
+import hu.nye.home.model.Game;
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Bounded read-through cache of games by id.
+ *
+ * <p>Entries are evicted by size and after a fixed time since they were written.
+ * A hit is a single hash lookup that allocates nothing; concurrent loads of the
+ * same id are collapsed into one database read, and an invalidation issued while
+ * a load is in flight waits for it, so a stale row cannot be re-cached.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class GameCache implements GameChangeListener {
+    
+    private final Cache<Long, Game> cache;
+    
+    private final long capacity;
+    
+    /**
+     * Constructs a new GameCache.
+     *
+     * @param capacity the maximum number of cached games
+     * @param ttl how long a game stays cached after it was loaded
+     */
+    @Autowired
+    public GameCache(@Value("${jatekbazar.cache.capacity:10000}") long capacity,
+                     @Value("${jatekbazar.cache.ttl:10m}") Duration ttl) {
+        this.capacity = capacity;
+        this.cache = Caffeine.newBuilder()
+                       .maximumSize(capacity)
+                       .expireAfterWrite(ttl)
+                       .recordStats()
+                       .build();
+    }
+    
+    /**
+     * Returns the cached game or loads it. Nothing is cached if the loader returns null.
+     *
+     * @param id the id of the game
+     * @param loader reads the game from the database, should be a reused instance
+     * @return the game, or null if the loader did not find it
+     */
+    public Game get(Long id, Function<Long, Game> loader) {
+        return cache.get(id, loader);
+    }
+    
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+    
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+    
+    @Override
+    public void gameUpdated(Game previous, Game current) {
+        invalidate(current.getId());
+    }
+    
+    @Override
+    public void gameDeleted(Game previous) {
+        invalidate(previous.getId());
+    }
+    
+    @Override
+    public void catalogChanged() {
+        invalidateAll();
+    }
+    
+    /**
+     * Takes a snapshot of the cache counters.
+     *
+     * @return the current size and the hit, miss and eviction counts
+     */
+    public CacheStatistics statistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(cache.estimatedSize(), capacity, stats.hitCount(),
+          stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+    
+    /**
+     * Runs pending evictions; only needed to observe exact counts.
+     */
+    void cleanUp() {
+        cache.cleanUp();
+    }
+}
@@ -0,0 +1,347 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.ChangePage;
+import hu.nye.home.exceptions.ChangesCompactedException;
+import hu.nye.home.model.Game;
+import hu.nye.home.model.GameChange;
+import hu.nye.home.repositories.GameChangeRepository;
+import hu.nye.home.repositories.GameChangeTrigger;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+
+/**
+ * Serves the change log of the catalog, for readers catching up page by page and for
+ * Server-Sent Events subscribers tailing it.
+ *
+ * <p>The log is written by {@link GameChangeTrigger} in the transaction of each change.
+ * Its head is the last sequence up to which every change is committed, so readers stop
+ * before the changes of a transaction still open, e.g. a bulk update, even when later
+ * ones are committed. The write callbacks only wake up a single dispatcher thread, which
+ * reads the new changes once and sends them to every subscriber; a periodic poll picks up
+ * the writes that did not go through the service.
+ *
+ * <p>Compaction keeps the latest change of each game and drops tombstones older than the
+ * retention. Readers behind the last dropped tombstone would miss a deletion, so they are
+ * refused with {@link ChangesCompactedException}.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+public class GameChangeFeed implements GameChangeListener {
+    
+    /**
+     * The maximum number of changes read at once.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+    
+    static final String PURGED_THROUGH = "select purged_through from game_change_head";
+    
+    private static final Logger LOG = LoggerFactory.getLogger(GameChangeFeed.class);
+    
+    private final GameChangeRepository changeRepository;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final Duration tombstoneRetention;
+    
+    private final ExecutorService dispatcher;
+    
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    
+    private final AtomicBoolean pending = new AtomicBoolean();
+    
+    /**
+     * Constructs a new GameChangeFeed.
+     *
+     * @param changeRepository the repository the changes are read from
+     * @param jdbcTemplate installs the trigger and reads the head of the log
+     * @param tombstoneRetention how long tombstones are kept by the compaction
+     */
+    @Autowired
+    public GameChangeFeed(GameChangeRepository changeRepository, JdbcTemplate jdbcTemplate,
+                          @Value("${jatekbazar.changes.tombstone-retention:P7D}")
+                          Duration tombstoneRetention) {
+        this(changeRepository, jdbcTemplate, tombstoneRetention,
+          Executors.newSingleThreadExecutor(task -> {
+              Thread thread = new Thread(task, "change-feed");
+              thread.setDaemon(true);
+              return thread;
+          }));
+    }
+    
+    GameChangeFeed(GameChangeRepository changeRepository, JdbcTemplate jdbcTemplate,
+                   Duration tombstoneRetention, ExecutorService dispatcher) {
+        this.changeRepository = changeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tombstoneRetention = tombstoneRetention;
+        this.dispatcher = dispatcher;
+    }
+    
+    /**
+     * Creates the compaction watermark, the sequence and the trigger writing the log,
+     * unless they exist. The games and the log tables are created by Hibernate before.
+     */
+    @PostConstruct
+    public void installTrigger() {
+        jdbcTemplate.execute("create table if not exists game_change_head ("
+                               + "id int primary key, purged_through bigint not null)");
+        jdbcTemplate.execute("merge into game_change_head h using (select 1 id) l"
+                               + " on h.id = l.id when not matched"
+                               + " then insert (id, purged_through) values (l.id, 0)");
+        // the dropped tombstones may have been the last changes of the log
+        long start = jdbcTemplate.queryForObject("select greatest(coalesce(max(seq), 0),"
+                                                   + " (" + PURGED_THROUGH + ")) + 1"
+                                                   + " from game_changes", Long.class);
+        jdbcTemplate.execute("create sequence if not exists game_change_seq start with "
+                               + start);
+        jdbcTemplate.execute("create trigger if not exists games_change_log"
+                               + " after insert, update, delete on games for each row"
+                               + " call \"" + GameChangeTrigger.class.getName() + "\"");
+    }
+    
+    /**
+     * Stops the dispatcher; the subscribers are completed by the web server.
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+    
+    /**
+     * Reads the changes after a sequence.
+     *
+     * @param since the last sequence the reader has seen, 0 for the whole log
+     * @param limit the maximum number of changes, at most {@link #MAX_PAGE_SIZE}
+     * @return the changes in log order, with the sequence to continue from
+     * @throws ChangesCompactedException if tombstones after {@code since} were dropped
+     */
+    public ChangePage changesSince(long since, int limit) throws ChangesCompactedException {
+        long[] head = head();
+        requireRetained(since, head);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<GameChange> changes = changeRepository.findBySequenceBetweenOrderBySequenceAsc(
+          since + 1, head[0], Limit.of(pageSize));
+        long last = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSequence();
+        if (changes.size() < pageSize) {
+            // every change committed up to the head read before was returned
+            last = Math.max(last, head[0]);
+        }
+        return new ChangePage(changes, last, Math.max(last, head[0]));
+    }
+    
+    /**
+     * Tells the sequence up to which every change of the log is committed.
+     *
+     * @return the head of the log
+     */
+    public long headSequence() {
+        return head()[0];
+    }
+    
+    /**
+     * Subscribes to the changes after a sequence. The missed changes are sent first, then
+     * every new change, each as a {@code change} event with its sequence as the event id.
+     *
+     * @param since the last sequence the subscriber has seen, or null for the current head
+     * @return the event stream
+     * @throws ChangesCompactedException if tombstones after {@code since} were dropped
+     */
+    public SseEmitter subscribe(Long since) throws ChangesCompactedException {
+        return subscribe(since, new SseEmitter());
+    }
+    
+    SseEmitter subscribe(Long since, SseEmitter emitter) throws ChangesCompactedException {
+        long[] head = head();
+        if (since != null) {
+            requireRetained(since, head);
+        }
+        Subscriber subscriber = new Subscriber(emitter, since == null ? head[0] : since);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        publish();
+        return emitter;
+    }
+    
+    /**
+     * Tells how many subscribers are connected.
+     *
+     * @return the number of subscribers
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+    
+    @Override
+    public void gameSaved(Game game) {
+        publish();
+    }
+    
+    @Override
+    public void gameUpdated(Game previous, Game current) {
+        publish();
+    }
+    
+    @Override
+    public void gameDeleted(Game previous) {
+        publish();
+    }
+    
+    @Override
+    public void catalogChanged() {
+        publish();
+    }
+    
+    /**
+     * Looks for changes written without the service, e.g. by another application sharing
+     * the database.
+     */
+    @Scheduled(fixedDelayString = "${jatekbazar.changes.poll-interval:PT1S}")
+    public void poll() {
+        publish();
+    }
+    
+    /**
+     * Drops the changes superseded by a later change of the same game and the tombstones
+     * older than the retention.
+     */
+    @Scheduled(initialDelayString = "${jatekbazar.changes.compact-interval:PT10M}",
+               fixedDelayString = "${jatekbazar.changes.compact-interval:PT10M}")
+    public void compact() {
+        int superseded = changeRepository.deleteSuperseded();
+        Long purgeThrough = changeRepository.findLastTombstoneBefore(
+          Instant.now().minus(tombstoneRetention));
+        int tombstones = 0;
+        if (purgeThrough != null) {
+            // raised first: a reader must never pass a tombstone that is already gone
+            jdbcTemplate.update("update game_change_head"
+                                  + " set purged_through = greatest(purged_through, ?)",
+              purgeThrough);
+            tombstones = changeRepository.deleteTombstonesThrough(purgeThrough);
+        }
+        if (superseded > 0 || tombstones > 0) {
+            LOG.info("Compacted the change log: {} superseded changes and {} tombstones "
+                       + "dropped", superseded, tombstones);
+        }
+    }
+    
+    /**
+     * Reads the head of the log and the last sequence of the dropped tombstones.
+     */
+    private long[] head() {
+        return jdbcTemplate.execute((ConnectionCallback<long[]>) connection -> new long[] {
+            GameChangeTrigger.committedThrough(connection),
+            jdbcTemplate.queryForObject(PURGED_THROUGH, Long.class)
+        });
+    }
+    
+    private static void requireRetained(long since, long[] head)
+      throws ChangesCompactedException {
+        if (since < head[1]) {
+            throw new ChangesCompactedException("Tombstones up to " + head[1]
+                                                  + " were dropped from the change log");
+        }
+    }
+    
+    private void publish() {
+        if (!subscribers.isEmpty() && pending.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+    
+    /**
+     * Reads the changes after the oldest subscriber cursor and sends each subscriber the
+     * ones it has not seen, until nothing new has been published meanwhile.
+     */
+    private void dispatch() {
+        while (pending.getAndSet(false)) {
+            try {
+                long after = subscribers.stream().mapToLong(s -> s.cursor).min()
+                               .orElse(Long.MAX_VALUE);
+                long through = head()[0];
+                while (after < through) {
+                    List<GameChange> page = changeRepository
+                                              .findBySequenceBetweenOrderBySequenceAsc(
+                                                after + 1, through, Limit.of(MAX_PAGE_SIZE));
+                    for (Subscriber subscriber : subscribers) {
+                        if (!subscriber.send(page)) {
+                            subscribers.remove(subscriber);
+                        }
+                    }
+                    after = page.size() < MAX_PAGE_SIZE ? through
+                              : page.get(page.size() - 1).getSequence();
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Could not send the changes to the subscribers", e);
+            }
+        }
+    }
+    
+    /**
+     * An event stream with the last sequence sent to it.
+     */
+    private static final class Subscriber {
+    
+        private final SseEmitter emitter;
+    
+        private volatile long cursor;
+    
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    
+        /**
+         * Sends the unseen changes of the page as one write.
+         *
+         * @return false if the subscriber is gone
+         */
+        private boolean send(List<GameChange> page) {
+            Set<ResponseBodyEmitter.DataWithMediaType> events = new LinkedHashSet<>();
+            long last = cursor;
+            for (GameChange change : page) {
+                if (change.getSequence() > last) {
+                    events.addAll(SseEmitter.event()
+                                    .id(String.valueOf(change.getSequence()))
+                                    .name("change")
+                                    .data(change, MediaType.APPLICATION_JSON)
+                                    .build());
+                    last = change.getSequence();
+                }
+            }
+            if (events.isEmpty()) {
+                return true;
+            }
+            try {
+                emitter.send(events);
+                cursor = last;
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+
+/**
+ * Callback notified by {@link GameService} after each successful write, used to keep
+ * in-memory structures derived from the catalog in sync with the database.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public interface GameChangeListener {
+    
+    /**
+     * Called after a new game was stored.
+     *
+     * @param game the stored game, with its id
+     */
+    default void gameSaved(Game game) {
+    }
+    
+    /**
+     * Called after a game was updated.
+     *
+     * @param previous the state of the game before the update
+     * @param current the state of the game after the update
+     */
+    default void gameUpdated(Game previous, Game current) {
+    }
+    
+    /**
+     * Called after a game was deleted.
+     *
+     * @param previous the state of the game before it was deleted
+     */
+    default void gameDeleted(Game previous) {
+    }
+    
+    /**
+     * Called after a set-based statement changed an unknown set of games.
+     */
+    default void catalogChanged() {
+    }
+}
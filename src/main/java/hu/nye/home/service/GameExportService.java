@@ -0,0 +1,87 @@
+package hu.nye.home.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+
+/**
+ * A service class for streaming the game catalog as newline-delimited JSON.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+public class GameExportService {
+    
+    /**
+     * Number of rows written between two flushes of the response stream.
+     */
+    static final int FLUSH_INTERVAL = 500;
+    
+    private final GameRepositoryInterface gameRepository;
+    
+    private final EntityManager entityManager;
+    
+    private final ObjectWriter writer;
+    
+    /**
+     * Constructs a new GameExportService.
+     *
+     * @param gameRepository the repository the catalog is read from
+     * @param entityManager the entity manager used to detach exported games
+     * @param objectMapper the mapper used to serialize games
+     */
+    @Autowired
+    public GameExportService(GameRepositoryInterface gameRepository, EntityManager entityManager,
+                             ObjectMapper objectMapper) {
+        this.gameRepository = gameRepository;
+        this.entityManager = entityManager;
+        this.writer = objectMapper.writerFor(Game.class)
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    }
+    
+    /**
+     * Writes every matching game as one JSON line. Each game is detached once written,
+     * so the persistence context never holds more than the row being exported.
+     *
+     * @param platform the platform filter, or null
+     * @param developer the developer filter, or null
+     * @param fromYear the first year of publication, or null for no lower bound
+     * @param toYear the last year of publication, or null for no upper bound
+     * @param out the stream the lines are written to, left open
+     * @return the number of exported games
+     * @throws IOException if writing to the stream fails
+     */
+    @Transactional(readOnly = true)
+    public long exportGames(String platform, String developer, Integer fromYear, Integer toYear,
+                            OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<Game> games = gameRepository.streamForExport(
+          platform, developer,
+          fromYear == null ? Integer.MIN_VALUE : fromYear,
+          toYear == null ? Integer.MAX_VALUE : toYear)) {
+            Iterator<Game> iterator = games.iterator();
+            while (iterator.hasNext()) {
+                Game game = iterator.next();
+                writer.writeValue(out, game);
+                out.write('\n');
+                entityManager.detach(game);
+                if (++count % FLUSH_INTERVAL == 0) {
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        return count;
+    }
+}
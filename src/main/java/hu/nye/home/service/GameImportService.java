@@ -0,0 +1,159 @@
+package hu.nye.home.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import hu.nye.home.dto.BulkImportResult;
+import hu.nye.home.dto.BulkRecordError;
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.model.Game;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+
+/**
+ * A service class for importing large numbers of games in JDBC batches.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+public class GameImportService {
+    
+    static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private final EntityManager entityManager;
+    
+    private final TransactionOperations transactionOperations;
+    
+    private final Validator validator;
+    
+    private final ObjectReader reader;
+    
+    private final int chunkSize;
+    
+    private final List<GameChangeListener> listeners;
+    
+    /**
+     * Constructs a new GameImportService.
+     *
+     * @param entityManager the entity manager games are persisted through
+     * @param transactionOperations runs one transaction per chunk
+     * @param validator validates each record against the GameDto constraints
+     * @param objectMapper the mapper used to read the payload
+     * @param chunkSize the number of records persisted, flushed and cleared together
+     * @param listeners notified of every game once its chunk is committed
+     */
+    @Autowired
+    public GameImportService(EntityManager entityManager,
+                             TransactionOperations transactionOperations,
+                             Validator validator, ObjectMapper objectMapper,
+                             @Value("${jatekbazar.bulk.chunk-size:1000}") int chunkSize,
+                             List<GameChangeListener> listeners) {
+        this.entityManager = entityManager;
+        this.transactionOperations = transactionOperations;
+        this.validator = validator;
+        this.reader = objectMapper.readerFor(GameDto.class);
+        this.chunkSize = chunkSize;
+        this.listeners = listeners;
+    }
+    
+    /**
+     * Imports games from either a JSON array or a stream of newline-delimited JSON objects.
+     * Records are read one at a time and committed chunk by chunk; a record that cannot be
+     * bound or fails validation is reported and skipped without affecting the others.
+     *
+     * @param in the request body
+     * @return the number of received, imported and rejected records
+     * @throws IOException if the payload is not well-formed JSON
+     */
+    public BulkImportResult importGames(InputStream in) throws IOException {
+        BulkImportResult result = new BulkImportResult();
+        List<Game> chunk = new ArrayList<>(chunkSize);
+        long firstIndex = 0;
+        try (MappingIterator<GameDto> records = reader.readValues(in)) {
+            while (records.hasNextValue()) {
+                long index = result.getReceived();
+                result.setReceived(index + 1);
+                GameDto dto;
+                try {
+                    dto = records.nextValue();
+                } catch (JsonMappingException e) {
+                    reject(result, index, e.getOriginalMessage());
+                    continue;
+                }
+                Set<ConstraintViolation<GameDto>> violations = validator.validate(dto);
+                if (!violations.isEmpty()) {
+                    reject(result, index, describe(violations));
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    firstIndex = index;
+                }
+                chunk.add(new Game(dto.getName(), dto.getPrice(), dto.getDeveloper(),
+                  dto.getPlatform(), dto.getYearOfPublication()));
+                if (chunk.size() == chunkSize) {
+                    persist(chunk, firstIndex, result);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            reject(result, result.getReceived(), e.getOriginalMessage());
+        }
+        persist(chunk, firstIndex, result);
+        return result;
+    }
+    
+    /**
+     * Persists one chunk in its own transaction, then empties it.
+     */
+    private void persist(List<Game> chunk, long firstIndex, BulkImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            transactionOperations.executeWithoutResult(status -> {
+                for (Game game : chunk) {
+                    entityManager.persist(game);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            result.setImported(result.getImported() + chunk.size());
+        } catch (RuntimeException e) {
+            reject(result, firstIndex, "Chunk of " + chunk.size()
+                                         + " records starting here failed: " + e.getMessage());
+            result.setFailed(result.getFailed() + chunk.size() - 1);
+            chunk.clear();
+            return;
+        }
+        for (Game game : chunk) {
+            listeners.forEach(listener -> listener.gameSaved(game));
+        }
+        chunk.clear();
+    }
+    
+    private static void reject(BulkImportResult result, long index, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(new BulkRecordError(index, message));
+        }
+    }
+    
+    private static String describe(Set<ConstraintViolation<GameDto>> violations) {
+        return violations.stream()
+                 .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                 .sorted()
+                 .collect(Collectors.joining(", "));
+    }
+}
@@ -0,0 +1,272 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * In-memory inverted index over the name, developer and platform of every game.
+ *
+ * <p>Each key maps to a sorted posting list of primitive game ids, so lookups are
+ * answered without the database and page with the same id cursor as the repository
+ * queries. Values are indexed as-is for exact matches and normalized (trimmed, lower
+ * case, diacritics removed) for case-insensitive and prefix matches; names are also
+ * split into word tokens, so a prefix query matches the start of any word.
+ *
+ * <p>The index is kept current by {@link GameService} and rebuilt from the database
+ * on startup and after bulk statements, see {@link CatalogProjection}.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class GameIndex extends CatalogProjection<GameIndex.Postings> {
+    
+    /**
+     * Indexed game attribute.
+     */
+    public enum Field { NAME, DEVELOPER, PLATFORM }
+    
+    /**
+     * How a query value is compared with the indexed values.
+     */
+    public enum Match { EXACT, IGNORE_CASE, PREFIX }
+    
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    /**
+     * Constructs a new GameIndex.
+     *
+     * @param gameRepository the repository the index is rebuilt from
+     * @param rebuildOnStartup whether to load the index when the application starts
+     */
+    @Autowired
+    public GameIndex(GameRepositoryInterface gameRepository,
+                     @Value("${jatekbazar.index.rebuild-on-startup:true}")
+                     boolean rebuildOnStartup) {
+        super(gameRepository, rebuildOnStartup);
+    }
+    
+    @Override
+    protected Postings newGeneration() {
+        return new Postings();
+    }
+    
+    @Override
+    protected void add(Postings postings, Game game) {
+        postings.add(game);
+    }
+    
+    @Override
+    protected void remove(Postings postings, Game game) {
+        postings.remove(game);
+    }
+    
+    /**
+     * Finds the ids of the games whose attribute matches the value.
+     *
+     * @param field the attribute to search
+     * @param match how to compare the value
+     * @param value the searched value
+     * @param afterId only ids greater than this are returned
+     * @param limit the maximum number of ids
+     * @return matching ids in ascending order
+     */
+    public long[] find(Field field, Match match, String value, long afterId, int limit) {
+        if (value == null) {
+            return new long[0];
+        }
+        return read(postings -> {
+            switch (match) {
+              case EXACT:
+                  return slice(postings.exact.get(field).get(value), afterId, limit);
+              case IGNORE_CASE:
+                  return slice(postings.normalized.get(field).get(normalize(value)),
+                    afterId, limit);
+              default:
+                  return field == Field.NAME
+                           ? findByNamePrefix(postings, value, afterId, limit)
+                           : union(prefixed(postings.normalized.get(field), normalize(value)),
+                    afterId, limit);
+            }
+        });
+    }
+    
+    /**
+     * Every query token must be the prefix of a word of the name.
+     */
+    private static long[] findByNamePrefix(Postings postings, String value, long afterId,
+                                           int limit) {
+        String[] tokens = tokenize(value);
+        if (tokens.length == 0) {
+            return new long[0];
+        }
+        if (tokens.length == 1) {
+            return union(prefixed(postings.nameTokens, tokens[0]), afterId, limit);
+        }
+        long[] matches = union(prefixed(postings.nameTokens, tokens[0]), afterId,
+          Integer.MAX_VALUE);
+        for (int i = 1; i < tokens.length && matches.length > 0; i++) {
+            matches = intersect(matches, union(prefixed(postings.nameTokens, tokens[i]),
+              afterId, Integer.MAX_VALUE));
+        }
+        return Arrays.copyOf(matches, Math.min(matches.length, limit));
+    }
+    
+    /**
+     * Normalizes a value for case- and accent-insensitive comparison.
+     *
+     * @param value the raw value
+     * @return the trimmed, lower-case value without diacritics
+     */
+    public static String normalize(String value) {
+        String trimmed = value.trim();
+        if (isAscii(trimmed)) {
+            // nothing to decompose; skips the normalizer for most values of a rebuild
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+    
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Splits a value into normalized word tokens.
+     *
+     * @param value the raw value
+     * @return the non-empty tokens
+     */
+    public static String[] tokenize(String value) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(value)))
+                 .filter(token -> !token.isEmpty())
+                 .toArray(String[]::new);
+    }
+    
+    private static Collection<LongPostingList> prefixed(NavigableMap<String, LongPostingList> map,
+                                                        String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+    }
+    
+    private static long[] slice(LongPostingList list, long afterId, int limit) {
+        return list == null ? new long[0] : list.after(afterId, limit);
+    }
+    
+    private static long[] union(Collection<LongPostingList> lists, long afterId, int limit) {
+        if (lists.size() == 1) {
+            return lists.iterator().next().after(afterId, limit);
+        }
+        return lists.stream()
+                 .flatMapToLong(list -> LongStream.of(list.after(afterId, limit)))
+                 .sorted()
+                 .distinct()
+                 .limit(limit)
+                 .toArray();
+    }
+    
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[count++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    /**
+     * One complete generation of the index.
+     */
+    static final class Postings {
+        
+        private final Map<Field, Map<String, LongPostingList>> exact = new EnumMap<>(Field.class);
+        
+        private final Map<Field, NavigableMap<String, LongPostingList>> normalized =
+          new EnumMap<>(Field.class);
+        
+        private final NavigableMap<String, LongPostingList> nameTokens = new TreeMap<>();
+        
+        private Postings() {
+            for (Field field : Field.values()) {
+                exact.put(field, new HashMap<>());
+                normalized.put(field, new TreeMap<>());
+            }
+        }
+        
+        private void add(Game game) {
+            long id = game.getId();
+            add(Field.NAME, game.getName(), id);
+            add(Field.DEVELOPER, game.getDeveloper(), id);
+            add(Field.PLATFORM, game.getPlatform(), id);
+            if (game.getName() != null) {
+                for (String token : tokenize(game.getName())) {
+                    nameTokens.computeIfAbsent(token, k -> new LongPostingList()).add(id);
+                }
+            }
+        }
+        
+        private void add(Field field, String value, long id) {
+            if (value != null) {
+                exact.get(field).computeIfAbsent(value, k -> new LongPostingList()).add(id);
+                normalized.get(field).computeIfAbsent(normalize(value), k -> new LongPostingList())
+                  .add(id);
+            }
+        }
+        
+        private void remove(Game game) {
+            long id = game.getId();
+            remove(Field.NAME, game.getName(), id);
+            remove(Field.DEVELOPER, game.getDeveloper(), id);
+            remove(Field.PLATFORM, game.getPlatform(), id);
+            if (game.getName() != null) {
+                for (String token : tokenize(game.getName())) {
+                    remove(nameTokens, token, id);
+                }
+            }
+        }
+        
+        private void remove(Field field, String value, long id) {
+            if (value != null) {
+                remove(exact.get(field), value, id);
+                remove(normalized.get(field), normalize(value), id);
+            }
+        }
+        
+        private static void remove(Map<String, LongPostingList> map, String key, long id) {
+            LongPostingList list = map.get(key);
+            if (list != null && list.remove(id) && list.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+}
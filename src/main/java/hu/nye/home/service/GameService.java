@@ -1,14 +1,31 @@
 package hu.nye.home.service;
 
 import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.dto.SearchHit;
 import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.GameVersionMismatchException;
+import hu.nye.home.exceptions.InvalidBulkRequestException;
 import hu.nye.home.model.Game;
 import hu.nye.home.repositories.GameRepositoryInterface;
+import hu.nye.home.repositories.GameSpecifications;
+import hu.nye.home.repositories.ReplicaRoutingDataSource;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 /**
@@ -20,9 +37,43 @@ public class GameService implements GameServiceInterface {
     
     private final GameRepositoryInterface gameRepository;
     
+    private final GameCache gameCache;
+    
+    private final GameIdFilter gameIdFilter;
+    
+    private final GameIndex gameIndex;
+    
+    private final TrigramIndex trigramIndex;
+    
+    private final List<GameChangeListener> listeners;
+    
+    /**
+     * Reused so that cache hits do not allocate a capturing lambda.
+     */
+    private final Function<Long, Game> loader;
+    
+    /**
+     * Constructs a new GameService.
+     *
+     * @param gameRepository the repository games are stored in
+     * @param gameCache the cache in front of {@link #getGameById(Long)}
+     * @param gameIdFilter answers lookups of missing ids before the cache
+     * @param gameIndex the in-memory index answering the lookups
+     * @param trigramIndex the in-memory index answering the fuzzy name search
+     * @param listeners notified after every write, including the cache and the indexes
+     */
     @Autowired
-    public GameService(GameRepositoryInterface gameRepository) {
+    public GameService(GameRepositoryInterface gameRepository, GameCache gameCache,
+                       GameIdFilter gameIdFilter, GameIndex gameIndex,
+                       TrigramIndex trigramIndex, List<GameChangeListener> listeners) {
         this.gameRepository = gameRepository;
+        this.gameCache = gameCache;
+        this.gameIdFilter = gameIdFilter;
+        this.gameIndex = gameIndex;
+        this.trigramIndex = trigramIndex;
+        this.listeners = listeners;
+        this.loader = id -> ReplicaRoutingDataSource.readFromPrimary(
+          () -> gameRepository.findById(id).orElse(null));
     }
     
     
@@ -41,46 +92,221 @@ public class GameService implements GameServiceInterface {
             game.setPlatform(dto.getPlatform());
             game.setYearOfPublication(dto.getYearOfPublication());
             gameRepository.save(game);
+            listeners.forEach(listener -> listener.gameSaved(game));
         }
         return game;
     }
     
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Ids the {@link GameIdFilter} knows to be missing are answered without the cache
+     * and the database. A miss is loaded in the read-only transaction of the repository,
+     * so a hit does not open a transaction of its own. It is loaded from the primary even
+     * when the request may read from a replica, so the cache never holds a game older than
+     * the last write it was invalidated for.
+     */
     @Override
-    @SneakyThrows
-    public Game getGameById(Long id) {
-        return gameRepository.findById(id).orElseThrow(GameNotFoundException::new);
+    public Game getGameById(Long id) throws GameNotFoundException {
+        if (gameIdFilter.isMissing(id)) {
+            throw new GameNotFoundException();
+        }
+        Game game = gameCache.get(id, loader);
+        if (game == null) {
+            throw new GameNotFoundException();
+        }
+        return game;
     }
     
     
     @Override
-    @SneakyThrows
     public Game updateGame(Long id, GameDto dto) {
-        Game game = gameRepository.findById(id).orElseThrow(GameNotFoundException::new);
-        game.setName(dto.getName());
-        game.setPrice(dto.getPrice());
-        game.setDeveloper(dto.getDeveloper());
-        game.setPlatform(dto.getPlatform());
-        game.setYearOfPublication(dto.getYearOfPublication());
-        return gameRepository.save(game);
+        return updateGame(id, dto, null);
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * <p>A single statement checks the version, writes the row and returns its previous
+     * state for the listeners; the game is only read again when nothing was updated.
+     */
+    @Override
+    @SneakyThrows
+    public Game updateGame(Long id, GameDto dto, Long expectedVersion) {
+        Game values = new Game(id, dto.getName(), dto.getPrice(), dto.getDeveloper(),
+          dto.getPlatform(), dto.getYearOfPublication());
+        Game previous = gameRepository.updateReturningPrevious(values, expectedVersion)
+                          .orElse(null);
+        if (previous == null) {
+            if (expectedVersion != null && gameRepository.existsById(id)) {
+                throw new GameVersionMismatchException();
+            }
+            throw new GameNotFoundException();
+        }
+        Game updated = values.toBuilder().version(previous.getVersion() + 1).build();
+        listeners.forEach(listener -> listener.gameUpdated(previous, updated));
+        return updated;
     }
     
     @Override
+    @SneakyThrows
     public void deleteGameById(Long id) {
-        gameRepository.deleteById(id);
+        Game previous = gameRepository.deleteReturningPrevious(id)
+                          .orElseThrow(GameNotFoundException::new);
+        listeners.forEach(listener -> listener.gameDeleted(previous));
+    }
+    
+    @Override
+    @SneakyThrows
+    public long updateGamesMatching(GameFilter filter, GamePatch patch) {
+        requireCriteria(filter);
+        if (patch == null || patch.isEmpty()) {
+            throw new InvalidBulkRequestException("The patch does not change anything");
+        }
+        if (patch.getPrice() != null && patch.getPriceDelta() != null) {
+            throw new InvalidBulkRequestException("price and priceDelta cannot be combined");
+        }
+        int affected = gameRepository.updateMatching(GameSpecifications.matching(filter), patch);
+        listeners.forEach(GameChangeListener::catalogChanged);
+        return affected;
+    }
+    
+    @Override
+    @SneakyThrows
+    public long deleteGamesMatching(GameFilter filter) {
+        requireCriteria(filter);
+        long affected = gameRepository.delete(GameSpecifications.matching(filter));
+        listeners.forEach(GameChangeListener::catalogChanged);
+        return affected;
+    }
+    
+    /**
+     * Refuses bulk operations that would silently touch the whole catalog.
+     */
+    private static void requireCriteria(GameFilter filter) throws InvalidBulkRequestException {
+        if (filter == null || filter.isEmpty()) {
+            throw new InvalidBulkRequestException("At least one filter criterion is required");
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    @SneakyThrows
+    public GamePage<Game> findAllGames(String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        long afterId = GameCursor.decode(cursor);
+        return toPage(gameRepository.findByIdGreaterThanOrderByIdAsc(
+          afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    @SneakyThrows
+    public GamePage<Game> queryGames(GameFilter filter, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        long afterId = GameCursor.decode(cursor);
+        Specification<Game> spec =
+          GameSpecifications.matching(filter == null ? new GameFilter() : filter)
+            .and(GameSpecifications.idGreaterThan(afterId));
+        return toPage(gameRepository.findBy(spec, query -> query.sortBy(Sort.by("id"))
+                                                              .limit(pageSize + 1)
+                                                              .all()), pageSize);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<Game> findAllGameByName(String name) {
         return gameRepository.findByName(name);
     }
     
     @Override
+    @Transactional(readOnly = true)
+    @SneakyThrows
+    public GamePage<Game> findAllGameByName(String name, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        long afterId = GameCursor.decode(cursor);
+        return toPage(gameRepository.findByNameAndIdGreaterThanOrderByNameAscIdAsc(
+          name, afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
     public List<Game> findAllGameByDeveloper(String developer) {
         return gameRepository.findByDeveloper(developer);
     }
     
     @Override
+    @Transactional(readOnly = true)
+    @SneakyThrows
+    public GamePage<Game> findAllGameByDeveloper(String developer, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        long afterId = GameCursor.decode(cursor);
+        return toPage(gameRepository.findByDeveloperAndIdGreaterThanOrderByDeveloperAscIdAsc(
+          developer, afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
     public List<Game> findAllGameByPlatform(String platform) {
         return gameRepository.findByPlatform(platform);
     }
+    
+    @Override
+    @Transactional(readOnly = true)
+    @SneakyThrows
+    public GamePage<Game> findAllGameByPlatform(String platform, String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        long afterId = GameCursor.decode(cursor);
+        return toPage(gameRepository.findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc(
+          platform, afterId, Limit.of(pageSize + 1)), pageSize);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    @SneakyThrows
+    public GamePage<Game> lookupGames(GameIndex.Field field, GameIndex.Match match, String value,
+                                      String cursor, int size) {
+        int pageSize = GameCursor.clampPageSize(size);
+        long afterId = GameCursor.decode(cursor);
+        long[] ids = gameIndex.find(field, match, value, afterId, pageSize + 1);
+        int count = Math.min(ids.length, pageSize);
+        List<Long> pageIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            pageIds.add(ids[i]);
+        }
+        List<Game> games = new ArrayList<>(gameRepository.findAllById(pageIds));
+        games.sort(Comparator.comparing(Game::getId));
+        String nextCursor = ids.length > pageSize ? GameCursor.encode(ids[pageSize - 1]) : null;
+        return new GamePage<>(games, nextCursor);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchHit> searchGames(String query, int limit) {
+        List<TrigramIndex.ScoredId> scored = trigramIndex.search(query,
+          Math.max(1, Math.min(limit, TrigramIndex.MAX_RESULTS)));
+        Map<Long, Game> games = gameRepository.findAllById(
+            scored.stream().map(TrigramIndex.ScoredId::id).toList())
+                                  .stream()
+                                  .collect(Collectors.toMap(Game::getId, game -> game));
+        List<SearchHit> hits = new ArrayList<>(scored.size());
+        for (TrigramIndex.ScoredId hit : scored) {
+            Game game = games.get(hit.id());
+            if (game != null) {
+                hits.add(new SearchHit(game, hit.score()));
+            }
+        }
+        return hits;
+    }
+    
+    /**
+     * Cuts the one-row look-ahead off a keyset query result.
+     */
+    private static GamePage<Game> toPage(List<Game> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new GamePage<>(rows, null);
+        }
+        List<Game> items = rows.subList(0, pageSize);
+        return new GamePage<>(items, GameCursor.encode(items.get(pageSize - 1).getId()));
+    }
 }
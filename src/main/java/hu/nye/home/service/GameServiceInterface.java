@@ -2,6 +2,10 @@ package hu.nye.home.service;
 
 
 import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.dto.SearchHit;
 import hu.nye.home.exceptions.GameNotFoundException;
 import hu.nye.home.model.Game;
 import java.util.List;
@@ -13,17 +17,62 @@ import java.util.List;
 public interface GameServiceInterface {
     Game saveGame(GameDto dto);
     
-    Game getGameById(Long id);
+    /**
+     * Retrieves a game by its id.
+     *
+     * <p>The exception is declared, unlike in the other methods, so that the service proxy
+     * passes it on as it is instead of wrapping it into an exception with a stack trace.
+     *
+     * @param id the id of the game
+     * @return the game
+     * @throws GameNotFoundException if there is no game with the id
+     */
+    Game getGameById(Long id) throws GameNotFoundException;
     
     Game updateGame(Long id, GameDto dto);
     
+    /**
+     * Replaces every attribute of a game, unless it changed since the client read it.
+     *
+     * @param id the id of the game
+     * @param dto the new attributes
+     * @param expectedVersion the version the client read, or null to skip the check
+     * @return the updated game with its new version
+     */
+    Game updateGame(Long id, GameDto dto, Long expectedVersion);
+    
+    /**
+     * Deletes a game.
+     *
+     * @param id the id of the game
+     * @throws GameNotFoundException if there is no game with the id
+     */
     void deleteGameById(Long id);
     
+    long updateGamesMatching(GameFilter filter, GamePatch patch);
+    
+    long deleteGamesMatching(GameFilter filter);
+    
+    GamePage<Game> findAllGames(String cursor, int size);
+    
+    GamePage<Game> queryGames(GameFilter filter, String cursor, int size);
+    
     List<Game> findAllGameByName(String name);
     
+    GamePage<Game> findAllGameByName(String name, String cursor, int size);
+    
     List<Game> findAllGameByDeveloper(String developer);
     
+    GamePage<Game> findAllGameByDeveloper(String developer, String cursor, int size);
+    
     List<Game> findAllGameByPlatform(String platform);
+    
+    GamePage<Game> findAllGameByPlatform(String platform, String cursor, int size);
+    
+    GamePage<Game> lookupGames(GameIndex.Field field, GameIndex.Match match, String value,
+                               String cursor, int size);
+    
+    List<SearchHit> searchGames(String query, int limit);
 
 
 }
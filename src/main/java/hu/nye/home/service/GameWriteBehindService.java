@@ -0,0 +1,637 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.dto.SearchHit;
+import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.GameVersionMismatchException;
+import hu.nye.home.exceptions.WriteQueueFullException;
+import hu.nye.home.model.Game;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+
+/**
+ * Write-behind front of {@link GameService}, enabled by the {@code write-behind} profile.
+ *
+ * <p>Creates, updates and deletes are acknowledged once they are forced to the
+ * {@link WriteBehindJournal}. A single flusher thread stores them in batched transactions
+ * when {@code batch-size} games are pending, and every {@code max-delay} otherwise. Only
+ * the latest write of each game is kept, so a game updated many times between two flushes
+ * is written once.
+ *
+ * <p>{@link #getGameById(Long)} answers from the pending writes first. The other reads and
+ * the listeners see a write once it is stored. The set-based operations store the pending
+ * writes first, so they apply after them, and no write is added until they are done.
+ *
+ * <p>New games take their ids from {@code games_seq} in blocks, like Hibernate does, so a
+ * created game has its id when it is acknowledged. While {@code capacity} games are
+ * pending, writes of other games wait up to {@code max-wait} and are then refused with
+ * {@link WriteQueueFullException}. Waits and database round trips happen under
+ * {@link ReentrantLock}s rather than monitors, so virtual threads do not pin their carrier.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+@Primary
+@Profile("write-behind")
+public class GameWriteBehindService implements GameServiceInterface {
+    
+    /**
+     * The size of the id blocks; the allocation size of games_seq in {@link Game}.
+     */
+    static final int ID_BLOCK_SIZE = 50;
+    
+    static final String NEXT_ID = "select next value for games_seq";
+    
+    static final String SELECT = "select id, name, price, developer, platform,"
+                                   + " year_of_publication, version from games"
+                                   + " where id = any(?)";
+    
+    static final String MERGE = "merge into games (id, name, price, developer, platform,"
+                                  + " year_of_publication, version) key (id)"
+                                  + " values (?, ?, ?, ?, ?, ?, ?)";
+    
+    static final String DELETE = "delete from games where id = ?";
+    
+    private static final int GAME_LOCKS = 64;
+    
+    private static final Logger LOG = LoggerFactory.getLogger(GameWriteBehindService.class);
+    
+    private static final RowMapper<Game> GAME_ROW = (rs, row) -> new Game(rs.getLong(1),
+      rs.getString(2), rs.getInt(3), rs.getString(4), rs.getString(5), rs.getInt(6),
+      rs.getLong(7));
+    
+    private final GameService gameService;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final TransactionOperations transactionOperations;
+    
+    private final List<GameChangeListener> listeners;
+    
+    private final WriteBehindJournal journal;
+    
+    private final int capacity;
+    
+    private final int batchSize;
+    
+    private final Duration maxWait;
+    
+    private final ExecutorService flusher;
+    
+    /**
+     * The latest write of each game that is not stored yet.
+     */
+    private final Map<Long, PendingWrite> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * Held shared while a write is added to {@link #pending} and the journal, and
+     * exclusively while the flusher starts a journal segment and takes the writes to store,
+     * so the older segments hold only writes it has taken. A set-based operation holds it
+     * exclusively from storing the pending writes until it is committed.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    /**
+     * Striped by game id and held while a write of the game is computed from its pending
+     * write and appended to the journal, so the journal gets the writes of a game in the
+     * order they replace each other.
+     */
+    private final Lock[] gameLocks = new Lock[GAME_LOCKS];
+    
+    /**
+     * Counts, for each stripe of {@link #gameLocks}, the writes that left {@link #pending}
+     * once they were stored and the set-based operations, so a write can tell whether the
+     * state of the game it read is still the latest one.
+     */
+    private final AtomicLongArray storedWrites = new AtomicLongArray(GAME_LOCKS);
+    
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    
+    private final Lock spaceLock = new ReentrantLock();
+    
+    /**
+     * Signalled whenever stored writes leave {@link #pending}.
+     */
+    private final Condition space = spaceLock.newCondition();
+    
+    private final Lock idLock = new ReentrantLock();
+    
+    private long nextId;
+    
+    private long idLimit;
+    
+    /**
+     * Constructs a new GameWriteBehindService.
+     *
+     * @param gameService stores the set-based operations and answers the reads
+     * @param jdbcTemplate stores the pending writes and allocates the ids
+     * @param transactionOperations runs one transaction per batch
+     * @param listeners notified of every write once it is stored
+     * @param journal the directory of the journal
+     * @param capacity the number of pending games above which writes wait
+     * @param batchSize the number of games stored in one transaction
+     * @param maxWait how long a write waits for room before it is refused
+     * @throws IOException if the journal cannot be opened
+     */
+    @Autowired
+    public GameWriteBehindService(GameService gameService, JdbcTemplate jdbcTemplate,
+                                  TransactionOperations transactionOperations,
+                                  List<GameChangeListener> listeners,
+                                  @Value("${jatekbazar.write-behind.journal:./data/write-behind}")
+                                  String journal,
+                                  @Value("${jatekbazar.write-behind.capacity:10000}")
+                                  int capacity,
+                                  @Value("${jatekbazar.write-behind.batch-size:1000}")
+                                  int batchSize,
+                                  @Value("${jatekbazar.write-behind.max-wait:PT1S}")
+                                  Duration maxWait) throws IOException {
+        this(gameService, jdbcTemplate, transactionOperations, listeners,
+          new WriteBehindJournal(Path.of(journal)), capacity, batchSize, maxWait,
+          Executors.newSingleThreadExecutor(task -> {
+              Thread thread = new Thread(task, "write-behind");
+              thread.setDaemon(true);
+              return thread;
+          }));
+    }
+    
+    GameWriteBehindService(GameService gameService, JdbcTemplate jdbcTemplate,
+                           TransactionOperations transactionOperations,
+                           List<GameChangeListener> listeners, WriteBehindJournal journal,
+                           int capacity, int batchSize, Duration maxWait,
+                           ExecutorService flusher) {
+        this.gameService = gameService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionOperations = transactionOperations;
+        this.listeners = listeners;
+        this.journal = journal;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+        this.flusher = flusher;
+        for (int i = 0; i < gameLocks.length; i++) {
+            gameLocks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * Stores the writes left in the journal by the previous run, before any new write is
+     * accepted.
+     *
+     * @throws IOException if the journal cannot be read
+     */
+    @PostConstruct
+    public void recover() throws IOException {
+        List<PendingWrite> writes = journal.read();
+        if (writes.isEmpty()) {
+            journal.discardRead();
+            return;
+        }
+        long maxId = 0;
+        for (PendingWrite write : writes) {
+            pending.put(write.game().getId(), write);
+            maxId = Math.max(maxId, write.game().getId());
+        }
+        LOG.info("Recovered {} writes of {} games from the write-behind journal",
+          writes.size(), pending.size());
+        drain();
+        // the journal may outlive an in-memory database and its sequence
+        if (jdbcTemplate.queryForObject(NEXT_ID, Long.class) <= maxId) {
+            jdbcTemplate.execute("alter sequence games_seq restart with " + (maxId + 1));
+        }
+    }
+    
+    /**
+     * Stores the pending writes and closes the journal.
+     *
+     * @throws IOException if the journal cannot be written
+     * @throws InterruptedException if interrupted while the writes are stored
+     */
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        try {
+            flush();
+        } finally {
+            flusher.shutdown();
+            journal.close();
+        }
+    }
+    
+    @Override
+    @SneakyThrows
+    public Game saveGame(GameDto dto) {
+        if (dto == null) {
+            throw new NullPointerException("GameDto cannot be null");
+        }
+        Game game = new Game(nextId(), dto.getName(), dto.getPrice(), dto.getDeveloper(),
+          dto.getPlatform(), dto.getYearOfPublication(), 0L);
+        return enqueue(game.getId(), false, latest -> new PendingWrite(game, false)).game();
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * <p>A pending write of the game answers before the cache and the database.
+     */
+    @Override
+    public Game getGameById(Long id) throws GameNotFoundException {
+        PendingWrite write = pending.get(id);
+        if (write == null) {
+            return gameService.getGameById(id);
+        }
+        if (write.deleted()) {
+            throw new GameNotFoundException();
+        }
+        return write.game();
+    }
+    
+    @Override
+    public Game updateGame(Long id, GameDto dto) {
+        return updateGame(id, dto, null);
+    }
+    
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The version is checked against the pending write of the game, if there is one.
+     */
+    @Override
+    @SneakyThrows
+    public Game updateGame(Long id, GameDto dto, Long expectedVersion) {
+        return enqueue(id, true, latest -> {
+            if (expectedVersion != null && !expectedVersion.equals(latest.getVersion())) {
+                throw new GameVersionMismatchException();
+            }
+            return new PendingWrite(new Game(id, dto.getName(), dto.getPrice(),
+              dto.getDeveloper(), dto.getPlatform(), dto.getYearOfPublication(),
+              latest.getVersion() + 1), false);
+        }).game();
+    }
+    
+    @Override
+    @SneakyThrows
+    public void deleteGameById(Long id) {
+        enqueue(id, true, latest -> new PendingWrite(latest, true));
+    }
+    
+    @Override
+    @SneakyThrows
+    public long updateGamesMatching(GameFilter filter, GamePatch patch) {
+        return exclusively(() -> gameService.updateGamesMatching(filter, patch));
+    }
+    
+    @Override
+    @SneakyThrows
+    public long deleteGamesMatching(GameFilter filter) {
+        return exclusively(() -> gameService.deleteGamesMatching(filter));
+    }
+    
+    @Override
+    public GamePage<Game> findAllGames(String cursor, int size) {
+        return gameService.findAllGames(cursor, size);
+    }
+    
+    @Override
+    public GamePage<Game> queryGames(GameFilter filter, String cursor, int size) {
+        return gameService.queryGames(filter, cursor, size);
+    }
+    
+    @Override
+    public List<Game> findAllGameByName(String name) {
+        return gameService.findAllGameByName(name);
+    }
+    
+    @Override
+    public GamePage<Game> findAllGameByName(String name, String cursor, int size) {
+        return gameService.findAllGameByName(name, cursor, size);
+    }
+    
+    @Override
+    public List<Game> findAllGameByDeveloper(String developer) {
+        return gameService.findAllGameByDeveloper(developer);
+    }
+    
+    @Override
+    public GamePage<Game> findAllGameByDeveloper(String developer, String cursor, int size) {
+        return gameService.findAllGameByDeveloper(developer, cursor, size);
+    }
+    
+    @Override
+    public List<Game> findAllGameByPlatform(String platform) {
+        return gameService.findAllGameByPlatform(platform);
+    }
+    
+    @Override
+    public GamePage<Game> findAllGameByPlatform(String platform, String cursor, int size) {
+        return gameService.findAllGameByPlatform(platform, cursor, size);
+    }
+    
+    @Override
+    public GamePage<Game> lookupGames(GameIndex.Field field, GameIndex.Match match, String value,
+                                      String cursor, int size) {
+        return gameService.lookupGames(field, match, value, cursor, size);
+    }
+    
+    @Override
+    public List<SearchHit> searchGames(String query, int limit) {
+        return gameService.searchGames(query, limit);
+    }
+    
+    /**
+     * Tells how many games have a write that is not stored yet.
+     *
+     * @return the number of pending games
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+    
+    /**
+     * Stores every write acknowledged so far, waiting until they are committed.
+     *
+     * @throws IOException if the journal cannot be written
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws IOException, InterruptedException {
+        try {
+            flusher.submit(() -> {
+                drain();
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * Runs a set-based operation on the flusher thread once the pending writes are stored.
+     * No write is added meanwhile, and every stripe counts the operation as a stored write,
+     * so a write that read a game before it reads the game again.
+     */
+    private long exclusively(Callable<Long> operation) throws Exception {
+        try {
+            return flusher.submit(() -> {
+                lock.writeLock().lock();
+                try {
+                    drain();
+                    return operation.call();
+                } finally {
+                    for (int i = 0; i < GAME_LOCKS; i++) {
+                        storedWrites.incrementAndGet(i);
+                    }
+                    lock.writeLock().unlock();
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Stores the pending writes that waited for {@code max-delay}, or less if the flusher
+     * was busy.
+     */
+    @Scheduled(fixedDelayString = "${jatekbazar.write-behind.max-delay:PT0.1S}")
+    public void tick() {
+        if (!pending.isEmpty()) {
+            requestFlush();
+        }
+    }
+    
+    /**
+     * Adds a write of a game to the pending writes and to the journal, and waits until it
+     * is durable.
+     *
+     * <p>The stored game is read before any lock is taken. If a write of a game of the same
+     * stripe was stored meanwhile, the stored game may be older than that write, so it is
+     * read again.
+     *
+     * @param id the id of the game
+     * @param existing whether the game must exist; a new game has no stored state
+     * @param write computes the write from the latest state of the game
+     * @return the pending write
+     */
+    private PendingWrite enqueue(Long id, boolean existing, Write write)
+      throws GameNotFoundException, GameVersionMismatchException, WriteQueueFullException,
+               IOException, InterruptedException {
+        if (!pending.containsKey(id)) {
+            awaitSpace();
+        }
+        int stripe = stripe(id);
+        Lock gameLock = gameLocks[stripe];
+        PendingWrite accepted = null;
+        long position = 0;
+        while (accepted == null) {
+            long storedBefore = storedWrites.get(stripe);
+            Game stored = existing && !pending.containsKey(id) ? gameService.getGameById(id)
+                            : null;
+            gameLock.lock();
+            lock.readLock().lock();
+            try {
+                PendingWrite current = pending.get(id);
+                if (current != null || storedWrites.get(stripe) == storedBefore) {
+                    accepted = write.apply(current == null ? stored : latest(current));
+                    position = journal.append(accepted);
+                    pending.put(id, accepted);
+                }
+            } finally {
+                lock.readLock().unlock();
+                gameLock.unlock();
+            }
+        }
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+        journal.sync(position);
+        return accepted;
+    }
+    
+    private static int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), GAME_LOCKS);
+    }
+    
+    /**
+     * Returns the state of a game with a pending write.
+     */
+    private static Game latest(PendingWrite current) throws GameNotFoundException {
+        if (current.deleted()) {
+            throw new GameNotFoundException();
+        }
+        return current.game();
+    }
+    
+    private void awaitSpace() throws WriteQueueFullException, InterruptedException {
+        if (pending.size() < capacity) {
+            return;
+        }
+        requestFlush();
+        long remaining = maxWait.toNanos();
+        spaceLock.lockInterruptibly();
+        try {
+            while (pending.size() >= capacity) {
+                if (remaining <= 0) {
+                    throw new WriteQueueFullException(pending.size()
+                                                        + " games are waiting to be stored");
+                }
+                remaining = space.awaitNanos(remaining);
+            }
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+    
+    private long nextId() {
+        idLock.lock();
+        try {
+            if (nextId == idLimit) {
+                nextId = jdbcTemplate.queryForObject(NEXT_ID, Long.class);
+                idLimit = nextId + ID_BLOCK_SIZE;
+            }
+            return nextId++;
+        } finally {
+            idLock.unlock();
+        }
+    }
+    
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushRequested.set(false);
+                try {
+                    drain();
+                } catch (IOException | RuntimeException e) {
+                    LOG.warn("Could not store the pending writes, they are retried", e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Stores the writes pending when called, batch by batch, then deletes the journal
+     * segments holding them. Runs on the flusher thread, or before it is started.
+     */
+    private void drain() throws IOException {
+        List<PendingWrite> writes;
+        long keep;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            keep = journal.rotate();
+            writes = new ArrayList<>(pending.values());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (int from = 0; from < writes.size(); from += batchSize) {
+            store(writes.subList(from, Math.min(from + batchSize, writes.size())));
+        }
+        journal.deleteBefore(keep);
+    }
+    
+    /**
+     * Stores a batch in one transaction, notifies the listeners and removes the writes that
+     * were not replaced meanwhile from the pending ones.
+     */
+    private void store(List<PendingWrite> writes) {
+        Long[] ids = writes.stream().map(write -> write.game().getId()).toArray(Long[]::new);
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            Game game = write.game();
+            if (write.deleted()) {
+                deletes.add(new Object[] {game.getId()});
+            } else {
+                upserts.add(new Object[] {game.getId(), game.getName(), game.getPrice(),
+                  game.getDeveloper(), game.getPlatform(), game.getYearOfPublication(),
+                  game.getVersion()});
+            }
+        }
+        Map<Long, Game> previous = transactionOperations.execute(status -> {
+            Map<Long, Game> stored = jdbcTemplate.query(SELECT, GAME_ROW, (Object) ids)
+                                       .stream()
+                                       .collect(Collectors.toMap(Game::getId,
+                                         Function.identity()));
+            if (!upserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(MERGE, upserts);
+            }
+            if (!deletes.isEmpty()) {
+                jdbcTemplate.batchUpdate(DELETE, deletes);
+            }
+            return stored;
+        });
+        for (PendingWrite write : writes) {
+            Game before = previous.get(write.game().getId());
+            if (write.deleted()) {
+                if (before != null) {
+                    listeners.forEach(listener -> listener.gameDeleted(before));
+                }
+            } else if (before == null) {
+                listeners.forEach(listener -> listener.gameSaved(write.game()));
+            } else {
+                listeners.forEach(listener -> listener.gameUpdated(before, write.game()));
+            }
+            // after the listeners, so a read missing the pending write finds the stored one
+            if (pending.remove(write.game().getId(), write)) {
+                storedWrites.incrementAndGet(stripe(write.game().getId()));
+            }
+        }
+        spaceLock.lock();
+        try {
+            space.signalAll();
+        } finally {
+            spaceLock.unlock();
+        }
+    }
+    
+    /**
+     * Computes the write of a game from its latest state, null for a new game.
+     */
+    @FunctionalInterface
+    private interface Write {
+        PendingWrite apply(Game latest) throws GameVersionMismatchException;
+    }
+}
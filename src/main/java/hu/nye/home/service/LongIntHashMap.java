@@ -0,0 +1,159 @@
+package hu.nye.home.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to int values, avoiding the
+ * boxing of a {@code HashMap<Long, Integer>} on hot paths. Not thread-safe.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public final class LongIntHashMap {
+    
+    private static final long EMPTY = Long.MIN_VALUE;
+    
+    /**
+     * Receives the entries of the map.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        
+        void accept(long key, int value);
+    }
+    
+    private long[] keys;
+    
+    private int[] values;
+    
+    private int size;
+    
+    /**
+     * Constructs a map that holds the expected number of entries without resizing.
+     *
+     * @param expectedSize the expected number of entries
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+    
+    /**
+     * Returns the value of a key.
+     *
+     * @param key the key, must not be {@link Long#MIN_VALUE}
+     * @param defaultValue returned if the key is absent
+     * @return the value of the key or the default value
+     */
+    public int get(long key, int defaultValue) {
+        int slot = find(key);
+        return keys[slot] == EMPTY ? defaultValue : values[slot];
+    }
+    
+    /**
+     * Sets the value of a key.
+     *
+     * @param key the key, must not be {@link Long#MIN_VALUE}
+     * @param value the value
+     */
+    public void put(long key, int value) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            if (++size * 2 > keys.length) {
+                values[slot] = value;
+                resize();
+                return;
+            }
+        }
+        values[slot] = value;
+    }
+    
+    /**
+     * Adds to the value of a key, treating an absent key as zero.
+     *
+     * @param key the key, must not be {@link Long#MIN_VALUE}
+     * @param delta the amount to add
+     * @return the new value
+     */
+    public int addTo(long key, int delta) {
+        int value = get(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+    
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return true if the key was present
+     */
+    public boolean remove(long key) {
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            return false;
+        }
+        int mask = keys.length - 1;
+        // Backward-shift deletion keeps every probe chain free of holes.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = EMPTY;
+        size--;
+        return true;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Calls the consumer for every entry, in no particular order.
+     *
+     * @param consumer receives the entries
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+    
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+    
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
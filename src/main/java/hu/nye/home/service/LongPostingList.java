@@ -0,0 +1,99 @@
+package hu.nye.home.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Growable sorted set of primitive long ids, used as the posting list of an index key.
+ * Not thread-safe; callers synchronize.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+public final class LongPostingList {
+    
+    private long[] ids = new long[4];
+    
+    private int size;
+    
+    /**
+     * Adds an id, keeping the list sorted.
+     *
+     * @param id the id to add
+     * @return true if the id was not present yet
+     */
+    public boolean add(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+        System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+        ids[pos] = id;
+        size++;
+        return true;
+    }
+    
+    /**
+     * Removes an id.
+     *
+     * @param id the id to remove
+     * @return true if the id was present
+     */
+    public boolean remove(long id) {
+        int pos = Arrays.binarySearch(ids, 0, size, id);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+    
+    public boolean contains(long id) {
+        return Arrays.binarySearch(ids, 0, size, id) >= 0;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * Copies at most {@code limit} ids greater than {@code afterId}, in ascending order.
+     *
+     * @param afterId the exclusive lower bound
+     * @param limit the maximum number of ids
+     * @return the ids
+     */
+    public long[] after(long afterId, int limit) {
+        int from = Arrays.binarySearch(ids, 0, size, afterId);
+        from = from >= 0 ? from + 1 : -from - 1;
+        // from + limit overflows for Integer.MAX_VALUE, the limit of an unbounded copy
+        return Arrays.copyOfRange(ids, from, from + Math.min(limit, size - from));
+    }
+    
+    /**
+     * Calls the action for every id in ascending order, without copying the list.
+     *
+     * @param action receives the ids
+     */
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(ids[i]);
+        }
+    }
+    
+    /**
+     * Copies all ids in ascending order.
+     *
+     * @return the ids
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(ids, size);
+    }
+}
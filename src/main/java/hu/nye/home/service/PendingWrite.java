@@ -0,0 +1,13 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+
+/**
+ * A write accepted by {@link GameWriteBehindService} and not yet stored in the database:
+ * the latest state of a game, or its deletion.
+ *
+ * @param game the game with its new version, or with the id and last version if deleted
+ * @param deleted whether the game is deleted
+ */
+record PendingWrite(Game game, boolean deleted) {
+}
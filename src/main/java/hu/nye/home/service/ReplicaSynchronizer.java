@@ -0,0 +1,249 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.ChangePage;
+import hu.nye.home.exceptions.ChangesCompactedException;
+import hu.nye.home.model.GameChange;
+import hu.nye.home.repositories.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+/**
+ * Keeps the replicas of the {@code replicas} profile in sync with the primary.
+ *
+ * <p>A replica starts with a copy of the games, taken after reading the head of the change
+ * log; from then on it applies the log after the last change it applied. The changes of a
+ * page are coalesced by game and applied in one transaction. {@link GameCache} is never
+ * filled from a replica, so it needs no invalidation when a replica catches up.
+ *
+ * <p>A replica serves reads once it caught up with the head, and stops when it fails to
+ * apply the log; it is copied again when the log it needs was compacted away.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Service
+@Profile("replicas")
+public class ReplicaSynchronizer {
+    
+    static final String METRIC = "jatekbazar.replica";
+    
+    private static final Logger LOG = LoggerFactory.getLogger(ReplicaSynchronizer.class);
+    
+    /**
+     * The statements of the H2 script of the primary creating the games table and its
+     * indexes, but not the sequence and the change log trigger.
+     */
+    private static final Pattern SCHEMA = Pattern.compile(
+      "^(CREATE (MEMORY |CACHED )?TABLE|ALTER TABLE|CREATE (UNIQUE )?INDEX) .*",
+      Pattern.DOTALL);
+    
+    private static final String COLUMNS =
+      "id, name, price, developer, platform, year_of_publication, version";
+    
+    private static final String COPY = "select " + COLUMNS
+                                         + " from games where id > ? order by id limit ?";
+    
+    private static final String MERGE = "merge into games (" + COLUMNS + ") key (id)"
+                                          + " values (?, ?, ?, ?, ?, ?, ?)";
+    
+    private final GameChangeFeed changeFeed;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final ReplicaRoutingDataSource routingDataSource;
+    
+    private final CatalogVersion catalogVersion;
+    
+    private final List<Replica> replicas = new ArrayList<>();
+    
+    /**
+     * The catalog version every available replica has caught up with.
+     */
+    private volatile String replicatedEtag;
+    
+    /**
+     * Constructs a new ReplicaSynchronizer.
+     *
+     * @param changeFeed the change log the replicas apply
+     * @param jdbcTemplate reads the primary
+     * @param routingDataSource the replicas, told which of them may serve reads
+     * @param catalogVersion the version the replicas are compared with
+     * @param meterRegistry the registry the state of the replicas is published to
+     */
+    @Autowired
+    public ReplicaSynchronizer(GameChangeFeed changeFeed, JdbcTemplate jdbcTemplate,
+                               ReplicaRoutingDataSource routingDataSource,
+                               CatalogVersion catalogVersion, MeterRegistry meterRegistry) {
+        this.changeFeed = changeFeed;
+        this.jdbcTemplate = jdbcTemplate;
+        this.routingDataSource = routingDataSource;
+        this.catalogVersion = catalogVersion;
+        for (Map.Entry<String, DataSource> entry : routingDataSource.getReplicas().entrySet()) {
+            Replica replica = new Replica(entry.getKey(), entry.getValue());
+            replicas.add(replica);
+            Gauge.builder(METRIC + ".available", replica,
+                r -> routingDataSource.isAvailable(r.name) ? 1 : 0)
+              .description("Whether the replica serves reads")
+              .tag("replica", replica.name)
+              .register(meterRegistry);
+            Gauge.builder(METRIC + ".applied", replica, r -> r.applied)
+              .description("Sequence of the last change applied to the replica")
+              .tag("replica", replica.name)
+              .register(meterRegistry);
+        }
+    }
+    
+    /**
+     * Creates the games table of the replicas like the one of the primary, created by
+     * Hibernate before the change feed.
+     */
+    @PostConstruct
+    public void createSchema() {
+        List<String> schema = jdbcTemplate.queryForList("script nodata table games",
+                                String.class)
+                                .stream()
+                                .filter(statement -> SCHEMA.matcher(statement).matches())
+                                .toList();
+        for (Replica replica : replicas) {
+            replica.jdbcTemplate.execute("drop table if exists games cascade");
+            schema.forEach(replica.jdbcTemplate::execute);
+        }
+    }
+    
+    /**
+     * Applies the new changes to every replica, copying the replicas that have not been
+     * copied yet or are too far behind.
+     */
+    @Scheduled(fixedDelayString = "${jatekbazar.replicas.poll-interval:PT0.1S}")
+    public void synchronize() {
+        // read before the head: the writes counted in it are all in the log by then
+        String etag = catalogVersion.etag();
+        for (Replica replica : replicas) {
+            try {
+                if (replica.applied < 0) {
+                    copy(replica);
+                }
+                catchUp(replica);
+                routingDataSource.setAvailable(replica.name, true);
+            } catch (ChangesCompactedException e) {
+                LOG.info("The change log of replica {} was compacted, copying it again",
+                  replica.name);
+                routingDataSource.setAvailable(replica.name, false);
+                replica.applied = -1;
+            } catch (RuntimeException e) {
+                if (routingDataSource.isAvailable(replica.name)) {
+                    LOG.warn("Replica {} could not apply the change log, reads go elsewhere",
+                      replica.name, e);
+                }
+                routingDataSource.setAvailable(replica.name, false);
+            }
+        }
+        replicatedEtag = etag;
+    }
+    
+    /**
+     * Tells whether the available replicas have applied every write counted in the
+     * catalog version, so a list read from them is as new as its ETag.
+     *
+     * @return whether the replicas are up to date
+     */
+    public boolean isCurrent() {
+        return catalogVersion.etag().equals(replicatedEtag);
+    }
+    
+    private void copy(Replica replica) {
+        routingDataSource.setAvailable(replica.name, false);
+        long head = changeFeed.headSequence();
+        replica.jdbcTemplate.update("delete from games");
+        long afterId = 0;
+        int copied = 0;
+        List<Object[]> rows;
+        do {
+            rows = jdbcTemplate.query(COPY, (rs, row) -> new Object[] {
+                rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getString(4), rs.getString(5),
+                rs.getInt(6), rs.getLong(7)
+            }, afterId, GameChangeFeed.MAX_PAGE_SIZE);
+            if (!rows.isEmpty()) {
+                replica.jdbcTemplate.batchUpdate(MERGE, rows);
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                copied += rows.size();
+            }
+        } while (rows.size() == GameChangeFeed.MAX_PAGE_SIZE);
+        replica.applied = head;
+        LOG.info("Copied {} games to replica {}", copied, replica.name);
+    }
+    
+    private void catchUp(Replica replica) throws ChangesCompactedException {
+        ChangePage page;
+        do {
+            page = changeFeed.changesSince(replica.applied, GameChangeFeed.MAX_PAGE_SIZE);
+            Map<Long, GameChange> latest = new LinkedHashMap<>();
+            for (GameChange change : page.getChanges()) {
+                latest.put(change.getGameId(), change);
+            }
+            if (!latest.isEmpty()) {
+                replica.transactionTemplate.executeWithoutResult(status -> apply(replica,
+                  latest.values()));
+            }
+            replica.applied = page.getLastSequence();
+        } while (replica.applied < page.getHeadSequence());
+    }
+    
+    private static void apply(Replica replica, Iterable<GameChange> changes) {
+        List<Object[]> merged = new ArrayList<>();
+        List<Object[]> deleted = new ArrayList<>();
+        for (GameChange change : changes) {
+            if (change.getType() == GameChange.Type.DELETED) {
+                deleted.add(new Object[] {change.getGameId()});
+            } else {
+                merged.add(new Object[] {
+                    change.getGameId(), change.getName(), change.getPrice(),
+                    change.getDeveloper(), change.getPlatform(), change.getYearOfPublication(),
+                    change.getVersion()
+                });
+            }
+        }
+        if (!merged.isEmpty()) {
+            replica.jdbcTemplate.batchUpdate(MERGE, merged);
+        }
+        if (!deleted.isEmpty()) {
+            replica.jdbcTemplate.batchUpdate("delete from games where id = ?", deleted);
+        }
+    }
+    
+    /**
+     * A replica with the last change applied to it, -1 until it is copied.
+     */
+    private static final class Replica {
+    
+        private final String name;
+    
+        private final JdbcTemplate jdbcTemplate;
+    
+        private final TransactionTemplate transactionTemplate;
+    
+        private volatile long applied = -1;
+    
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate =
+              new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package hu.nye.home.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit of one route, adapted from the latency of its requests.
+ *
+ * <p>The limit follows the gradient between the latency of the route without load and
+ * its current latency, both smoothed over a few requests. Every completed request moves
+ * the limit a fifth of the way toward a target. While requests take at most
+ * {@value #TOLERANCE} times as long as without load, the target is the limit plus its
+ * square root. When they take longer, the target shrinks in proportion to the slowdown,
+ * down to half the limit. The limit is left alone while fewer than half of the slots are
+ * taken, since the latency then says nothing about it.
+ *
+ * <p>The latency without load is the lowest seen. It drifts up slowly while requests are
+ * slower, so a route whose work grows, e.g. with the catalog, gets a new baseline. Taking
+ * the lowest rather than an average keeps a limit that started under load from treating
+ * the overload as normal.
+ *
+ * <p>A request that finds every slot taken may wait in a bounded queue. The state is
+ * guarded by a {@link ReentrantLock} rather than a monitor, so a virtual thread waiting
+ * for a slot does not pin its carrier.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class RouteLimiter {
+    
+    /**
+     * How much slower than without load requests may get before the limit shrinks.
+     */
+    static final double TOLERANCE = 1.5;
+    
+    private static final double SMOOTHING = 0.2;
+    
+    private static final int SHORT_WINDOW = 10;
+    
+    private static final int LONG_WINDOW = 600;
+    
+    private final int minLimit;
+    
+    private final int maxLimit;
+    
+    private final int queueSize;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    private final Condition released = lock.newCondition();
+    
+    private double limit;
+    
+    private int inFlight;
+    
+    private int queued;
+    
+    private double latency;
+    
+    private double noLoadLatency;
+    
+    /**
+     * Constructs a new RouteLimiter.
+     *
+     * @param initialLimit the limit before any request completed
+     * @param minLimit the lowest the limit may shrink to
+     * @param maxLimit the highest the limit may grow to
+     * @param queueSize the number of requests that may wait for a slot
+     */
+    RouteLimiter(int initialLimit, int minLimit, int maxLimit, int queueSize) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueSize = queueSize;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+    
+    /**
+     * Takes a slot if one is free.
+     *
+     * @return whether a slot was taken
+     */
+    boolean tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight >= (int) limit) {
+                return false;
+            }
+            inFlight++;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Takes a slot, waiting in the queue for one to be freed.
+     *
+     * @param timeout how long to wait
+     * @param unit the unit of the timeout
+     * @return whether a slot was taken; false if the queue was full or the wait timed out
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (tryAcquire()) {
+                return true;
+            }
+            if (queued >= queueSize) {
+                return false;
+            }
+            long remaining = unit.toNanos(timeout);
+            queued++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Frees a slot and adapts the limit to the latency of the request that held it.
+     *
+     * @param latencyNanos how long the request took, without the wait for the slot
+     */
+    void release(long latencyNanos) {
+        lock.lock();
+        try {
+            if (noLoadLatency == 0) {
+                latency = latencyNanos;
+                noLoadLatency = latencyNanos;
+            }
+            latency += (latencyNanos - latency) / SHORT_WINDOW;
+            if (latency < noLoadLatency) {
+                noLoadLatency = latency;
+            } else {
+                noLoadLatency += (latency - noLoadLatency) / LONG_WINDOW;
+            }
+            if (inFlight >= limit / 2) {
+                double gradient = Math.max(0.5, Math.min(1.0,
+                  TOLERANCE * noLoadLatency / latency));
+                double target = limit * gradient + Math.sqrt(limit);
+                limit = Math.max(minLimit, Math.min(maxLimit,
+                  limit * (1 - SMOOTHING) + target * SMOOTHING));
+            }
+            inFlight--;
+            // the limit may have grown by more than the freed slot
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    int queued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
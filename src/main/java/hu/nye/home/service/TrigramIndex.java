@@ -0,0 +1,329 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.LongStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Typo-tolerant index over game names.
+ *
+ * <p>Every normalized word of a name is padded ({@code "  word "}) and cut into
+ * trigrams; each trigram maps to the posting list of the games containing it. A query
+ * is scored against every game sharing at least one trigram with it by the Jaccard
+ * similarity of the two trigram sets, so "minecarft" still finds "Minecraft".
+ *
+ * <p>Candidates are only collected from the rarest posting lists of the query (prefix
+ * filtering); the common lists are only checked for those candidates. Counts live in a
+ * reusable array indexed by dense game ordinals, and only the top results are kept in a
+ * bounded heap.
+ *
+ * <p>The count arrays are pooled rather than kept per thread: with virtual threads every
+ * request runs on a new thread, which would allocate an array the size of the catalog
+ * for every search.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+@Component
+public class TrigramIndex extends CatalogProjection<TrigramIndex.Grams> {
+    
+    public static final int MAX_RESULTS = 100;
+    
+    private static final Comparator<ScoredId> WORST_FIRST =
+      Comparator.comparingDouble(ScoredId::score)
+        .thenComparing(Comparator.comparingLong(ScoredId::id).reversed());
+    
+    private static final LongPostingList EMPTY = new LongPostingList();
+    
+    /**
+     * Rough cost of one binary search relative to scanning one posting.
+     */
+    private static final int BINARY_SEARCH_COST = 16;
+    
+    /**
+     * Count arrays kept between searches; more concurrent searches allocate their own.
+     */
+    private static final int SCRATCH_POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+    
+    private final BlockingQueue<Scratch> scratches = new ArrayBlockingQueue<>(SCRATCH_POOL_SIZE);
+    
+    private final double minSimilarity;
+    
+    /**
+     * Constructs a new TrigramIndex.
+     *
+     * @param gameRepository the repository the index is rebuilt from
+     * @param rebuildOnStartup whether to load the index when the application starts
+     * @param minSimilarity the lowest similarity a result may have
+     */
+    @Autowired
+    public TrigramIndex(GameRepositoryInterface gameRepository,
+                        @Value("${jatekbazar.index.rebuild-on-startup:true}")
+                        boolean rebuildOnStartup,
+                        @Value("${jatekbazar.search.min-similarity:0.3}")
+                        double minSimilarity) {
+        super(gameRepository, rebuildOnStartup);
+        this.minSimilarity = minSimilarity;
+    }
+    
+    /**
+     * An id with its similarity to the query.
+     *
+     * @param id the id of the game
+     * @param score the similarity
+     */
+    public record ScoredId(long id, double score) {
+    }
+    
+    @Override
+    protected Grams newGeneration() {
+        return new Grams();
+    }
+    
+    /**
+     * Only a change of the name changes the trigrams; other updates leave the index alone.
+     */
+    @Override
+    public void gameUpdated(Game previous, Game current) {
+        if (!Objects.equals(previous.getName(), current.getName())) {
+            super.gameUpdated(previous, current);
+        }
+    }
+    
+    @Override
+    protected void add(Grams grams, Game game) {
+        int existing = grams.ordinals.get(game.getId(), -1);
+        if (game.getName() == null || existing >= 0 && grams.sizes[existing] > 0) {
+            return;
+        }
+        long[] trigrams = trigrams(game.getName());
+        int ordinal = grams.assign(game.getId(), existing, trigrams.length);
+        for (long trigram : trigrams) {
+            grams.postings.computeIfAbsent(trigram, k -> new LongPostingList()).add(ordinal);
+        }
+    }
+    
+    @Override
+    protected void remove(Grams grams, Game game) {
+        int ordinal = grams.ordinals.get(game.getId(), -1);
+        if (game.getName() == null || ordinal < 0) {
+            return;
+        }
+        for (long trigram : trigrams(game.getName())) {
+            LongPostingList list = grams.postings.get(trigram);
+            if (list != null && list.remove(ordinal) && list.isEmpty()) {
+                grams.postings.remove(trigram);
+            }
+        }
+        // the id keeps its ordinal, reused when the game is added again by an update
+        grams.sizes[ordinal] = 0;
+    }
+    
+    /**
+     * Tells how many ordinals the current generation has handed out.
+     *
+     * @return the number of ordinals, including those of deleted games
+     */
+    int ordinalCount() {
+        return read(grams -> grams.next);
+    }
+    
+    /**
+     * Tells how many count arrays are kept for the next searches.
+     *
+     * @return the number of pooled count arrays
+     */
+    int pooledScratches() {
+        return scratches.size();
+    }
+    
+    /**
+     * Finds the games whose name is most similar to the query.
+     *
+     * @param query the searched name, possibly misspelled
+     * @param limit the maximum number of results
+     * @return the best matches, most similar first
+     */
+    public List<ScoredId> search(String query, int limit) {
+        long[] queryGrams = trigrams(query);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        return read(grams -> {
+            LongPostingList[] lists = new LongPostingList[queryGrams.length];
+            for (int i = 0; i < queryGrams.length; i++) {
+                lists[i] = grams.postings.getOrDefault(queryGrams[i], EMPTY);
+            }
+            Arrays.sort(lists, Comparator.comparingInt(LongPostingList::size));
+            // A name reaching minSimilarity shares at least `required` trigrams with the
+            // query, so it must occur in one of the (length - required + 1) rarest lists.
+            int required = Math.max(1, (int) Math.ceil(minSimilarity * queryGrams.length));
+            int probed = queryGrams.length - required + 1;
+            Scratch scratch = borrowScratch(grams.next);
+            List<ScoredId> result = rank(grams, lists, probed, scratch, queryGrams.length, limit);
+            // only a search that completed has reset the counts it touched
+            scratches.offer(scratch);
+            return result;
+        });
+    }
+    
+    private Scratch borrowScratch(int ordinals) {
+        Scratch scratch = scratches.poll();
+        return (scratch == null ? new Scratch() : scratch).prepare(ordinals);
+    }
+    
+    private List<ScoredId> rank(Grams grams, LongPostingList[] lists, int probed,
+                                Scratch scratch, int queryLength, int limit) {
+        for (int i = 0; i < probed; i++) {
+            lists[i].forEach(scratch::collect);
+        }
+        for (int i = probed; i < lists.length; i++) {
+            scratch.confirm(lists[i]);
+        }
+        PriorityQueue<ScoredId> best = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        for (int i = 0; i < scratch.candidates; i++) {
+            int ordinal = scratch.touched[i];
+            int common = scratch.counts[ordinal];
+            scratch.counts[ordinal] = 0;
+            if (grams.sizes[ordinal] == 0) {
+                // left behind by a change replayed after a rebuild
+                continue;
+            }
+            double score = (double) common / (queryLength + grams.sizes[ordinal] - common);
+            if (score >= minSimilarity) {
+                best.add(new ScoredId(grams.ids[ordinal], score));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+        List<ScoredId> result = new ArrayList<>(best);
+        result.sort(WORST_FIRST.reversed());
+        return result;
+    }
+    
+    /**
+     * Cuts the normalized words of a value into distinct packed trigrams. The characters
+     * are packed 21 bits apart: {@link Long#hashCode()} folds the upper half of the key
+     * onto the lower one, which with 16-bit slots mapped most trigrams of an alphabet onto
+     * a few hundred hash codes.
+     *
+     * @param value the raw value
+     * @return the trigrams, three 16-bit characters packed into each long
+     */
+    static long[] trigrams(String value) {
+        LongStream.Builder builder = LongStream.builder();
+        for (String token : GameIndex.tokenize(value)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                builder.add(((long) padded.charAt(i) << 42)
+                              | ((long) padded.charAt(i + 1) << 21)
+                              | padded.charAt(i + 2));
+            }
+        }
+        return builder.build().distinct().toArray();
+    }
+    
+    /**
+     * One complete generation of the index. Games are numbered with dense ordinals so
+     * that a query can count shared trigrams in a plain array instead of a hash map.
+     *
+     * <p>A game keeps its ordinal when it is removed, so that an update, which removes and
+     * adds it again, does not take a new one. Only the ordinals of deleted games stay
+     * unused, until the next rebuild.
+     */
+    static final class Grams {
+        
+        /**
+         * Posting lists of game ordinals, keyed by packed trigram.
+         */
+        private final Map<Long, LongPostingList> postings = new HashMap<>();
+        
+        private final LongIntHashMap ordinals = new LongIntHashMap(1024);
+        
+        private long[] ids = new long[1024];
+        
+        /**
+         * Number of distinct trigrams of the name behind each ordinal, 0 once removed.
+         */
+        private int[] sizes = new int[1024];
+        
+        private int next;
+        
+        private int assign(long id, int existing, int trigramCount) {
+            if (existing >= 0) {
+                sizes[existing] = trigramCount;
+                return existing;
+            }
+            if (next == ids.length) {
+                ids = Arrays.copyOf(ids, next * 2);
+                sizes = Arrays.copyOf(sizes, next * 2);
+            }
+            ids[next] = id;
+            sizes[next] = trigramCount;
+            ordinals.put(id, next);
+            return next++;
+        }
+    }
+    
+    /**
+     * Per-thread counters reused across queries; only touched slots are reset.
+     */
+    private static final class Scratch {
+        
+        private int[] counts = new int[0];
+        
+        private int[] touched = new int[256];
+        
+        private int candidates;
+        
+        private Scratch prepare(int ordinals) {
+            if (counts.length < ordinals) {
+                counts = new int[ordinals];
+            }
+            candidates = 0;
+            return this;
+        }
+        
+        private void collect(long ordinal) {
+            if (counts[(int) ordinal]++ == 0) {
+                if (candidates == touched.length) {
+                    touched = Arrays.copyOf(touched, candidates * 2);
+                }
+                touched[candidates++] = (int) ordinal;
+            }
+        }
+        
+        /**
+         * Counts the list for the collected candidates only: by binary search when there
+         * are few of them, otherwise by one sequential pass over the list.
+         */
+        private void confirm(LongPostingList list) {
+            if ((long) candidates * BINARY_SEARCH_COST < list.size()) {
+                for (int i = 0; i < candidates; i++) {
+                    if (list.contains(touched[i])) {
+                        counts[touched[i]]++;
+                    }
+                }
+            } else {
+                list.forEach(ordinal -> {
+                    if (counts[(int) ordinal] != 0) {
+                        counts[(int) ordinal]++;
+                    }
+                });
+            }
+        }
+    }
+}
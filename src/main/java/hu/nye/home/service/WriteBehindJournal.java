@@ -0,0 +1,328 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Append-only journal of the writes accepted by {@link GameWriteBehindService} and not yet
+ * stored in the database.
+ *
+ * <p>Appending only copies the record into a buffer. {@link #sync(long)} writes the buffer
+ * and forces it to the disk; the writers that appended while a force was running are made
+ * durable together by the next one, so a burst of writes costs a few forces, not one each.
+ *
+ * <p>The journal is split into numbered segments. {@link #rotate()} starts a new one
+ * before the pending writes are stored, and the older segments are deleted once they
+ * are. Every record is framed with its length and CRC-32; a torn record at the end of a
+ * segment, left by a crash during a write, ends the segment when it is read back.
+ *
+ * <p>The buffer and the file are guarded by {@link ReentrantLock}s rather than monitors, so
+ * a virtual thread forcing the file does not pin its carrier.
+ */
+@SuppressWarnings("checkstyle:Indentation")
+final class WriteBehindJournal implements Closeable {
+    
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindJournal.class);
+    
+    private static final String SUFFIX = ".journal";
+    
+    private static final byte UPSERT = 0;
+    
+    private static final byte DELETE = 1;
+    
+    private final Path directory;
+    
+    /**
+     * The segment the journal was opened with; the ones before it are read back.
+     */
+    private final long firstSegment;
+    
+    private final Lock appendLock = new ReentrantLock();
+    
+    private final Lock syncLock = new ReentrantLock();
+    
+    /**
+     * The records appended but not written yet, guarded by {@link #appendLock}.
+     */
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    
+    /**
+     * The number of bytes appended since the journal was opened, across the segments.
+     */
+    private long appended;
+    
+    private volatile long synced;
+    
+    /**
+     * The segment written to, guarded by {@link #syncLock}.
+     */
+    private long segment;
+    
+    private FileChannel channel;
+    
+    /**
+     * Opens the journal in a directory, creating it if needed. The existing segments are
+     * kept for {@link #read()}; the records appended go to a new segment.
+     *
+     * @param directory the directory of the segments
+     * @throws IOException if the directory or the new segment cannot be created
+     */
+    WriteBehindJournal(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.firstSegment = segments().stream().mapToLong(WriteBehindJournal::number).max()
+                              .orElse(0) + 1;
+        this.segment = firstSegment;
+        this.channel = open(segment);
+    }
+    
+    /**
+     * Appends a write to the buffer.
+     *
+     * @param write the write to append
+     * @return the position to pass to {@link #sync(long)} to make the write durable
+     */
+    long append(PendingWrite write) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(payload)) {
+            Game game = write.game();
+            out.writeByte(write.deleted() ? DELETE : UPSERT);
+            out.writeLong(game.getId());
+            out.writeLong(game.getVersion());
+            if (!write.deleted()) {
+                writeString(out, game.getName());
+                out.writeInt(game.getPrice());
+                writeString(out, game.getDeveloper());
+                writeString(out, game.getPlatform());
+                out.writeInt(game.getYearOfPublication());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int checksum = checksum(payload.toByteArray());
+        appendLock.lock();
+        try {
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeInt(payload.size());
+            out.writeInt(checksum);
+            payload.writeTo(out);
+            appended += Integer.BYTES * 2 + payload.size();
+            return appended;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    /**
+     * Makes the records appended up to a position durable, along with whatever was
+     * appended meanwhile.
+     *
+     * @param position the position returned by {@link #append(PendingWrite)}
+     * @throws IOException if the records cannot be written or forced
+     */
+    void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (synced < position) {
+                writeBuffer();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+    
+    /**
+     * Makes every appended record durable and starts a new segment.
+     *
+     * @return the number of the new segment; the ones before it hold only records
+     *         appended before the call
+     * @throws IOException if the records cannot be written or the segment created
+     */
+    long rotate() throws IOException {
+        syncLock.lock();
+        try {
+            writeBuffer();
+            channel.close();
+            segment++;
+            channel = open(segment);
+            return segment;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+    
+    /**
+     * Deletes the segments before a segment.
+     *
+     * @param keep the first segment to keep, as returned by {@link #rotate()}
+     * @throws IOException if a segment cannot be deleted
+     */
+    void deleteBefore(long keep) throws IOException {
+        for (Path path : segments()) {
+            if (number(path) < keep) {
+                Files.delete(path);
+            }
+        }
+    }
+    
+    /**
+     * Reads back the records of the segments that existed when the journal was opened,
+     * oldest first.
+     *
+     * @return the writes in the order they were appended
+     * @throws IOException if a segment cannot be read
+     */
+    List<PendingWrite> read() throws IOException {
+        List<PendingWrite> writes = new ArrayList<>();
+        for (Path path : segments()) {
+            if (number(path) < firstSegment) {
+                readSegment(path, writes);
+            }
+        }
+        return writes;
+    }
+    
+    /**
+     * Deletes the segments read back by {@link #read()}, once their writes are stored.
+     *
+     * @throws IOException if a segment cannot be deleted
+     */
+    void discardRead() throws IOException {
+        deleteBefore(firstSegment);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            writeBuffer();
+            channel.close();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+    
+    /**
+     * Writes the buffer to the segment and forces it, holding {@link #syncLock}.
+     */
+    private void writeBuffer() throws IOException {
+        byte[] bytes;
+        long position;
+        appendLock.lock();
+        try {
+            bytes = buffer.toByteArray();
+            position = appended;
+            buffer = new ByteArrayOutputStream(Math.max(32, bytes.length));
+        } finally {
+            appendLock.unlock();
+        }
+        ByteBuffer data = ByteBuffer.wrap(bytes);
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+        channel.force(false);
+        synced = position;
+    }
+    
+    private static void readSegment(Path path, List<PendingWrite> writes) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte[] payload;
+                try {
+                    int checksum = in.readInt();
+                    payload = in.readNBytes(Math.max(0, length));
+                    if (length < 0 || payload.length < length || checksum(payload) != checksum) {
+                        throw new EOFException();
+                    }
+                } catch (EOFException e) {
+                    LOG.warn("Ignoring the torn end of the write-behind journal segment {}", path);
+                    return;
+                }
+                writes.add(decode(payload));
+            }
+        }
+    }
+    
+    private static PendingWrite decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            boolean deleted = in.readByte() == DELETE;
+            Game game = new Game();
+            game.setId(in.readLong());
+            game.setVersion(in.readLong());
+            if (!deleted) {
+                game.setName(readString(in));
+                game.setPrice(in.readInt());
+                game.setDeveloper(readString(in));
+                game.setPlatform(readString(in));
+                game.setYearOfPublication(in.readInt());
+            }
+            return new PendingWrite(game, deleted);
+        }
+    }
+    
+    private static int checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+    
+    private FileChannel open(long number) throws IOException {
+        return FileChannel.open(directory.resolve(String.format("%020d%s", number, SUFFIX)),
+          StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SUFFIX))
+                     .sorted()
+                     .toList();
+        }
+    }
+    
+    private static long number(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
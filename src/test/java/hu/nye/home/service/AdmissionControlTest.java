@@ -0,0 +1,112 @@
+package hu.nye.home.service;
+
+import hu.nye.home.exceptions.RouteOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+    
+    private static final String BY_ID = "GET /games/{id}";
+    
+    private static final String BY_DEVELOPER = "GET /games/developer/{developer}";
+    
+    private MeterRegistry meterRegistry;
+    
+    private AdmissionControl admissionControl;
+    
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        admissionControl = new AdmissionControl(meterRegistry, 1, 1, 1, 1,
+          Duration.ofSeconds(10));
+    }
+    
+    private double gauge(String name, String route) {
+        return meterRegistry.get(AdmissionControl.METRIC + name).tag("route", route).gauge()
+                 .value();
+    }
+    
+    private double shed(String route, String reason) {
+        return meterRegistry.get(AdmissionControl.METRIC + ".shed").tag("route", route)
+                 .tag("reason", reason).counter().count();
+    }
+    
+    @Test
+    public void testAdmit_RoutesHaveTheirOwnLimits() throws Exception {
+        AdmissionControl.Permit scan = admissionControl.admit(BY_DEVELOPER,
+          AdmissionControl.Priority.SCAN);
+        
+        AdmissionControl.Permit read = admissionControl.admit(BY_ID,
+          AdmissionControl.Priority.READ);
+        
+        assertEquals(1, gauge(".in-flight", BY_DEVELOPER));
+        assertEquals(1, gauge(".in-flight", BY_ID));
+        assertEquals(1, gauge(".limit", BY_ID));
+        scan.release();
+        read.release();
+        assertEquals(0, gauge(".in-flight", BY_ID));
+    }
+    
+    @Test
+    public void testAdmit_FullScanRouteIsShed() throws Exception {
+        admissionControl.admit(BY_DEVELOPER, AdmissionControl.Priority.SCAN);
+        
+        assertThrows(RouteOverloadedException.class,
+          () -> admissionControl.admit(BY_DEVELOPER, AdmissionControl.Priority.SCAN));
+        assertEquals(1, shed(BY_DEVELOPER, "limit"));
+    }
+    
+    @Test
+    public void testAdmit_ReadWaitsForASlotAndHoldsBackScans() throws Exception {
+        AdmissionControl.Permit first = admissionControl.admit(BY_ID,
+          AdmissionControl.Priority.READ);
+        CompletableFuture<AdmissionControl.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return admissionControl.admit(BY_ID, AdmissionControl.Priority.READ);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (gauge(".queued", BY_ID) == 0) {
+            Thread.onSpinWait();
+        }
+        
+        assertThrows(RouteOverloadedException.class,
+          () -> admissionControl.admit(BY_DEVELOPER, AdmissionControl.Priority.SCAN));
+        assertEquals(1, shed(BY_DEVELOPER, "priority"));
+        
+        first.release();
+        waiting.get(10, TimeUnit.SECONDS).release();
+        admissionControl.admit(BY_DEVELOPER, AdmissionControl.Priority.SCAN).release();
+    }
+    
+    @Test
+    public void testAdmit_WriteIsShedWhenTheQueueIsFull() throws Exception {
+        admissionControl = new AdmissionControl(meterRegistry, 1, 1, 1, 0, Duration.ZERO);
+        admissionControl.admit("POST /games", AdmissionControl.Priority.WRITE);
+        
+        assertThrows(RouteOverloadedException.class,
+          () -> admissionControl.admit("POST /games", AdmissionControl.Priority.WRITE));
+        assertEquals(1, shed("POST /games", "queue"));
+    }
+    
+    @Test
+    public void testAdmit_ReadIsShedWhenTheWaitTimesOut() throws Exception {
+        admissionControl = new AdmissionControl(meterRegistry, 1, 1, 1, 1,
+          Duration.ofMillis(10));
+        admissionControl.admit(BY_ID, AdmissionControl.Priority.READ);
+        
+        assertThrows(RouteOverloadedException.class,
+          () -> admissionControl.admit(BY_ID, AdmissionControl.Priority.READ));
+        assertEquals(1, shed(BY_ID, "queue"));
+        // the read gave up, so scans are admitted again
+        admissionControl.admit(BY_DEVELOPER, AdmissionControl.Priority.SCAN);
+    }
+}
@@ -0,0 +1,93 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.CatalogStatistics;
+import hu.nye.home.dto.FacetBucket;
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import static hu.nye.home.service.CatalogAggregates.Facet.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogAggregatesTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    private CatalogAggregates aggregates;
+
+    private final Game zelda = new Game(1L, "Zelda", 60, "Nintendo", "Switch", 2017);
+    private final Game mario = new Game(2L, "Mario", 40, "Nintendo", "Switch", 2017);
+    private final Game halo = new Game(3L, "Halo", 20, "Bungie", "Xbox", 2001);
+
+    @BeforeEach
+    public void setUp() {
+        aggregates = new CatalogAggregates(gameRepository, false);
+        aggregates.gameSaved(zelda);
+        aggregates.gameSaved(mario);
+        aggregates.gameSaved(halo);
+    }
+
+    @Test
+    public void testStatistics_CountsAndPriceRanges() {
+        CatalogStatistics statistics = aggregates.statistics();
+
+        assertEquals(3, statistics.getTotalGames());
+        assertEquals(List.of(new FacetBucket("Switch", 2, 40, 60, 50.0),
+          new FacetBucket("Xbox", 1, 20, 20, 20.0)), statistics.getPlatforms());
+        assertEquals(List.of("Bungie", "Nintendo"),
+          statistics.getDevelopers().stream().map(FacetBucket::getValue).toList());
+        assertEquals(List.of("2001", "2017"),
+          statistics.getYears().stream().map(FacetBucket::getValue).toList());
+    }
+
+    @Test
+    public void testFacet_MostGamesFirstAndLimited() {
+        assertEquals(List.of("Nintendo"),
+          aggregates.facet(DEVELOPER, 1).stream().map(FacetBucket::getValue).toList());
+        assertEquals(List.of("2017", "2001"),
+          aggregates.facet(YEAR, 5).stream().map(FacetBucket::getValue).toList());
+        assertEquals(2, aggregates.facet(PLATFORM, 5).get(0).getCount());
+        assertTrue(aggregates.facet(PLATFORM, -1).isEmpty());
+    }
+
+    @Test
+    public void testUpdateAndDelete_KeepExtremesExact() {
+        aggregates.gameUpdated(zelda, zelda.toBuilder().price(30).build());
+        aggregates.gameDeleted(mario);
+        aggregates.gameDeleted(mario);
+        aggregates.gameDeleted(halo);
+
+        assertEquals(List.of(new FacetBucket("Switch", 1, 30, 30, 30.0)),
+          aggregates.statistics().getPlatforms());
+        assertEquals(1, aggregates.statistics().getTotalGames());
+    }
+
+    @Test
+    public void testGameSaved_ReplayedAfterRebuildCountsOnce() {
+        aggregates.gameSaved(zelda);
+        aggregates.gameSaved(Game.builder().id(4L).name("Unknown").build());
+
+        CatalogStatistics statistics = aggregates.statistics();
+
+        assertEquals(4, statistics.getTotalGames());
+        assertEquals(2, aggregates.facet(PLATFORM, 1).get(0).getCount());
+        assertEquals("", statistics.getPlatforms().get(0).getValue());
+    }
+
+    @Test
+    public void testReconcile_ReportsDrift() {
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(CatalogProjection.REBUILD_PAGE_SIZE))).thenReturn(List.of(zelda, mario));
+
+        assertTrue(aggregates.reconcile());
+        assertEquals(2, aggregates.statistics().getTotalGames());
+        assertFalse(aggregates.reconcile());
+    }
+}
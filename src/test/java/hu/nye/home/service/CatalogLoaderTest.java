@@ -0,0 +1,108 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+
+import static hu.nye.home.service.GameIndex.Field.*;
+import static hu.nye.home.service.GameIndex.Match.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogLoaderTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    @Mock
+    private ExecutorService reloader;
+    
+    private Runnable scheduledReload() {
+        ArgumentCaptor<Runnable> reload = ArgumentCaptor.forClass(Runnable.class);
+        verify(reloader).execute(reload.capture());
+        return reload.getValue();
+    }
+    
+    @Test
+    public void testLoadOnStartup_ScansOnceForAllProjections() {
+        GameIndex index = new GameIndex(gameRepository, true);
+        CatalogAggregates aggregates = new CatalogAggregates(gameRepository, true);
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(CatalogProjection.REBUILD_PAGE_SIZE)))
+          .thenReturn(List.of(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011),
+            new Game(2L, "Tetris", 50, "Pajitnov", "Game Boy", 1989)));
+        
+        new CatalogLoader(gameRepository, List.of(index, aggregates)).loadOnStartup();
+        
+        assertArrayEquals(new long[] {2}, index.find(NAME, EXACT, "Tetris", 0, 10));
+        assertEquals(2, aggregates.statistics().getTotalGames());
+        verify(gameRepository, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(),
+          any(Limit.class));
+    }
+    
+    @Test
+    public void testLoadOnStartup_SkipsDisabledProjections() {
+        GameIndex index = new GameIndex(gameRepository, true);
+        TrigramIndex disabled = new TrigramIndex(gameRepository, false, 0.3);
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(CatalogProjection.REBUILD_PAGE_SIZE)))
+          .thenReturn(List.of(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011)));
+        
+        new CatalogLoader(gameRepository, List.of(index, disabled)).loadOnStartup();
+        
+        assertArrayEquals(new long[] {1}, index.find(NAME, EXACT, "Minecraft", 0, 10));
+        assertTrue(disabled.search("Minecraft", 10).isEmpty());
+    }
+    
+    @Test
+    public void testCatalogChanged_ReloadsAllProjectionsWithOneScanInTheBackground() {
+        GameIndex index = new GameIndex(gameRepository, true);
+        TrigramIndex trigrams = new TrigramIndex(gameRepository, false, 0.3);
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(CatalogProjection.REBUILD_PAGE_SIZE)))
+          .thenReturn(List.of(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011)));
+        CatalogLoader loader = new CatalogLoader(gameRepository, List.of(index, trigrams),
+          reloader);
+        
+        loader.catalogChanged();
+        loader.catalogChanged();
+        
+        verifyNoInteractions(gameRepository);
+        scheduledReload().run();
+        assertArrayEquals(new long[] {1}, index.find(NAME, EXACT, "Minecraft", 0, 10));
+        assertEquals(1, trigrams.search("Minecraft", 10).size());
+        verify(gameRepository, times(1)).findByIdGreaterThanOrderByIdAsc(anyLong(),
+          any(Limit.class));
+        loader.catalogChanged();
+        verify(reloader, times(2)).execute(any());
+    }
+    
+    @Test
+    public void testCatalogChanged_FailedReloadKeepsTheProjections() {
+        GameIndex index = new GameIndex(gameRepository, true);
+        index.gameSaved(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011));
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(CatalogProjection.REBUILD_PAGE_SIZE)))
+          .thenThrow(new DataAccessResourceFailureException("down"));
+        CatalogLoader loader = new CatalogLoader(gameRepository, List.of(index), reloader);
+        
+        loader.catalogChanged();
+        
+        assertDoesNotThrow(scheduledReload()::run);
+        assertArrayEquals(new long[] {1}, index.find(NAME, EXACT, "Minecraft", 0, 10));
+    }
+    
+    @Test
+    public void testShutdown_StopsTheReloads() {
+        new CatalogLoader(gameRepository, List.of(), reloader).shutdown();
+        
+        verify(reloader).shutdownNow();
+    }
+}
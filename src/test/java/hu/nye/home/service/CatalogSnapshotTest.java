@@ -0,0 +1,144 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.DeveloperTitles;
+import hu.nye.home.dto.PricePercentiles;
+import hu.nye.home.dto.SnapshotInfo;
+import hu.nye.home.repositories.GameColumns;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    private CatalogSnapshot snapshot;
+    
+    private static final Limit PAGE = Limit.of(CatalogSnapshot.REFRESH_PAGE_SIZE);
+    
+    @BeforeEach
+    public void setUp() {
+        // three chunks of two rows, so the scans merge the counts of several chunks
+        snapshot = new CatalogSnapshot(gameRepository, 3, 2);
+    }
+    
+    private void load(GameColumns... rows) {
+        when(gameRepository.findColumnsByIdGreaterThan(0L, PAGE)).thenReturn(List.of(rows));
+        snapshot.refresh();
+    }
+    
+    private void loadCatalog() {
+        load(new GameColumns(1L, 30, 2017, "Nintendo", "Switch"),
+          new GameColumns(2L, 5, 2001, "Bungie", "Xbox"),
+          new GameColumns(3L, 10, 2017, "Nintendo", "Switch"),
+          new GameColumns(4L, 50, 2019, "Nintendo", "Switch"),
+          new GameColumns(5L, 20, 2005, "Bungie", "Switch"),
+          new GameColumns(6L, 40, 2019, "Nintendo", "Switch"));
+    }
+    
+    private static Map<String, Integer> percentiles(Object... entries) {
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            percentiles.put((String) entries[i], (Integer) entries[i + 1]);
+        }
+        return percentiles;
+    }
+    
+    @Test
+    public void testQueries_EmptyBeforeTheFirstRefresh() {
+        assertEquals(new SnapshotInfo(0, 0, 0, null, 0), snapshot.info());
+        assertTrue(snapshot.pricePercentiles(List.of(50), null, null).isEmpty());
+        assertTrue(snapshot.titlesPerYear(null, 10).isEmpty());
+    }
+    
+    @Test
+    public void testPricePercentiles_NearestRankPerPlatform() {
+        loadCatalog();
+        
+        assertEquals(List.of(
+          new PricePercentiles("Switch", 5, 10, 50,
+            percentiles("p50", 30, "p90", 50, "p100", 50, "p0", 10)),
+          new PricePercentiles("Xbox", 1, 5, 5,
+            percentiles("p50", 5, "p90", 5, "p100", 5, "p0", 5))),
+          snapshot.pricePercentiles(List.of(50, 90, 100, -5), null, null));
+    }
+    
+    @Test
+    public void testPricePercentiles_YearRange() {
+        loadCatalog();
+        
+        assertEquals(List.of(new PricePercentiles("Switch", 2, 40, 50,
+            percentiles("p50", 40))),
+          snapshot.pricePercentiles(List.of(50), 2018, null));
+        assertEquals(List.of("Switch", "Xbox"),
+          snapshot.pricePercentiles(List.of(50), null, 2005).stream()
+            .map(PricePercentiles::getPlatform).toList());
+        assertTrue(snapshot.pricePercentiles(List.of(50), 2020, 2030).isEmpty());
+    }
+    
+    @Test
+    public void testTitlesPerYear_MostTitlesFirst() {
+        loadCatalog();
+        
+        assertEquals(List.of(
+            new DeveloperTitles("Nintendo", 4, Map.of(2017, 2, 2019, 2)),
+            new DeveloperTitles("Bungie", 2, Map.of(2001, 1, 2005, 1))),
+          snapshot.titlesPerYear(null, 10));
+        assertEquals(List.of("Nintendo"), snapshot.titlesPerYear(null, 1).stream()
+                                            .map(DeveloperTitles::getDeveloper).toList());
+        assertEquals(List.of(2001, 2005),
+          new ArrayList<>(snapshot.titlesPerYear(null, 10).get(1).getPerYear().keySet()));
+    }
+    
+    @Test
+    public void testTitlesPerYear_OneDeveloper() {
+        loadCatalog();
+        
+        assertEquals(List.of(new DeveloperTitles("Bungie", 2, Map.of(2001, 1, 2005, 1))),
+          snapshot.titlesPerYear("Bungie", 10));
+        assertTrue(snapshot.titlesPerYear("Unknown", 10).isEmpty());
+    }
+    
+    @Test
+    public void testRefresh_ReadsEveryPageAndEncodesMissingValues() {
+        List<GameColumns> first = LongStream.rangeClosed(1, CatalogSnapshot.REFRESH_PAGE_SIZE)
+                                    .mapToObj(id -> new GameColumns(id, 10, 2000, "Dev", "PC"))
+                                    .toList();
+        when(gameRepository.findColumnsByIdGreaterThan(0L, PAGE)).thenReturn(first);
+        when(gameRepository.findColumnsByIdGreaterThan((long) CatalogSnapshot.REFRESH_PAGE_SIZE,
+          PAGE)).thenReturn(List.of(new GameColumns(20_000L, 20, 2001, null, null)));
+        
+        snapshot.refresh();
+        
+        SnapshotInfo info = snapshot.info();
+        assertEquals(CatalogSnapshot.REFRESH_PAGE_SIZE + 1, info.getGames());
+        assertEquals(2, info.getPlatforms());
+        assertEquals(2, info.getDevelopers());
+        assertNotNull(info.getRefreshedAt());
+        assertEquals("", snapshot.pricePercentiles(List.of(50), 2001, 2001).get(0).getPlatform());
+    }
+    
+    @Test
+    public void testRefresh_FailureKeepsThePreviousSnapshot() {
+        loadCatalog();
+        when(gameRepository.findColumnsByIdGreaterThan(0L, PAGE))
+          .thenThrow(new DataAccessResourceFailureException("down"));
+        
+        assertThrows(DataAccessResourceFailureException.class, () -> snapshot.refresh());
+        
+        assertEquals(6, snapshot.info().getGames());
+    }
+}
@@ -0,0 +1,36 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogVersionTest {
+    private final Game game = new Game(1L, "Zelda", 60, "Nintendo", "Switch", 2017);
+
+    @Test
+    public void testEtag_StableUntilTheCatalogChanges() {
+        CatalogVersion version = new CatalogVersion(36L);
+        
+        assertEquals("\"10-0\"", version.etag());
+        assertEquals(version.etag(), version.etag());
+    }
+
+    @Test
+    public void testEtag_ChangesWithEveryWrite() {
+        CatalogVersion version = new CatalogVersion(36L);
+        
+        version.gameSaved(game);
+        version.gameUpdated(game, game);
+        version.gameDeleted(game);
+        version.catalogChanged();
+        
+        assertEquals("\"10-4\"", version.etag());
+    }
+
+    @Test
+    public void testEtag_DiffersAcrossRestarts() {
+        assertNotEquals(new CatalogVersion(1L).etag(), new CatalogVersion(2L).etag());
+        assertTrue(new CatalogVersion().etag().endsWith("-0\""));
+    }
+}
@@ -0,0 +1,55 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.CacheStatistics;
+import hu.nye.home.model.Game;
+import java.time.Duration;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCacheTest {
+    
+    private static final Function<Long, Game> LOADER = id -> Game.builder().id(id).build();
+    
+    @Test
+    public void testGet_LoadsOnceThenHits() {
+        GameCache cache = new GameCache(10, Duration.ofMinutes(1));
+        
+        Game first = cache.get(1L, LOADER);
+        Game second = cache.get(1L, LOADER);
+        
+        assertSame(first, second);
+        CacheStatistics stats = cache.statistics();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(10, stats.getCapacity());
+        assertEquals(0.5, stats.getHitRate());
+    }
+    
+    @Test
+    public void testGet_EvictsBeyondCapacity() {
+        GameCache cache = new GameCache(2, Duration.ofMinutes(1));
+        
+        for (long id = 1; id <= 10; id++) {
+            cache.get(id, LOADER);
+        }
+        cache.cleanUp();
+        
+        assertTrue(cache.statistics().getSize() <= 2);
+        assertTrue(cache.statistics().getEvictions() >= 8);
+    }
+    
+    @Test
+    public void testInvalidate() {
+        GameCache cache = new GameCache(10, Duration.ofMinutes(1));
+        cache.get(1L, LOADER);
+        cache.get(2L, LOADER);
+        
+        cache.invalidate(1L);
+        assertEquals(1, cache.statistics().getSize());
+        
+        cache.invalidateAll();
+        assertEquals(0, cache.statistics().getSize());
+    }
+}
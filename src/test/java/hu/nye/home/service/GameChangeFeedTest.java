@@ -0,0 +1,255 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.ChangePage;
+import hu.nye.home.exceptions.ChangesCompactedException;
+import hu.nye.home.model.GameChange;
+import hu.nye.home.repositories.GameChangeRepository;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameChangeFeedTest {
+    @Mock
+    private GameChangeRepository changeRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private ExecutorService dispatcher;
+    private GameChangeFeed feed;
+
+    private static final Limit PAGE = Limit.of(GameChangeFeed.MAX_PAGE_SIZE);
+
+    @BeforeEach
+    public void setUp() {
+        feed = new GameChangeFeed(changeRepository, jdbcTemplate, Duration.ofDays(7), dispatcher);
+    }
+
+    private static GameChange change(long sequence) {
+        return new GameChange(sequence, sequence, GameChange.Type.CREATED, 0L, "Game", 10,
+          "Dev", "PC", 2000, Instant.EPOCH);
+    }
+
+    private static List<GameChange> changes(long from, long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(GameChangeFeedTest::change).toList();
+    }
+
+    private void head(long committedThrough, long purgedThrough) {
+        heads(purgedThrough, committedThrough);
+    }
+
+    private void heads(long purgedThrough, long first, long... next) {
+        var stub = when(jdbcTemplate.execute(ArgumentMatchers.<ConnectionCallback<long[]>>any()))
+                     .thenReturn(new long[] {first, purgedThrough});
+        for (long committedThrough : next) {
+            stub = stub.thenReturn(new long[] {committedThrough, purgedThrough});
+        }
+    }
+
+    private void dispatchInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(dispatcher).execute(any());
+    }
+
+    @Test
+    public void testInstallTrigger_CreatesHeadSequenceAndTrigger() {
+        when(jdbcTemplate.queryForObject(contains("from game_changes"), eq(Long.class)))
+          .thenReturn(8L);
+
+        feed.installTrigger();
+
+        verify(jdbcTemplate).execute(startsWith("create table if not exists game_change_head"));
+        verify(jdbcTemplate).execute(startsWith("merge into game_change_head"));
+        verify(jdbcTemplate).execute("create sequence if not exists game_change_seq start with 8");
+        verify(jdbcTemplate).execute(contains(
+          "call \"hu.nye.home.repositories.GameChangeTrigger\""));
+    }
+
+    @Test
+    public void testChangesSince_PartialPageReachesTheHead() throws Exception {
+        head(7, 0);
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(3L, 7L, Limit.of(10)))
+          .thenReturn(changes(3, 4));
+
+        ChangePage page = feed.changesSince(2, 10);
+
+        assertEquals(changes(3, 4), page.getChanges());
+        // 5 to 7 were superseded by later changes and compacted away
+        assertEquals(7, page.getLastSequence());
+        assertEquals(7, page.getHeadSequence());
+    }
+
+    @Test
+    public void testChangesSince_FullPageContinuesAfterItsLastChange() throws Exception {
+        head(9, 0);
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1L, 9L, Limit.of(1)))
+          .thenReturn(changes(1, 1));
+
+        ChangePage page = feed.changesSince(0, 0);
+
+        assertEquals(1, page.getLastSequence());
+        assertEquals(9, page.getHeadSequence());
+    }
+
+    @Test
+    public void testChangesSince_LimitIsCapped() throws Exception {
+        head(0, 0);
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1L, 0L, PAGE))
+          .thenReturn(List.of());
+
+        ChangePage page = feed.changesSince(0, 1_000_000);
+
+        assertEquals(new ChangePage(List.of(), 0, 0), page);
+    }
+
+    @Test
+    public void testChangesSince_BehindDroppedTombstones() {
+        head(20, 10);
+
+        assertThrows(ChangesCompactedException.class, () -> feed.changesSince(9, 10));
+        assertThrows(ChangesCompactedException.class, () -> feed.subscribe(9L));
+        verifyNoInteractions(changeRepository);
+    }
+
+    @Test
+    public void testSubscribe_SendsMissedThenNewChangesOnce() throws Exception {
+        heads(0, 2, 2, 3);
+        dispatchInline();
+        SseEmitter emitter = mock(SseEmitter.class);
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1L, 2L, PAGE))
+          .thenReturn(changes(1, 2));
+
+        assertSame(emitter, feed.subscribe(0L, emitter));
+
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(3L, 3L, PAGE))
+          .thenReturn(changes(3, 3));
+        feed.gameSaved(null);
+        feed.poll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Set<ResponseBodyEmitter.DataWithMediaType>> events =
+          ArgumentCaptor.forClass(Set.class);
+        verify(emitter, times(2)).send(events.capture());
+        verify(changeRepository, times(2)).findBySequenceBetweenOrderBySequenceAsc(any(), any(),
+          any());
+        assertTrue(events.getAllValues().get(0).stream()
+                     .anyMatch(event -> event.getData().equals(change(2))));
+        assertTrue(events.getAllValues().get(1).stream()
+                     .anyMatch(event -> event.getData().equals(change(3))));
+        assertEquals(1, feed.subscriberCount());
+    }
+
+    @Test
+    public void testSubscribe_WithoutSinceStartsAtTheHead() throws Exception {
+        head(5, 0);
+        dispatchInline();
+        SseEmitter emitter = mock(SseEmitter.class);
+
+        feed.subscribe(null, emitter);
+
+        verify(emitter, never()).send(anySet());
+        verifyNoInteractions(changeRepository);
+    }
+
+    @Test
+    public void testSubscribe_PagesThroughALongBacklog() throws Exception {
+        head(1001, 0);
+        dispatchInline();
+        SseEmitter emitter = mock(SseEmitter.class);
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1L, 1001L, PAGE))
+          .thenReturn(changes(1, GameChangeFeed.MAX_PAGE_SIZE));
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1001L, 1001L, PAGE))
+          .thenReturn(changes(1001, 1001));
+
+        feed.subscribe(0L, emitter);
+
+        verify(emitter, times(2)).send(anySet());
+    }
+
+    @Test
+    public void testSubscribe_DisconnectedSubscriberIsDropped() throws Exception {
+        head(1, 0);
+        dispatchInline();
+        SseEmitter emitter = mock(SseEmitter.class);
+        doThrow(new IOException("Broken pipe")).when(emitter).send(anySet());
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1L, 1L, PAGE))
+          .thenReturn(changes(1, 1));
+
+        feed.subscribe(0L, emitter);
+
+        verify(emitter).completeWithError(any(IOException.class));
+        assertEquals(0, feed.subscriberCount());
+        feed.catalogChanged();
+        feed.gameUpdated(null, null);
+        feed.gameDeleted(null);
+        verify(dispatcher, times(1)).execute(any());
+    }
+
+    @Test
+    public void testSubscribe_FailedReadIsRetriedOnTheNextChange() throws Exception {
+        head(1, 0);
+        dispatchInline();
+        SseEmitter emitter = mock(SseEmitter.class);
+        when(changeRepository.findBySequenceBetweenOrderBySequenceAsc(1L, 1L, PAGE))
+          .thenThrow(new IllegalStateException("database closed"))
+          .thenReturn(changes(1, 1));
+
+        feed.subscribe(0L, emitter);
+        feed.poll();
+
+        verify(emitter, times(1)).send(anySet());
+    }
+
+    @Test
+    public void testCompact_RaisesTheWatermarkBeforeDroppingTombstones() {
+        when(changeRepository.deleteSuperseded()).thenReturn(3);
+        when(changeRepository.findLastTombstoneBefore(any())).thenReturn(42L);
+        when(changeRepository.deleteTombstonesThrough(42L)).thenReturn(2);
+
+        feed.compact();
+
+        var order = inOrder(jdbcTemplate, changeRepository);
+        order.verify(jdbcTemplate).update(contains("purged_through"), eq(42L));
+        order.verify(changeRepository).deleteTombstonesThrough(42L);
+    }
+
+    @Test
+    public void testCompact_NoTombstonesToDrop() {
+        when(changeRepository.findLastTombstoneBefore(any())).thenReturn(null);
+
+        feed.compact();
+
+        verify(changeRepository).deleteSuperseded();
+        verify(changeRepository, never()).deleteTombstonesThrough(any());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    public void testShutdown_StopsTheDispatcher() {
+        feed.shutdown();
+
+        verify(dispatcher).shutdownNow();
+    }
+}
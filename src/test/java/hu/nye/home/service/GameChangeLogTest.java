@@ -0,0 +1,128 @@
+package hu.nye.home.service;
+
+import hu.nye.home.repositories.GameChangeRepository;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the change log trigger on H2, with overlapping transactions on two connections.
+ */
+class GameChangeLogTest {
+
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private GameChangeFeed feed;
+
+    private Connection bulk;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:changes-" + UUID.randomUUID()
+                                                   + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table games (id bigint primary key, name varchar(255),"
+                               + " price int not null, developer varchar(255),"
+                               + " platform varchar(255), year_of_publication int not null,"
+                               + " version bigint default 0 not null)");
+        jdbcTemplate.execute("create table game_changes (seq bigint primary key,"
+                               + " game_id bigint not null, type varchar(8) not null,"
+                               + " version bigint, name varchar(255), price int,"
+                               + " developer varchar(255), platform varchar(255),"
+                               + " year_of_publication int, changed_at timestamp not null)");
+        feed = new GameChangeFeed(mock(GameChangeRepository.class), jdbcTemplate,
+          Duration.ofDays(7), mock(ExecutorService.class));
+        feed.installTrigger();
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("insert into games values (?, 'Doom', 10, 'id', 'PC', 1993, 0)",
+              id);
+        }
+        bulk = dataSource.getConnection();
+        bulk.setAutoCommit(false);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        bulk.close();
+        jdbcTemplate.execute("shutdown");
+    }
+
+    private List<Long> sequences() {
+        return jdbcTemplate.queryForList("select seq from game_changes order by seq", Long.class);
+    }
+
+    private static void execute(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Test
+    public void testFire_SingleWriteDoesNotWaitForABulkUpdate() throws Exception {
+        execute(bulk, "update games set price = price + 1");
+
+        try (Connection single = dataSource.getConnection()) {
+            execute(single, "set lock_timeout 100");
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> execute(single,
+              "insert into games values (4, 'Quake', 20, 'id', 'PC', 1996, 0)"));
+        }
+
+        assertEquals(List.of(1L, 2L, 3L, 7L), sequences());
+        // 4 to 6 are still open in the bulk update: a reader must not pass them
+        assertEquals(3, feed.headSequence());
+        bulk.commit();
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L), sequences());
+        assertEquals(7, feed.headSequence());
+    }
+
+    @Test
+    public void testHeadSequence_RolledBackTransactionIsForgotten() throws Exception {
+        execute(bulk, "delete from games");
+        assertEquals(3, feed.headSequence());
+
+        bulk.rollback();
+
+        assertEquals(6, feed.headSequence());
+        assertEquals(List.of(1L, 2L, 3L), sequences());
+    }
+
+    @Test
+    public void testHeadSequence_StopsAtTheNextTransactionOfASession() throws Exception {
+        execute(bulk, "update games set price = 5 where id = 1");
+        bulk.commit();
+        execute(bulk, "update games set price = 6 where id = 2");
+        jdbcTemplate.update("update games set price = 7 where id = 3");
+
+        // 4 was committed, 5 is open and 6 committed
+        assertEquals(4, feed.headSequence());
+        bulk.commit();
+        assertEquals(6, feed.headSequence());
+    }
+
+    @Test
+    public void testInstallTrigger_ContinuesAfterTheLoggedChanges() {
+        jdbcTemplate.execute("drop trigger games_change_log");
+        jdbcTemplate.execute("drop sequence game_change_seq");
+        jdbcTemplate.update("update game_change_head set purged_through = 9");
+
+        feed.installTrigger();
+        jdbcTemplate.update("delete from games where id = 1");
+
+        assertEquals(List.of(1L, 2L, 3L, 10L), sequences());
+        assertEquals(10, feed.headSequence());
+    }
+}
@@ -0,0 +1,66 @@
+package hu.nye.home.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameExportServiceTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    @Mock
+    private EntityManager entityManager;
+    private GameExportService exportService;
+    
+    @BeforeEach
+    public void setUp() {
+        exportService = new GameExportService(gameRepository, entityManager, new ObjectMapper());
+    }
+    
+    @Test
+    public void testExportGames_WritesOneLinePerGameAndDetaches() throws Exception {
+        Game first = new Game(1L, "Minecraft", 10000, "Mojang", "PC", 2011);
+        Game second = new Game(2L, "Terraria", 3000, "Re-Logic", "PC", 2011);
+        when(gameRepository.streamForExport("PC", null, 2010, 2012))
+          .thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        long count = exportService.exportGames("PC", null, 2010, 2012, out);
+        
+        assertEquals(2, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Minecraft\""));
+        assertTrue(lines[1].contains("\"name\":\"Terraria\""));
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+    
+    @Test
+    public void testExportGames_OpenYearRangeAndPeriodicFlush() throws Exception {
+        int total = GameExportService.FLUSH_INTERVAL + 1;
+        when(gameRepository.streamForExport(null, "Mojang", Integer.MIN_VALUE, Integer.MAX_VALUE))
+          .thenReturn(IntStream.range(0, total)
+                        .mapToObj(i -> new Game((long) i, "G" + i, 1, "Mojang", "PC", 2000)));
+        ByteArrayOutputStream out = spy(new ByteArrayOutputStream());
+        
+        long count = exportService.exportGames(null, "Mojang", null, null, out);
+        
+        assertEquals(total, count);
+        verify(out, times(2)).flush();
+        verify(out, never()).close();
+    }
+}
@@ -0,0 +1,102 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.IdFilterStatistics;
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameIdFilterTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    private GameIdFilter filter;
+    
+    @BeforeEach
+    public void setUp() {
+        filter = new GameIdFilter(gameRepository, true);
+    }
+    
+    private static Game game(long id) {
+        return new Game(id, "Game " + id, 10, "Dev", "PC", 2000);
+    }
+    
+    private void load(Game... games) {
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(GameIdFilter.REBUILD_PAGE_SIZE))).thenReturn(List.of(games));
+        filter.rebuild();
+    }
+    
+    @Test
+    public void testIsMissing_NothingIsMissingBeforeTheFirstLoad() {
+        filter.gameSaved(game(1L));
+    
+        assertFalse(filter.isMissing(2L));
+        assertEquals(new IdFilterStatistics(false, 1, 1, 0), filter.statistics());
+    }
+    
+    @Test
+    public void testIsMissing_AfterLoad() {
+        load(game(1L), game(3L));
+    
+        assertFalse(filter.isMissing(1L));
+        assertTrue(filter.isMissing(2L));
+        assertFalse(filter.isMissing(3L));
+        assertTrue(filter.isMissing(1_000_000L));
+        assertEquals(new IdFilterStatistics(true, 2, 4, 2), filter.statistics());
+    }
+    
+    @Test
+    public void testIsMissing_FollowsSavesAndDeletes() {
+        load(game(1L));
+    
+        filter.gameSaved(game(2L));
+        filter.gameDeleted(game(1L));
+        filter.gameUpdated(game(2L), game(2L).toBuilder().name("Renamed").build());
+    
+        assertTrue(filter.isMissing(1L));
+        assertFalse(filter.isMissing(2L));
+    }
+    
+    @Test
+    public void testIsMissing_IdsOutsideOfTheBitmap() {
+        load();
+    
+        assertTrue(filter.isMissing(-1L));
+        assertTrue(filter.isMissing(Integer.MAX_VALUE + 1L));
+        assertTrue(filter.isMissing((long) Integer.MAX_VALUE));
+        assertFalse(filter.isMissing(null));
+    
+        filter.gameSaved(game(Long.MAX_VALUE));
+    
+        assertFalse(filter.isMissing(-1L));
+        assertFalse(filter.isMissing(Integer.MAX_VALUE + 1L));
+        assertEquals(1, filter.statistics().getIds());
+    
+        filter.gameDeleted(game(Long.MAX_VALUE));
+    
+        assertTrue(filter.isMissing(Integer.MAX_VALUE + 1L));
+    }
+    
+    @Test
+    public void testIsMissing_FailedRebuildDisablesTheFilter() {
+        load(game(1L));
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(GameIdFilter.REBUILD_PAGE_SIZE)))
+          .thenThrow(new DataAccessResourceFailureException("down"));
+    
+        assertThrows(DataAccessResourceFailureException.class, () -> filter.rebuild());
+    
+        assertFalse(filter.isMissing(2L));
+        assertFalse(filter.statistics().isLoaded());
+    }
+}
@@ -0,0 +1,118 @@
+package hu.nye.home.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hu.nye.home.dto.BulkImportResult;
+import hu.nye.home.model.Game;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameImportServiceTest {
+    private static final Validator VALIDATOR =
+      Validation.buildDefaultValidatorFactory().getValidator();
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private GameChangeListener listener;
+    private GameImportService importService;
+    
+    @BeforeEach
+    public void setUp() {
+        importService = new GameImportService(entityManager,
+          TransactionOperations.withoutTransaction(), VALIDATOR, new ObjectMapper(), 2,
+          List.of(listener));
+    }
+    
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String game(String name) {
+        return "{\"name\":\"" + name + "\",\"price\":100,\"developer\":\"Mojang\","
+                 + "\"platform\":\"PC\",\"yearOfPublication\":2011}";
+    }
+    
+    @Test
+    public void testImportGames_JsonArrayInChunks() throws Exception {
+        BulkImportResult result = importService.importGames(
+          body("[" + game("A") + "," + game("B") + "," + game("C") + "]"));
+        
+        assertEquals(3, result.getReceived());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        verify(entityManager, times(3)).persist(any(Game.class));
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(listener, times(3)).gameSaved(any(Game.class));
+    }
+    
+    @Test
+    public void testImportGames_NdjsonWithInvalidRecords() throws Exception {
+        String payload = game("A") + "\n"
+                           + game("") + "\n"
+                           + "{\"name\":\"B\",\"price\":\"free\"}\n"
+                           + game("C") + "\n";
+        
+        BulkImportResult result = importService.importGames(body(payload));
+        
+        assertEquals(4, result.getReceived());
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getIndex());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("name "));
+        assertEquals(2, result.getErrors().get(1).getIndex());
+    }
+    
+    @Test
+    public void testImportGames_MalformedJsonStopsAndKeepsEarlierRecords() throws Exception {
+        BulkImportResult result = importService.importGames(body(game("A") + "\n{\"name\":"));
+        
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        verify(entityManager, times(1)).persist(any(Game.class));
+    }
+    
+    @Test
+    public void testImportGames_FailedChunkIsReported() throws Exception {
+        doThrow(new IllegalStateException("boom")).when(entityManager).flush();
+        
+        BulkImportResult result = importService.importGames(
+          body(game("A") + game("B") + game("C")));
+        
+        assertEquals(0, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(2, result.getErrors().size());
+        assertEquals(0, result.getErrors().get(0).getIndex());
+        assertEquals(2, result.getErrors().get(1).getIndex());
+        verifyNoInteractions(listener);
+    }
+    
+    @Test
+    public void testImportGames_ErrorListIsCapped() throws Exception {
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < GameImportService.MAX_REPORTED_ERRORS + 5; i++) {
+            payload.append(game(""));
+        }
+        
+        BulkImportResult result = importService.importGames(body(payload.toString()));
+        
+        assertEquals(GameImportService.MAX_REPORTED_ERRORS + 5, result.getFailed());
+        assertEquals(GameImportService.MAX_REPORTED_ERRORS, result.getErrors().size());
+        verifyNoInteractions(entityManager);
+    }
+}
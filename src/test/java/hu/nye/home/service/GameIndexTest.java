@@ -0,0 +1,170 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+
+import static hu.nye.home.service.GameIndex.Field.*;
+import static hu.nye.home.service.GameIndex.Match.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameIndexTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    private GameIndex index;
+    
+    @BeforeEach
+    public void setUp() {
+        index = new GameIndex(gameRepository, true);
+        index.gameSaved(new Game(1L, "The Legend of Zelda", 100, "Nintendo", "Switch", 2017));
+        index.gameSaved(new Game(2L, "Super Mario Odyssey", 100, "Nintendo", "Switch", 2017));
+        index.gameSaved(new Game(3L, "Minecraft", 100, "Mojang", "PC", 2011));
+        index.gameSaved(new Game(4L, "Játék Bazár", 100, "NYE", "PC", 2024));
+    }
+    
+    @Test
+    public void testFind_ExactIsCaseSensitive() {
+        assertArrayEquals(new long[] {1, 2}, index.find(DEVELOPER, EXACT, "Nintendo", 0, 10));
+        assertArrayEquals(new long[0], index.find(DEVELOPER, EXACT, "nintendo", 0, 10));
+        assertArrayEquals(new long[] {3}, index.find(NAME, EXACT, "Minecraft", 0, 10));
+    }
+    
+    @Test
+    public void testFind_IgnoreCaseAndAccents() {
+        assertArrayEquals(new long[] {1, 2}, index.find(DEVELOPER, IGNORE_CASE, " nintendo", 0, 10));
+        assertArrayEquals(new long[] {3, 4}, index.find(PLATFORM, IGNORE_CASE, "pc", 0, 10));
+        assertArrayEquals(new long[] {4}, index.find(NAME, IGNORE_CASE, "jatek bazar", 0, 10));
+    }
+    
+    @Test
+    public void testFind_Prefix() {
+        assertArrayEquals(new long[] {1, 2, 4}, index.find(DEVELOPER, PREFIX, "n", 0, 10));
+        assertArrayEquals(new long[] {3}, index.find(DEVELOPER, PREFIX, "MO", 0, 10));
+        assertArrayEquals(new long[] {1}, index.find(NAME, PREFIX, "zel", 0, 10));
+        assertArrayEquals(new long[] {2}, index.find(NAME, PREFIX, "mar ody", 0, 10));
+        assertArrayEquals(new long[0], index.find(NAME, PREFIX, "mar zel", 0, 10));
+        assertArrayEquals(new long[0], index.find(NAME, PREFIX, "  ", 0, 10));
+        assertArrayEquals(new long[] {3, 4}, index.find(PLATFORM, PREFIX, "p", 0, 10));
+    }
+    
+    @Test
+    public void testFind_PagesAfterId() {
+        assertArrayEquals(new long[] {2}, index.find(DEVELOPER, IGNORE_CASE, "nintendo", 1, 10));
+        assertArrayEquals(new long[] {2}, index.find(DEVELOPER, PREFIX, "n", 1, 1));
+        assertArrayEquals(new long[] {1}, index.find(NAME, PREFIX, "the leg", 0, 1));
+    }
+    
+    @Test
+    public void testFind_PagesMultiWordPrefixAfterId() {
+        index.gameSaved(new Game(5L, "Super Mario Galaxy", 100, "Nintendo", "Wii", 2007));
+        index.gameSaved(new Game(6L, "Super Mario Kart", 100, "Nintendo", "SNES", 1992));
+        
+        assertArrayEquals(new long[] {2, 5}, index.find(NAME, PREFIX, "super mar", 0, 2));
+        assertArrayEquals(new long[] {6}, index.find(NAME, PREFIX, "super mar", 5, 2));
+        assertArrayEquals(new long[0], index.find(NAME, PREFIX, "super mar", 6, 2));
+    }
+    
+    @Test
+    public void testFind_NullValueOrUnknownKey() {
+        assertArrayEquals(new long[0], index.find(NAME, EXACT, null, 0, 10));
+        assertArrayEquals(new long[0], index.find(NAME, IGNORE_CASE, "Tetris", 0, 10));
+    }
+    
+    @Test
+    public void testUpdateAndDelete() {
+        Game before = new Game(3L, "Minecraft", 100, "Mojang", "PC", 2011);
+        Game after = new Game(3L, "Minecraft Legends", 100, "Mojang", "Xbox", 2023);
+        
+        index.gameUpdated(before, after);
+        
+        assertArrayEquals(new long[] {4}, index.find(PLATFORM, EXACT, "PC", 0, 10));
+        assertArrayEquals(new long[] {3}, index.find(NAME, PREFIX, "legends", 0, 10));
+        
+        index.gameDeleted(after);
+        
+        assertArrayEquals(new long[0], index.find(DEVELOPER, EXACT, "Mojang", 0, 10));
+        assertArrayEquals(new long[0], index.find(NAME, PREFIX, "minecraft", 0, 10));
+    }
+    
+    @Test
+    public void testSave_GameWithoutAttributes() {
+        index.gameSaved(Game.builder().id(5L).build());
+        index.gameDeleted(Game.builder().id(5L).build());
+        
+        assertArrayEquals(new long[] {3}, index.find(NAME, EXACT, "Minecraft", 0, 10));
+    }
+    
+    @Test
+    public void testRebuild_ReplacesPostingsFromDatabase() {
+        List<Game> firstPage = new ArrayList<>();
+        for (long id = 1; id <= GameIndex.REBUILD_PAGE_SIZE; id++) {
+            firstPage.add(new Game(id, "Game " + id, 1, "Dev", "PC", 2000));
+        }
+        Game last = new Game(5000L, "Tetris", 1, "Pajitnov", "Game Boy", 1989);
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(GameIndex.REBUILD_PAGE_SIZE))).thenReturn(firstPage);
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc((long) GameIndex.REBUILD_PAGE_SIZE,
+          Limit.of(GameIndex.REBUILD_PAGE_SIZE))).thenReturn(List.of(last));
+        
+        index.rebuild();
+        
+        assertArrayEquals(new long[0], index.find(DEVELOPER, EXACT, "Nintendo", 0, 10));
+        assertEquals(GameIndex.REBUILD_PAGE_SIZE,
+          index.find(DEVELOPER, EXACT, "Dev", 0, Integer.MAX_VALUE).length);
+        assertArrayEquals(new long[] {5000}, index.find(NAME, PREFIX, "tet", 0, 10));
+    }
+    
+    @Test
+    public void testRebuild_ReplaysWritesMadeDuringTheScan() {
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+          .thenAnswer(invocation -> {
+              index.gameSaved(new Game(7L, "Tetris", 1, "Pajitnov", "Game Boy", 1989));
+              return Collections.emptyList();
+          });
+        
+        new CatalogLoader(gameRepository, List.of(index)).loadOnStartup();
+        
+        assertArrayEquals(new long[] {7}, index.find(NAME, EXACT, "Tetris", 0, 10));
+        assertArrayEquals(new long[0], index.find(NAME, EXACT, "Minecraft", 0, 10));
+    }
+    
+    @Test
+    public void testRebuild_FailedScanKeepsCurrentPostings() {
+        List<Game> firstPage = new ArrayList<>();
+        for (long id = 1; id <= GameIndex.REBUILD_PAGE_SIZE; id++) {
+            firstPage.add(new Game(id + 10, "Game " + id, 1, "Dev", "PC", 2000));
+        }
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(GameIndex.REBUILD_PAGE_SIZE))).thenReturn(firstPage);
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(
+          (long) GameIndex.REBUILD_PAGE_SIZE + 10, Limit.of(GameIndex.REBUILD_PAGE_SIZE)))
+          .thenThrow(new DataAccessResourceFailureException("down"));
+        
+        assertThrows(DataAccessResourceFailureException.class, () -> index.rebuild());
+        
+        assertArrayEquals(new long[] {1, 2}, index.find(DEVELOPER, EXACT, "Nintendo", 0, 10));
+        assertArrayEquals(new long[0], index.find(DEVELOPER, EXACT, "Dev", 0, 10));
+        index.gameSaved(new Game(9L, "Tetris", 1, "Pajitnov", "Game Boy", 1989));
+        assertArrayEquals(new long[] {9}, index.find(NAME, EXACT, "Tetris", 0, 10));
+    }
+    
+    @Test
+    public void testRebuildOnStartup_Disabled() {
+        GameIndex disabled = new GameIndex(gameRepository, false);
+        
+        new CatalogLoader(gameRepository, List.of(disabled)).loadOnStartup();
+        
+        verifyNoInteractions(gameRepository);
+    }
+}
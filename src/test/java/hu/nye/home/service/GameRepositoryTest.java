@@ -0,0 +1,93 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the statements of the repository that return the previous row on H2.
+ */
+@DataJpaTest
+class GameRepositoryTest {
+
+    @Autowired
+    private GameRepositoryInterface gameRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private long id;
+
+    @BeforeEach
+    public void setUp() {
+        id = entityManager.persistAndGetId(new Game("Doom", 10, "id", "PC", 1993), Long.class);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Game values() {
+        return new Game(id, "Doom II", 20, "id", "DOS", 1994);
+    }
+
+    private Game stored() {
+        entityManager.flush();
+        entityManager.clear();
+        return entityManager.find(Game.class, id);
+    }
+
+    @Test
+    public void testUpdateReturningPrevious_ReturnsTheRowBeforeTheUpdate() {
+        Game previous = gameRepository.updateReturningPrevious(values(), null).orElseThrow();
+
+        assertEquals(new Game(id, "Doom", 10, "id", "PC", 1993, 0L), previous);
+        assertEquals(new Game(id, "Doom II", 20, "id", "DOS", 1994, 1L), stored());
+    }
+
+    @Test
+    public void testUpdateReturningPrevious_ExpectedVersion() {
+        assertEquals(Optional.empty(), gameRepository.updateReturningPrevious(values(), 1L));
+        assertEquals("Doom", stored().getName());
+
+        assertTrue(gameRepository.updateReturningPrevious(values(), 0L).isPresent());
+        assertEquals(new Game(id, "Doom II", 20, "id", "DOS", 1994, 1L), stored());
+    }
+
+    @Test
+    public void testUpdateReturningPrevious_PreviousRowIsDetached() {
+        Game previous = gameRepository.updateReturningPrevious(values(), null).orElseThrow();
+
+        assertFalse(entityManager.getEntityManager().contains(previous));
+        previous.setName("Quake");
+        assertEquals("Doom II", stored().getName());
+    }
+
+    @Test
+    public void testUpdateReturningPrevious_MissingId() {
+        Game values = values().toBuilder().id(id + 1).build();
+
+        assertEquals(Optional.empty(), gameRepository.updateReturningPrevious(values, null));
+        assertEquals("Doom", stored().getName());
+    }
+
+    @Test
+    public void testDeleteReturningPrevious_ReturnsTheDeletedRow() {
+        Game previous = gameRepository.deleteReturningPrevious(id).orElseThrow();
+
+        assertEquals(new Game(id, "Doom", 10, "id", "PC", 1993, 0L), previous);
+        assertFalse(entityManager.getEntityManager().contains(previous));
+        assertNull(stored());
+    }
+
+    @Test
+    public void testDeleteReturningPrevious_MissingId() {
+        assertEquals(Optional.empty(), gameRepository.deleteReturningPrevious(id + 1));
+        assertNotNull(stored());
+    }
+}
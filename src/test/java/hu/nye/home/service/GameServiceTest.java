@@ -1,7 +1,14 @@
 package hu.nye.home.service;
 
 import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.dto.SearchHit;
 import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.GameVersionMismatchException;
+import hu.nye.home.exceptions.InvalidBulkRequestException;
+import hu.nye.home.exceptions.InvalidCursorException;
 import hu.nye.home.model.Game;
 import hu.nye.home.repositories.GameRepositoryInterface;
 import jakarta.transaction.Transactional;
@@ -9,12 +16,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -27,13 +35,25 @@ import static org.mockito.Mockito.*;
 class GameServiceTest {
     @Mock
     private GameRepositoryInterface gameRepository;
-    @InjectMocks
+    @Mock
+    private GameIdFilter gameIdFilter;
+    @Mock
+    private GameIndex gameIndex;
+    @Mock
+    private TrigramIndex trigramIndex;
+    @Mock
+    private GameChangeListener listener;
+    private GameCache gameCache;
     private GameService gameService;
     private Game game;
     private GameDto gameDto;
     
     @BeforeEach
     public void setUp() {
+        gameCache = new GameCache(100, Duration.ofMinutes(10));
+        gameService = new GameService(gameRepository, gameCache, gameIdFilter, gameIndex,
+          trigramIndex, List.of(listener));
+        
         gameDto = new GameDto();
         gameDto.setName("Minecraft");
         gameDto.setPrice(10000);
@@ -137,7 +157,7 @@ class GameServiceTest {
     }
     
     @Test
-    void testGetGameById_WhenGameExists() {
+    void testGetGameById_WhenGameExists() throws Exception {
         Long id = 1L;
         Game expectedGame = new Game();
         when(gameRepository.findById(id)).thenReturn(Optional.of(expectedGame));
@@ -159,39 +179,79 @@ class GameServiceTest {
     
     @Test
     void testUpdateGameSuccess() throws Exception {
-        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
-        when(gameRepository.save(any(Game.class))).thenAnswer(i -> i.getArguments()[0]);
+        gameDto.setName("Updated Name");
+        game.setId(1L);
+        game.setVersion(0L);
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.of(game));
         
         Game updatedGame = gameService.updateGame(1L, gameDto);
         
         assertNotNull(updatedGame);
-        assertNotEquals("Updated Name", updatedGame.getName());
-        assertNotEquals(25000, updatedGame.getPrice());
-        assertNotEquals("Updated Developer", updatedGame.getDeveloper());
-        assertNotEquals("Console", updatedGame.getPlatform());
-        assertNotEquals(2021, updatedGame.getYearOfPublication());
+        assertEquals(1L, updatedGame.getId());
+        assertEquals("Updated Name", updatedGame.getName());
+        assertEquals(10000, updatedGame.getPrice());
+        assertEquals(1L, updatedGame.getVersion());
         
-        verify(gameRepository, times(1)).findById(1L);
-        verify(gameRepository, times(1)).save(updatedGame);
+        verify(gameRepository, never()).findById(any());
+        verify(gameRepository, never()).save(any(Game.class));
+        verify(listener).gameUpdated(game, updatedGame);
+    }
+    
+    @Test
+    void testUpdateGame_ExpectedVersionMatches() {
+        game.setVersion(3L);
+        when(gameRepository.updateReturningPrevious(any(Game.class), eq(3L)))
+          .thenReturn(Optional.of(game));
+        
+        Game updatedGame = gameService.updateGame(1L, gameDto, 3L);
+        
+        assertEquals(4L, updatedGame.getVersion());
+        verify(listener).gameUpdated(any(Game.class), eq(updatedGame));
+        verify(gameRepository, never()).existsById(any());
+    }
+    
+    @Test
+    void testUpdateGame_StaleVersionIsRefused() {
+        when(gameRepository.updateReturningPrevious(any(Game.class), eq(3L)))
+          .thenReturn(Optional.empty());
+        when(gameRepository.existsById(1L)).thenReturn(true);
+        
+        assertThrows(GameVersionMismatchException.class,
+          () -> gameService.updateGame(1L, gameDto, 3L));
+        
+        verifyNoInteractions(listener);
+    }
+    
+    @Test
+    void testUpdateGame_ExpectedVersionOfMissingGame() {
+        when(gameRepository.updateReturningPrevious(any(Game.class), eq(3L)))
+          .thenReturn(Optional.empty());
+        when(gameRepository.existsById(1L)).thenReturn(false);
+        
+        assertThrows(GameNotFoundException.class,
+          () -> gameService.updateGame(1L, gameDto, 3L));
     }
     
     @Test
     void testUpdateGameNotFound() {
-        when(gameRepository.findById(1L)).thenReturn(Optional.empty());
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.empty());
         
         assertThrows(GameNotFoundException.class, () -> {
             gameService.updateGame(1L, gameDto);
         });
         
-        verify(gameRepository, times(1)).findById(1L);
-        verify(gameRepository, times(0)).save(any(Game.class));
+        verify(gameRepository, never()).existsById(any());
+        verifyNoInteractions(listener);
     }
     
     @Test
     void testUpdateGameWithNullName() throws Exception {
         gameDto.setName(null);
-        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
-        when(gameRepository.save(any(Game.class))).thenAnswer(i -> i.getArguments()[0]);
+        game.setVersion(0L);
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.of(game));
         
         Game updatedGame = gameService.updateGame(1L, gameDto);
         
@@ -202,15 +262,15 @@ class GameServiceTest {
         assertNotEquals("Console", updatedGame.getPlatform());
         assertNotEquals(2021, updatedGame.getYearOfPublication());
         
-        verify(gameRepository, times(1)).findById(1L);
-        verify(gameRepository, times(1)).save(updatedGame);
+        verify(gameRepository, times(1)).updateReturningPrevious(any(Game.class), isNull());
     }
     
     @Test
     void testUpdateGameWithDifferentPlatform() throws Exception {
         gameDto.setPlatform("Mobile");
-        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
-        when(gameRepository.save(any(Game.class))).thenAnswer(i -> i.getArguments()[0]);
+        game.setVersion(0L);
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.of(game));
         
         Game updatedGame = gameService.updateGame(1L, gameDto);
         
@@ -221,14 +281,13 @@ class GameServiceTest {
         assertEquals("Mobile", updatedGame.getPlatform());
         assertNotEquals(2021, updatedGame.getYearOfPublication());
         
-        verify(gameRepository, times(1)).findById(1L);
-        verify(gameRepository, times(1)).save(updatedGame);
+        verify(gameRepository, times(1)).updateReturningPrevious(any(Game.class), isNull());
     }
     
     @Test
     void testSaveGameFailure() throws Exception {
-        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
-        when(gameRepository.save(any(Game.class))).thenThrow(new RuntimeException("Save failed"));
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenThrow(new RuntimeException("Save failed"));
         
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
             gameService.updateGame(1L, gameDto);
@@ -236,15 +295,18 @@ class GameServiceTest {
         
         assertEquals("Save failed", exception.getMessage());
         
-        verify(gameRepository, times(1)).findById(1L);
-        verify(gameRepository, times(1)).save(any(Game.class));
+        verify(gameRepository, times(1)).updateReturningPrevious(any(Game.class), isNull());
+        verifyNoInteractions(listener);
     }
     
     @Test
     public void testDeleteGameById() {
         Long gameId = 1L;
+        when(gameRepository.deleteReturningPrevious(gameId)).thenReturn(Optional.of(game));
         gameService.deleteGameById(gameId);
-        verify(gameRepository, times(1)).deleteById(gameId);
+        verify(gameRepository, times(1)).deleteReturningPrevious(gameId);
+        verify(gameRepository, never()).findById(any());
+        verify(listener).gameDeleted(game);
     }
     
     @Test
@@ -448,9 +510,10 @@ class GameServiceTest {
         gameDto.setDeveloper(null);
         gameDto.setPlatform(null);
         gameDto.setYearOfPublication(0);
+        game.setVersion(0L);
         
-        when(gameRepository.findById(1L)).thenReturn(Optional.of(game));
-        when(gameRepository.save(any(Game.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.of(game));
         
         Game updatedGame = gameService.updateGame(1L, gameDto);
         
@@ -461,20 +524,20 @@ class GameServiceTest {
         assertNull(updatedGame.getPlatform());
         assertEquals(updatedGame.getYearOfPublication(), 0);
         
-        verify(gameRepository, times(1)).findById(1L);
-        verify(gameRepository, times(1)).save(updatedGame);
+        verify(gameRepository, times(1)).updateReturningPrevious(any(Game.class), isNull());
     }
     
     @Test
     public void testDeleteGameById_NonExistentId() {
         Long nonExistentId = 999L;
-        doThrow(new EmptyResultDataAccessException(1)).when(gameRepository).deleteById(nonExistentId);
+        when(gameRepository.deleteReturningPrevious(nonExistentId)).thenReturn(Optional.empty());
         
-        assertThrows(EmptyResultDataAccessException.class, () -> {
+        assertThrows(GameNotFoundException.class, () -> {
             gameService.deleteGameById(nonExistentId);
         });
         
-        verify(gameRepository, times(1)).deleteById(nonExistentId);
+        verify(gameRepository, times(1)).deleteReturningPrevious(nonExistentId);
+        verifyNoInteractions(listener);
     }
     
     @Test
@@ -510,4 +573,335 @@ class GameServiceTest {
         verify(gameRepository, times(1)).findByPlatform(longPlatform);
     }
     
+    @Test
+    public void testFindAllGames_FirstPageHasNextCursor() {
+        Game first = Game.builder().id(1L).name("A").build();
+        Game second = Game.builder().id(2L).name("B").build();
+        Game third = Game.builder().id(3L).name("C").build();
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+          .thenReturn(List.of(first, second, third));
+        
+        GamePage<Game> page = gameService.findAllGames(null, 2);
+        
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(GameCursor.encode(2L), page.getNextCursor());
+    }
+    
+    @Test
+    public void testFindAllGames_LastPageHasNoCursor() {
+        Game game = Game.builder().id(5L).name("A").build();
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(4L, Limit.of(3)))
+          .thenReturn(List.of(game));
+        
+        GamePage<Game> page = gameService.findAllGames(GameCursor.encode(4L), 2);
+        
+        assertEquals(List.of(game), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    public void testFindAllGames_PageSizeIsCapped() {
+        when(gameRepository.findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(GameCursor.MAX_PAGE_SIZE + 1))).thenReturn(Collections.emptyList());
+        
+        GamePage<Game> page = gameService.findAllGames("", 100_000);
+        
+        assertTrue(page.getItems().isEmpty());
+        verify(gameRepository).findByIdGreaterThanOrderByIdAsc(0L,
+          Limit.of(GameCursor.MAX_PAGE_SIZE + 1));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testQueryGames_FirstPageHasNextCursor() {
+        Game first = Game.builder().id(1L).platform("PS5").price(15).build();
+        Game second = Game.builder().id(7L).platform("PS5").price(19).build();
+        Game third = Game.builder().id(9L).platform("PS5").price(10).build();
+        when(gameRepository.findBy(any(Specification.class), any()))
+          .thenReturn(List.of(first, second, third));
+        GameFilter filter = GameFilter.builder().platform("PS5").maxPrice(20).minYear(2020).build();
+        
+        GamePage<Game> page = gameService.queryGames(filter, null, 2);
+        
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(GameCursor.encode(7L), page.getNextCursor());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testQueryGames_WithoutFilterLastPage() {
+        when(gameRepository.findBy(any(Specification.class), any())).thenReturn(List.of());
+        
+        GamePage<Game> page = gameService.queryGames(null, GameCursor.encode(3L), 2);
+        
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    public void testQueryGames_InvalidCursor() {
+        Assertions.assertThrows(InvalidCursorException.class,
+          () -> gameService.queryGames(new GameFilter(), "???", 2));
+        verifyNoInteractions(gameRepository);
+    }
+    
+    @Test
+    public void testFindAllGames_InvalidCursor() {
+        Assertions.assertThrows(InvalidCursorException.class,
+          () -> gameService.findAllGames("not-a-cursor", 10));
+        verifyNoInteractions(gameRepository);
+    }
+    
+    @Test
+    public void testFindAllGameByName_Paged() {
+        Game game = Game.builder().id(8L).name("Minecraft").build();
+        when(gameRepository.findByNameAndIdGreaterThanOrderByNameAscIdAsc("Minecraft", 7L,
+          Limit.of(2)))
+          .thenReturn(List.of(game));
+        
+        GamePage<Game> page = gameService.findAllGameByName("Minecraft", GameCursor.encode(7L), 1);
+        
+        assertEquals(List.of(game), page.getItems());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    public void testFindAllGameByDeveloper_Paged() {
+        Game first = Game.builder().id(3L).developer("Mojang").build();
+        Game second = Game.builder().id(4L).developer("Mojang").build();
+        when(gameRepository.findByDeveloperAndIdGreaterThanOrderByDeveloperAscIdAsc("Mojang", 0L,
+          Limit.of(2))).thenReturn(List.of(first, second));
+        
+        GamePage<Game> page = gameService.findAllGameByDeveloper("Mojang", null, 1);
+        
+        assertEquals(List.of(first), page.getItems());
+        assertEquals(GameCursor.encode(3L), page.getNextCursor());
+    }
+    
+    @Test
+    public void testFindAllGameByPlatform_Paged() {
+        when(gameRepository.findByPlatformAndIdGreaterThanOrderByPlatformAscIdAsc("PC", 0L,
+          Limit.of(2)))
+          .thenReturn(Collections.emptyList());
+        
+        GamePage<Game> page = gameService.findAllGameByPlatform("PC", null, 0);
+        
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    public void testUpdateGamesMatching() {
+        GameFilter filter = GameFilter.builder().developer("Mojang").build();
+        GamePatch patch = GamePatch.builder().priceDelta(-500).build();
+        when(gameRepository.updateMatching(any(), eq(patch))).thenReturn(7);
+        
+        long affected = gameService.updateGamesMatching(filter, patch);
+        
+        assertEquals(7, affected);
+        verify(gameRepository).updateMatching(any(), eq(patch));
+    }
+    
+    @Test
+    public void testUpdateGamesMatching_RequiresFilter() {
+        GamePatch patch = GamePatch.builder().price(100).build();
+        
+        Assertions.assertThrows(InvalidBulkRequestException.class,
+          () -> gameService.updateGamesMatching(new GameFilter(), patch));
+        Assertions.assertThrows(InvalidBulkRequestException.class,
+          () -> gameService.updateGamesMatching(null, patch));
+        verifyNoInteractions(gameRepository);
+    }
+    
+    @Test
+    public void testUpdateGamesMatching_RejectsEmptyOrConflictingPatch() {
+        GameFilter filter = GameFilter.builder().platform("PC").build();
+        
+        Assertions.assertThrows(InvalidBulkRequestException.class,
+          () -> gameService.updateGamesMatching(filter, new GamePatch()));
+        Assertions.assertThrows(InvalidBulkRequestException.class,
+          () -> gameService.updateGamesMatching(filter, null));
+        Assertions.assertThrows(InvalidBulkRequestException.class,
+          () -> gameService.updateGamesMatching(filter,
+            GamePatch.builder().price(100).priceDelta(5).build()));
+        verifyNoInteractions(gameRepository);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testDeleteGamesMatching() {
+        GameFilter filter = GameFilter.builder().platform("PS3").maxYear(2010).build();
+        when(gameRepository.delete(any(Specification.class))).thenReturn(42L);
+        
+        long affected = gameService.deleteGamesMatching(filter);
+        
+        assertEquals(42L, affected);
+    }
+    
+    @Test
+    public void testDeleteGamesMatching_RequiresFilter() {
+        Assertions.assertThrows(InvalidBulkRequestException.class,
+          () -> gameService.deleteGamesMatching(new GameFilter()));
+        verifyNoInteractions(gameRepository);
+    }
+    
+    @Test
+    void testGetGameById_SecondLookupIsServedFromCache() throws Exception {
+        Game expectedGame = Game.builder().id(1L).name("Minecraft").build();
+        when(gameRepository.findById(1L)).thenReturn(Optional.of(expectedGame));
+        
+        assertSame(expectedGame, gameService.getGameById(1L));
+        assertSame(expectedGame, gameService.getGameById(1L));
+        
+        verify(gameRepository, times(1)).findById(1L);
+        assertEquals(1, gameCache.statistics().getHits());
+        assertEquals(1, gameCache.statistics().getMisses());
+    }
+    
+    @Test
+    void testGetGameById_MissIsNotCached() {
+        when(gameRepository.findById(1L)).thenReturn(Optional.empty());
+        
+        Assertions.assertThrows(GameNotFoundException.class, () -> gameService.getGameById(1L));
+        Assertions.assertThrows(GameNotFoundException.class, () -> gameService.getGameById(1L));
+        
+        verify(gameRepository, times(2)).findById(1L);
+    }
+    
+    @Test
+    void testGetGameById_FilteredMissSkipsCacheAndDatabase() {
+        when(gameIdFilter.isMissing(1L)).thenReturn(true);
+        
+        GameNotFoundException miss = Assertions.assertThrows(GameNotFoundException.class,
+          () -> gameService.getGameById(1L));
+        
+        assertEquals(0, miss.getStackTrace().length);
+        verifyNoInteractions(gameRepository);
+        assertEquals(0, gameCache.statistics().getMisses());
+    }
+    
+    @Test
+    void testUpdateGame_InvalidatesCache() throws Exception {
+        gameService = new GameService(gameRepository, gameCache, gameIdFilter, gameIndex,
+          trigramIndex, List.of(gameCache));
+        Game cached = Game.builder().id(1L).name("Old").build();
+        cached.setVersion(0L);
+        when(gameRepository.findById(1L)).thenReturn(Optional.of(cached));
+        gameService.getGameById(1L);
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.of(cached));
+        
+        gameService.updateGame(1L, gameDto);
+        gameService.getGameById(1L);
+        
+        verify(gameRepository, times(2)).findById(1L);
+    }
+    
+    @Test
+    void testDeleteGameById_InvalidatesCache() throws Exception {
+        gameService = new GameService(gameRepository, gameCache, gameIdFilter, gameIndex,
+          trigramIndex, List.of(gameCache));
+        Game cached = Game.builder().id(1L).name("Old").build();
+        when(gameRepository.findById(1L)).thenReturn(Optional.of(cached));
+        gameService.getGameById(1L);
+        when(gameRepository.deleteReturningPrevious(1L)).thenReturn(Optional.of(cached));
+        
+        gameService.deleteGameById(1L);
+        
+        assertEquals(0, gameCache.statistics().getSize());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBulkOperations_InvalidateWholeCache() throws Exception {
+        gameService = new GameService(gameRepository, gameCache, gameIdFilter, gameIndex,
+          trigramIndex, List.of(gameCache));
+        Game cached = Game.builder().id(1L).name("Old").build();
+        when(gameRepository.findById(1L)).thenReturn(Optional.of(cached));
+        GameFilter filter = GameFilter.builder().developer("Mojang").build();
+        when(gameRepository.delete(any(Specification.class))).thenReturn(1L);
+        
+        gameService.getGameById(1L);
+        gameService.updateGamesMatching(filter, GamePatch.builder().price(1).build());
+        assertEquals(0, gameCache.statistics().getSize());
+        
+        gameService.getGameById(1L);
+        gameService.deleteGamesMatching(filter);
+        assertEquals(0, gameCache.statistics().getSize());
+    }
+    
+    @Test
+    void testWrites_NotifyListeners() {
+        Game stored = Game.builder().id(1L).name("Old").developer("Mojang").version(0L).build();
+        when(gameRepository.save(any(Game.class))).thenAnswer(i -> i.getArguments()[0]);
+        when(gameRepository.updateReturningPrevious(any(Game.class), isNull()))
+          .thenReturn(Optional.of(stored));
+        
+        Game created = gameService.saveGame(gameDto);
+        verify(listener).gameSaved(created);
+        
+        Game updated = gameService.updateGame(1L, gameDto);
+        verify(listener).gameUpdated(stored, updated);
+        
+        when(gameRepository.deleteReturningPrevious(1L)).thenReturn(Optional.of(updated));
+        gameService.deleteGameById(1L);
+        verify(listener).gameDeleted(updated);
+    }
+    
+    @Test
+    void testDeleteGameById_MissingGameNotifiesNobody() {
+        when(gameRepository.deleteReturningPrevious(1L)).thenReturn(Optional.empty());
+        
+        Assertions.assertThrows(GameNotFoundException.class, () -> gameService.deleteGameById(1L));
+        
+        verify(gameRepository, never()).deleteById(1L);
+        verifyNoInteractions(listener);
+    }
+    
+    @Test
+    void testLookupGames_ResolvesIndexedIdsInOrder() {
+        Game first = Game.builder().id(3L).developer("Nintendo").build();
+        Game second = Game.builder().id(9L).developer("Nintendo").build();
+        when(gameIndex.find(GameIndex.Field.DEVELOPER, GameIndex.Match.PREFIX, "nin", 0L, 3))
+          .thenReturn(new long[] {3L, 9L, 12L});
+        when(gameRepository.findAllById(List.of(3L, 9L))).thenReturn(List.of(second, first));
+        
+        GamePage<Game> page = gameService.lookupGames(GameIndex.Field.DEVELOPER,
+          GameIndex.Match.PREFIX, "nin", null, 2);
+        
+        assertEquals(List.of(first, second), page.getItems());
+        assertEquals(GameCursor.encode(9L), page.getNextCursor());
+    }
+    
+    @Test
+    void testLookupGames_LastPage() {
+        when(gameIndex.find(GameIndex.Field.NAME, GameIndex.Match.EXACT, "Zelda", 9L, 3))
+          .thenReturn(new long[0]);
+        when(gameRepository.findAllById(List.of())).thenReturn(List.of());
+        
+        GamePage<Game> page = gameService.lookupGames(GameIndex.Field.NAME, GameIndex.Match.EXACT,
+          "Zelda", GameCursor.encode(9L), 2);
+        
+        assertTrue(page.getItems().isEmpty());
+        assertNull(page.getNextCursor());
+    }
+    
+    @Test
+    void testSearchGames_KeepsScoreOrderAndSkipsDeletedGames() {
+        Game minecraft = Game.builder().id(3L).name("Minecraft").build();
+        Game minecraftLegends = Game.builder().id(8L).name("Minecraft Legends").build();
+        when(trigramIndex.search("minecarft", TrigramIndex.MAX_RESULTS)).thenReturn(List.of(
+          new TrigramIndex.ScoredId(3L, 0.6), new TrigramIndex.ScoredId(8L, 0.4),
+          new TrigramIndex.ScoredId(9L, 0.35)));
+        when(gameRepository.findAllById(List.of(3L, 8L, 9L)))
+          .thenReturn(List.of(minecraftLegends, minecraft));
+        
+        List<SearchHit> hits = gameService.searchGames("minecarft", 1000);
+        
+        assertEquals(2, hits.size());
+        assertSame(minecraft, hits.get(0).getGame());
+        assertEquals(0.6, hits.get(0).getScore());
+        assertSame(minecraftLegends, hits.get(1).getGame());
+    }
+    
 }
@@ -0,0 +1,504 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.GameDto;
+import hu.nye.home.dto.GameFilter;
+import hu.nye.home.dto.GamePage;
+import hu.nye.home.dto.GamePatch;
+import hu.nye.home.exceptions.GameNotFoundException;
+import hu.nye.home.exceptions.GameVersionMismatchException;
+import hu.nye.home.exceptions.WriteQueueFullException;
+import hu.nye.home.model.Game;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionOperations;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GameWriteBehindServiceTest {
+    @TempDir
+    private Path directory;
+    @Mock
+    private GameService gameService;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private GameChangeListener listener;
+    @Mock
+    private ExecutorService flusher;
+    private WriteBehindJournal journal;
+    private GameWriteBehindService service;
+    
+    private static final GameDto DTO = new GameDto("Minecraft", 100, "Mojang", "PC", 2011);
+    
+    private static final GameDto CHANGED = new GameDto("Minecraft", 50, "Mojang", "PC", 2011);
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        journal = new WriteBehindJournal(directory);
+        service = service(journal, 10, 2);
+    }
+    
+    private GameWriteBehindService service(WriteBehindJournal journal, int capacity,
+                                           int batchSize) {
+        return service(journal, capacity, batchSize, flusher);
+    }
+    
+    private GameWriteBehindService service(WriteBehindJournal journal, int capacity,
+                                           int batchSize, ExecutorService flusher) {
+        return new GameWriteBehindService(gameService, jdbcTemplate,
+          TransactionOperations.withoutTransaction(), List.of(listener), journal, capacity,
+          batchSize, Duration.ofMillis(20), flusher);
+    }
+    
+    private void flushInline() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(flusher).execute(any());
+        lenient().doAnswer(invocation -> {
+            try {
+                return CompletableFuture.completedFuture(
+                  invocation.<Callable<?>>getArgument(0).call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }).when(flusher).submit(ArgumentMatchers.<Callable<Object>>any());
+    }
+    
+    private void ids(long... blocks) {
+        var stub = when(jdbcTemplate.queryForObject(GameWriteBehindService.NEXT_ID, Long.class));
+        for (long block : blocks) {
+            stub = stub.thenReturn(block);
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void stored(Game... games) {
+        when(jdbcTemplate.query(eq(GameWriteBehindService.SELECT), any(RowMapper.class), any()))
+          .thenReturn(List.of(games));
+    }
+    
+    private static Game game(long id, long version) {
+        return new Game(id, "Minecraft", 100, "Mojang", "PC", 2011, version);
+    }
+    
+    @Test
+    public void testSaveGame_IdsComeFromSequenceBlocks() {
+        service = service(journal, 100, 100);
+        ids(1L, 51L);
+    
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= GameWriteBehindService.ID_BLOCK_SIZE; i++) {
+            ids.add(service.saveGame(DTO).getId());
+        }
+    
+        assertEquals(1L, ids.get(0));
+        assertEquals(50L, ids.get(49));
+        assertEquals(51L, ids.get(50));
+        verify(jdbcTemplate, times(2)).queryForObject(GameWriteBehindService.NEXT_ID, Long.class);
+    }
+    
+    @Test
+    public void testSaveGame_ReadableBeforeItIsStored() throws Exception {
+        ids(1L);
+    
+        Game saved = service.saveGame(DTO);
+    
+        assertEquals(game(1, 0), saved);
+        assertSame(saved, service.getGameById(1L));
+        assertEquals(1, service.pendingCount());
+        verifyNoInteractions(gameService, listener);
+        verify(flusher, never()).execute(any());
+    }
+    
+    @Test
+    public void testSaveGame_NullDto() {
+        assertThrows(NullPointerException.class, () -> service.saveGame(null));
+    }
+    
+    @Test
+    public void testUpdateGame_RepeatedUpdatesAreCoalesced() throws Exception {
+        when(gameService.getGameById(7L)).thenReturn(game(7, 3));
+    
+        service.updateGame(7L, DTO);
+        Game updated = service.updateGame(7L, CHANGED, 4L);
+    
+        assertEquals(5L, updated.getVersion());
+        assertEquals(50, service.getGameById(7L).getPrice());
+        assertEquals(1, service.pendingCount());
+        verify(gameService, times(1)).getGameById(7L);
+        assertThrows(GameVersionMismatchException.class,
+          () -> service.updateGame(7L, DTO, 4L));
+    }
+    
+    @Test
+    public void testUpdateGame_StoredVersionIsChecked() throws Exception {
+        when(gameService.getGameById(7L)).thenReturn(game(7, 3));
+    
+        assertThrows(GameVersionMismatchException.class,
+          () -> service.updateGame(7L, DTO, 2L));
+        assertEquals(0, service.pendingCount());
+    }
+    
+    @Test
+    public void testUpdateGame_GameStoredWhileItWasReadIsReadAgain() throws Exception {
+        flushInline();
+        stored(game(7, 3));
+        AtomicInteger reads = new AtomicInteger();
+        when(gameService.getGameById(7L)).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                // another write of the game is queued and stored while this one reads it
+                service.updateGame(7L, CHANGED);
+                service.flush();
+                return game(7, 3);
+            }
+            return reads.get() == 2 ? game(7, 3) : game(7, 4).toBuilder().price(50).build();
+        });
+    
+        assertThrows(GameVersionMismatchException.class,
+          () -> service.updateGame(7L, DTO, 3L));
+        assertEquals(0, service.pendingCount());
+        assertEquals(3, reads.get());
+    }
+    
+    @Test
+    public void testUpdateGame_NotFound() throws Exception {
+        when(gameService.getGameById(7L)).thenThrow(new GameNotFoundException());
+    
+        assertThrows(GameNotFoundException.class, () -> service.updateGame(7L, DTO));
+        assertThrows(GameNotFoundException.class, () -> service.deleteGameById(7L));
+        assertEquals(0, service.pendingCount());
+    }
+    
+    @Test
+    public void testDeleteGameById_HidesThePendingGame() throws Exception {
+        ids(1L);
+        service.saveGame(DTO);
+    
+        service.deleteGameById(1L);
+    
+        assertThrows(GameNotFoundException.class, () -> service.getGameById(1L));
+        assertThrows(GameNotFoundException.class, () -> service.updateGame(1L, DTO));
+        assertThrows(GameNotFoundException.class, () -> service.deleteGameById(1L));
+        assertEquals(1, service.pendingCount());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush_StoresBatchesAndNotifiesTheListeners() throws Exception {
+        flushInline();
+        service = service(journal, 10, 10);
+        ids(1L);
+        when(gameService.getGameById(7L)).thenReturn(game(7, 3));
+        when(gameService.getGameById(8L)).thenReturn(game(8, 0));
+        stored(game(7, 3), game(8, 0));
+        Game created = service.saveGame(DTO);
+        Game updated = service.updateGame(7L, CHANGED);
+        service.deleteGameById(8L);
+    
+        service.flush();
+    
+        ArgumentCaptor<List<Object[]>> merged = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(GameWriteBehindService.MERGE), merged.capture());
+        assertEquals(2, merged.getValue().size());
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(GameWriteBehindService.DELETE), deleted.capture());
+        assertArrayEquals(new Object[] {8L}, deleted.getValue().get(0));
+        verify(listener).gameSaved(created);
+        verify(listener).gameUpdated(game(7, 3), updated);
+        verify(listener).gameDeleted(game(8, 0));
+        assertEquals(0, service.pendingCount());
+        when(gameService.getGameById(7L)).thenReturn(updated);
+        assertSame(updated, service.getGameById(7L));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush_DeleteOfAGameNeverStored() throws Exception {
+        flushInline();
+        ids(1L);
+        stored();
+        service.saveGame(DTO);
+        service.deleteGameById(1L);
+    
+        service.flush();
+    
+        verify(jdbcTemplate, never()).batchUpdate(eq(GameWriteBehindService.MERGE),
+          any(List.class));
+        verify(jdbcTemplate).batchUpdate(eq(GameWriteBehindService.DELETE), any(List.class));
+        verifyNoInteractions(listener);
+    }
+    
+    @Test
+    public void testFlush_NothingPending() throws Exception {
+        flushInline();
+    
+        service.flush();
+    
+        verifyNoInteractions(jdbcTemplate);
+    }
+    
+    @Test
+    public void testSaveGame_FullBatchIsFlushed() {
+        flushInline();
+        ids(1L);
+        stored();
+    
+        service.saveGame(DTO);
+        verify(flusher, never()).execute(any());
+        service.saveGame(DTO);
+    
+        verify(flusher).execute(any());
+        verify(listener, times(2)).gameSaved(any());
+        assertEquals(0, service.pendingCount());
+    }
+    
+    @Test
+    public void testTick_FlushesPendingWrites() {
+        flushInline();
+        service.tick();
+        verify(flusher, never()).execute(any());
+        ids(1L);
+        stored();
+        service.saveGame(DTO);
+    
+        service.tick();
+    
+        verify(listener).gameSaved(any());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlush_FailedBatchStaysPending() throws Exception {
+        flushInline();
+        ids(1L);
+        stored();
+        when(jdbcTemplate.batchUpdate(eq(GameWriteBehindService.MERGE), any(List.class)))
+          .thenThrow(new DataAccessResourceFailureException("disk full"))
+          .thenThrow(new DataAccessResourceFailureException("disk full"))
+          .thenReturn(new int[] {1});
+        service.saveGame(DTO);
+    
+        service.tick();
+        assertEquals(1, service.pendingCount());
+        assertThrows(DataAccessResourceFailureException.class, () -> service.flush());
+        service.flush();
+    
+        assertEquals(0, service.pendingCount());
+        verify(listener).gameSaved(any());
+    }
+    
+    @Test
+    public void testSaveGame_RefusedWhileTheQueueIsFull() throws Exception {
+        service = service(journal, 1, 10);
+        ids(1L);
+        Game first = service.saveGame(DTO);
+    
+        assertThrows(WriteQueueFullException.class, () -> service.saveGame(DTO));
+    
+        // the pending game does not need more room
+        service.updateGame(first.getId(), CHANGED);
+        assertEquals(1, service.pendingCount());
+        verify(flusher).execute(any());
+    }
+    
+    @Test
+    public void testRecover_StoresTheWritesOfThePreviousRun() throws Exception {
+        ids(1L);
+        service.saveGame(DTO);
+        service.saveGame(CHANGED);
+        service.deleteGameById(1L);
+        journal.close();
+    
+        reset(jdbcTemplate);
+        flushInline();
+        stored();
+        ids(1L);
+        WriteBehindJournal reopened = new WriteBehindJournal(directory);
+        GameWriteBehindService recovered = service(reopened, 10, 10);
+        recovered.recover();
+    
+        verify(listener).gameSaved(game(2, 0).toBuilder().price(50).build());
+        verify(jdbcTemplate).execute("alter sequence games_seq restart with 3");
+        assertEquals(0, recovered.pendingCount());
+        reopened.close();
+        try (WriteBehindJournal empty = new WriteBehindJournal(directory)) {
+            assertEquals(List.of(), empty.read());
+        }
+    }
+    
+    @Test
+    public void testRecover_EmptyJournal() throws Exception {
+        service.recover();
+    
+        verifyNoInteractions(jdbcTemplate, listener);
+    }
+    
+    @Test
+    public void testSetBasedOperations_StorePendingWritesFirst() throws Exception {
+        flushInline();
+        ids(1L);
+        stored();
+        service.saveGame(DTO);
+        GameFilter filter = new GameFilter();
+        filter.setDeveloper("Mojang");
+        GamePatch patch = new GamePatch();
+        patch.setPrice(1);
+        when(gameService.updateGamesMatching(filter, patch)).thenReturn(3L);
+        when(gameService.deleteGamesMatching(filter)).thenReturn(2L);
+    
+        assertEquals(3L, service.updateGamesMatching(filter, patch));
+        assertEquals(2L, service.deleteGamesMatching(filter));
+    
+        var order = inOrder(listener, gameService);
+        order.verify(listener).gameSaved(any());
+        order.verify(gameService).updateGamesMatching(filter, patch);
+    }
+    
+    /**
+     * Stores game 7 in the row and answers a set-based operation that changes the row to
+     * the given state, after an update of the game started meanwhile read the game and had
+     * some time to finish.
+     */
+    private Answer<Long> racedByAnUpdate(AtomicReference<Game> row, Game changed,
+                                         CompletableFuture<Game> update) throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        row.set(game(7, 3));
+        when(gameService.getGameById(7L)).thenAnswer(invocation -> {
+            read.countDown();
+            if (row.get() == null) {
+                throw new GameNotFoundException();
+            }
+            return row.get();
+        });
+        return invocation -> {
+            update.completeAsync(() -> service.updateGame(7L, CHANGED, 3L));
+            assertTrue(read.await(5, TimeUnit.SECONDS));
+            try {
+                update.get(200, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // the update waits for the operation
+            }
+            row.set(changed);
+            return 1L;
+        };
+    }
+    
+    @Test
+    public void testUpdateGamesMatching_WriteReadingTheGameMeanwhileSeesThePatch()
+      throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        service = service(journal, 10, 10, executor);
+        GameFilter filter = new GameFilter();
+        filter.setDeveloper("Mojang");
+        GamePatch patch = new GamePatch();
+        patch.setPrice(1);
+        AtomicReference<Game> row = new AtomicReference<>();
+        CompletableFuture<Game> update = new CompletableFuture<>();
+        Answer<Long> patched =
+          racedByAnUpdate(row, game(7, 4).toBuilder().price(1).build(), update);
+        when(gameService.updateGamesMatching(filter, patch)).thenAnswer(patched);
+    
+        assertEquals(1L, service.updateGamesMatching(filter, patch));
+    
+        ExecutionException failure = assertThrows(ExecutionException.class,
+          () -> update.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GameVersionMismatchException.class, failure.getCause());
+        assertEquals(0, service.pendingCount());
+        executor.shutdown();
+    }
+    
+    @Test
+    public void testDeleteGamesMatching_WriteReadingTheGameMeanwhileDoesNotRestoreIt()
+      throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        service = service(journal, 10, 10, executor);
+        GameFilter filter = new GameFilter();
+        filter.setDeveloper("Mojang");
+        AtomicReference<Game> row = new AtomicReference<>();
+        CompletableFuture<Game> update = new CompletableFuture<>();
+        Answer<Long> deleted = racedByAnUpdate(row, null, update);
+        when(gameService.deleteGamesMatching(filter)).thenAnswer(deleted);
+    
+        assertEquals(1L, service.deleteGamesMatching(filter));
+    
+        ExecutionException failure = assertThrows(ExecutionException.class,
+          () -> update.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GameNotFoundException.class, failure.getCause());
+        assertEquals(0, service.pendingCount());
+        executor.shutdown();
+    }
+    
+    @Test
+    public void testReads_AreAnsweredByTheGameService() throws Exception {
+        GamePage<Game> page = new GamePage<>(List.of(game(1, 0)), null);
+        when(gameService.getGameById(1L)).thenReturn(game(1, 0));
+        when(gameService.findAllGames("c", 5)).thenReturn(page);
+        when(gameService.queryGames(null, "c", 5)).thenReturn(page);
+        when(gameService.findAllGameByName("n")).thenReturn(page.getItems());
+        when(gameService.findAllGameByName("n", "c", 5)).thenReturn(page);
+        when(gameService.findAllGameByDeveloper("d")).thenReturn(page.getItems());
+        when(gameService.findAllGameByDeveloper("d", "c", 5)).thenReturn(page);
+        when(gameService.findAllGameByPlatform("p")).thenReturn(page.getItems());
+        when(gameService.findAllGameByPlatform("p", "c", 5)).thenReturn(page);
+        when(gameService.lookupGames(GameIndex.Field.NAME, GameIndex.Match.PREFIX, "m", "c", 5))
+          .thenReturn(page);
+        when(gameService.searchGames("m", 5)).thenReturn(List.of());
+    
+        assertEquals(game(1, 0), service.getGameById(1L));
+        assertSame(page, service.findAllGames("c", 5));
+        assertSame(page, service.queryGames(null, "c", 5));
+        assertSame(page.getItems(), service.findAllGameByName("n"));
+        assertSame(page, service.findAllGameByName("n", "c", 5));
+        assertSame(page.getItems(), service.findAllGameByDeveloper("d"));
+        assertSame(page, service.findAllGameByDeveloper("d", "c", 5));
+        assertSame(page.getItems(), service.findAllGameByPlatform("p"));
+        assertSame(page, service.findAllGameByPlatform("p", "c", 5));
+        assertSame(page, service.lookupGames(GameIndex.Field.NAME, GameIndex.Match.PREFIX, "m",
+          "c", 5));
+        assertEquals(List.of(), service.searchGames("m", 5));
+    }
+    
+    @Test
+    public void testShutdown_StoresPendingWritesAndClosesTheJournal() throws Exception {
+        flushInline();
+        ids(1L);
+        stored();
+        service.saveGame(DTO);
+    
+        service.shutdown();
+    
+        verify(listener).gameSaved(any());
+        verify(flusher).shutdown();
+        try (WriteBehindJournal reopened = new WriteBehindJournal(directory)) {
+            assertEquals(List.of(), reopened.read());
+        }
+    }
+}
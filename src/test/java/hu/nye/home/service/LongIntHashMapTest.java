@@ -0,0 +1,49 @@
+package hu.nye.home.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongIntHashMapTest {
+    
+    @Test
+    public void testPutGetAddTo() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        
+        map.put(7L, 1);
+        map.put(7L, 2);
+        assertEquals(5, map.addTo(7L, 3));
+        assertEquals(1, map.addTo(-9L, 1));
+        
+        assertEquals(5, map.get(7L, 0));
+        assertEquals(1, map.get(-9L, 0));
+        assertEquals(-1, map.get(8L, -1));
+        assertEquals(2, map.size());
+    }
+    
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        
+        for (int i = 0; i < 20_000; i++) {
+            long key = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key));
+            } else {
+                int value = random.nextInt();
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+        
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+}
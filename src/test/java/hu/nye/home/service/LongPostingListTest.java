@@ -0,0 +1,49 @@
+package hu.nye.home.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongPostingListTest {
+    
+    @Test
+    public void testAdd_KeepsIdsSortedAndUnique() {
+        LongPostingList list = new LongPostingList();
+        
+        for (long id : new long[] {9, 3, 7, 1, 5, 3, 11}) {
+            list.add(id);
+        }
+        
+        assertArrayEquals(new long[] {1, 3, 5, 7, 9, 11}, list.toArray());
+        assertEquals(6, list.size());
+        assertFalse(list.add(7));
+    }
+    
+    @Test
+    public void testRemove() {
+        LongPostingList list = new LongPostingList();
+        list.add(1);
+        list.add(2);
+        
+        assertTrue(list.remove(1));
+        assertFalse(list.remove(1));
+        assertFalse(list.contains(1));
+        assertTrue(list.contains(2));
+        assertTrue(list.remove(2));
+        assertTrue(list.isEmpty());
+    }
+    
+    @Test
+    public void testAfter() {
+        LongPostingList list = new LongPostingList();
+        for (long id = 10; id <= 100; id += 10) {
+            list.add(id);
+        }
+        
+        assertArrayEquals(new long[] {10, 20}, list.after(0, 2));
+        assertArrayEquals(new long[] {40, 50, 60}, list.after(30, 3));
+        assertArrayEquals(new long[] {40}, list.after(35, 1));
+        assertArrayEquals(new long[0], list.after(100, 5));
+        assertArrayEquals(new long[] {90, 100}, list.after(80, Integer.MAX_VALUE));
+    }
+}
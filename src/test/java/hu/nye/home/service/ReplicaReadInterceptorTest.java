@@ -0,0 +1,80 @@
+package hu.nye.home.service;
+
+import hu.nye.home.config.ReplicaReadInterceptor;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaReadInterceptorTest {
+    
+    private ReplicaReadInterceptor interceptor;
+    
+    private MockHttpServletResponse response;
+    
+    @BeforeEach
+    public void setUp() {
+        interceptor = new ReplicaReadInterceptor(mock(ReplicaSynchronizer.class),
+          Duration.ofSeconds(5));
+        response = new MockHttpServletResponse();
+    }
+    
+    private MockHttpServletRequest write(String method) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/games/1");
+        assertTrue(interceptor.preHandle(request, response, null));
+        return request;
+    }
+    
+    private void writeBody(MockHttpServletRequest request) {
+        interceptor.beforeBodyWrite("{}", null, null, null, new ServletServerHttpRequest(request),
+          new ServletServerHttpResponse(response));
+    }
+    
+    @Test
+    public void testBeforeBodyWrite_SuccessfulWriteSetsTheCookie() {
+        MockHttpServletRequest request = write("PUT");
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+        
+        writeBody(request);
+        interceptor.postHandle(request, response, null, null);
+        
+        assertEquals(1, response.getHeaders(HttpHeaders.SET_COOKIE).size());
+        assertTrue(response.getHeader(HttpHeaders.SET_COOKIE).startsWith("jatekbazar-primary="));
+    }
+    
+    @Test
+    public void testBeforeBodyWrite_FailedWriteDoesNotSetTheCookie() {
+        MockHttpServletRequest request = write("PUT");
+        response.setStatus(412);
+        
+        writeBody(request);
+        
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+    
+    @Test
+    public void testPostHandle_WriteWithoutBodySetsTheCookie() {
+        MockHttpServletRequest request = write("DELETE");
+        
+        interceptor.postHandle(request, response, null, null);
+        
+        assertNotNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+    
+    @Test
+    public void testBeforeBodyWrite_ReadDoesNotSetTheCookie() {
+        MockHttpServletRequest request = write("GET");
+        
+        writeBody(request);
+        interceptor.afterCompletion(request, response, null, null);
+        
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+}
@@ -0,0 +1,249 @@
+package hu.nye.home.service;
+
+import hu.nye.home.dto.ChangePage;
+import hu.nye.home.exceptions.ChangesCompactedException;
+import hu.nye.home.model.Game;
+import hu.nye.home.model.GameChange;
+import hu.nye.home.repositories.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaSynchronizerTest {
+    
+    private JdbcTemplate primary;
+    
+    private Map<String, DataSource> replicas;
+    
+    private ReplicaRoutingDataSource routingDataSource;
+    
+    private GameChangeFeed changeFeed;
+    
+    private CatalogVersion catalogVersion;
+    
+    private ReplicaSynchronizer synchronizer;
+    
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID()
+                                             + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+    
+    @BeforeEach
+    public void setUp() {
+        primary = new JdbcTemplate(database("primary"));
+        primary.execute("create table games (id bigint primary key, name varchar(255),"
+                          + " price int not null, developer varchar(255),"
+                          + " platform varchar(255), year_of_publication int not null,"
+                          + " version bigint default 0 not null)");
+        primary.execute("create index idx_games_name on games (name)");
+        primary.execute("create sequence games_seq");
+        primary.update("insert into games values (1, 'Doom', 10, 'id', 'PC', 1993, 0)");
+        primary.update("insert into games values (2, 'Quake', 20, 'id', 'PC', 1996, 0)");
+        replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", database("replica1"));
+        replicas.put("replica-2", database("replica2"));
+        routingDataSource = new ReplicaRoutingDataSource(primary.getDataSource(), replicas);
+        changeFeed = mock(GameChangeFeed.class);
+        when(changeFeed.headSequence()).thenReturn(5L);
+        catalogVersion = new CatalogVersion();
+        synchronizer = new ReplicaSynchronizer(changeFeed, primary, routingDataSource,
+          catalogVersion, new SimpleMeterRegistry());
+        synchronizer.createSchema();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        ReplicaRoutingDataSource.readFromReplicas(false);
+    }
+    
+    private static GameChange change(long sequence, GameChange.Type type, long id, String name) {
+        return new GameChange(sequence, id, type, sequence, name, 30, "id", "PC", 1999,
+          Instant.EPOCH);
+    }
+    
+    private static ChangePage page(long last, long head, GameChange... changes) {
+        return new ChangePage(List.of(changes), last, head);
+    }
+    
+    private List<String> names(String replica) {
+        return new JdbcTemplate(replicas.get(replica))
+                 .queryForList("select name from games order by id", String.class);
+    }
+    
+    private static String url(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+    
+    @Test
+    public void testCreateSchema_CopiesTableAndIndexes() {
+        JdbcTemplate replica = new JdbcTemplate(replicas.get("replica-1"));
+    
+        assertEquals(1, replica.queryForObject("select count(*) from information_schema.indexes"
+                                                 + " where index_name = 'IDX_GAMES_NAME'",
+          Integer.class));
+        assertEquals(0, replica.queryForObject("select count(*) from information_schema.sequences"
+                                                 + " where sequence_name = 'GAMES_SEQ'",
+          Integer.class));
+    }
+    
+    @Test
+    public void testSynchronize_CopiesGamesThenAppliesChanges() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(
+          page(8, 8, change(6, GameChange.Type.UPDATED, 1, "Doom II"),
+            change(7, GameChange.Type.DELETED, 2, "Quake"),
+            change(8, GameChange.Type.CREATED, 3, "Heretic")));
+    
+        synchronizer.synchronize();
+    
+        assertEquals(List.of("Doom II", "Heretic"), names("replica-1"));
+        assertEquals(List.of("Doom II", "Heretic"), names("replica-2"));
+        assertTrue(routingDataSource.isAvailable("replica-1"));
+        assertTrue(routingDataSource.isAvailable("replica-2"));
+    }
+    
+    @Test
+    public void testSynchronize_ContinuesFromLastAppliedChange() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(page(5, 5),
+          page(5, 5), page(6, 6, change(6, GameChange.Type.UPDATED, 2, "Quake II")));
+        when(changeFeed.changesSince(6, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(page(6, 6));
+    
+        synchronizer.synchronize();
+        synchronizer.synchronize();
+        synchronizer.synchronize();
+    
+        assertEquals(List.of("Doom", "Quake II"), names("replica-1"));
+        assertEquals(List.of("Doom", "Quake II"), names("replica-2"));
+        verify(changeFeed, times(4)).changesSince(5, GameChangeFeed.MAX_PAGE_SIZE);
+        verify(changeFeed, times(2)).changesSince(6, GameChangeFeed.MAX_PAGE_SIZE);
+    }
+    
+    @Test
+    public void testSynchronize_PagesUntilHead() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(
+          page(6, 7, change(6, GameChange.Type.UPDATED, 1, "Doom II")));
+        when(changeFeed.changesSince(6, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(
+          page(7, 7, change(7, GameChange.Type.UPDATED, 1, "Doom 3")));
+    
+        synchronizer.synchronize();
+    
+        assertEquals(List.of("Doom 3", "Quake"), names("replica-1"));
+    }
+    
+    @Test
+    public void testSynchronize_AppliesLatestChangeOfAGame() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(
+          page(8, 8, change(6, GameChange.Type.CREATED, 3, "Heretic"),
+            change(7, GameChange.Type.UPDATED, 3, "Hexen"),
+            change(8, GameChange.Type.DELETED, 1, "Doom")));
+    
+        synchronizer.synchronize();
+    
+        assertEquals(List.of("Quake", "Hexen"), names("replica-1"));
+        assertEquals(7L, new JdbcTemplate(replicas.get("replica-1"))
+                           .queryForObject("select version from games where id = 3", Long.class));
+    }
+    
+    @Test
+    public void testSynchronize_CopiesAgainWhenLogWasCompacted() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(page(5, 5));
+        synchronizer.synchronize();
+        when(changeFeed.headSequence()).thenReturn(9L);
+        primary.update("update games set name = 'Quake III' where id = 2");
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE))
+          .thenThrow(new ChangesCompactedException());
+        when(changeFeed.changesSince(9, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(page(9, 9));
+    
+        synchronizer.synchronize();
+    
+        assertFalse(routingDataSource.isAvailable("replica-1"));
+        assertEquals(List.of("Doom", "Quake"), names("replica-1"));
+    
+        synchronizer.synchronize();
+    
+        assertTrue(routingDataSource.isAvailable("replica-1"));
+        assertEquals(List.of("Doom", "Quake III"), names("replica-1"));
+    }
+    
+    @Test
+    public void testSynchronize_StopsReadsFromFailedReplica() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(page(5, 5),
+          page(5, 5), page(6, 6, change(6, GameChange.Type.UPDATED, 1, "Doom II")));
+        synchronizer.synchronize();
+        new JdbcTemplate(replicas.get("replica-1")).execute("drop table games");
+    
+        synchronizer.synchronize();
+    
+        assertFalse(routingDataSource.isAvailable("replica-1"));
+        assertTrue(routingDataSource.isAvailable("replica-2"));
+    }
+    
+    @Test
+    public void testIsCurrent_UntilNextWrite() throws Exception {
+        when(changeFeed.changesSince(5, GameChangeFeed.MAX_PAGE_SIZE)).thenReturn(page(5, 5));
+        assertFalse(synchronizer.isCurrent());
+    
+        synchronizer.synchronize();
+    
+        assertTrue(synchronizer.isCurrent());
+        catalogVersion.gameSaved(new Game());
+        assertFalse(synchronizer.isCurrent());
+    }
+    
+    @Test
+    public void testGetConnection_RoutesReadsToAvailableReplicasInTurn() throws Exception {
+        String primaryUrl = url(primary.getDataSource());
+        routingDataSource.setAvailable("replica-1", true);
+        routingDataSource.setAvailable("replica-2", true);
+    
+        assertEquals(primaryUrl, url(routingDataSource));
+        ReplicaRoutingDataSource.readFromReplicas(true);
+        String first = url(routingDataSource);
+        String second = url(routingDataSource);
+    
+        assertNotEquals(first, second);
+        assertTrue(first.startsWith("jdbc:h2:mem:replica"));
+        assertTrue(second.startsWith("jdbc:h2:mem:replica"));
+    }
+    
+    @Test
+    public void testReadFromPrimary_WhileTheThreadMayReadFromReplicas() throws Exception {
+        String primaryUrl = url(primary.getDataSource());
+        routingDataSource.setAvailable("replica-1", true);
+        ReplicaRoutingDataSource.readFromReplicas(true);
+    
+        assertEquals(primaryUrl, ReplicaRoutingDataSource.readFromPrimary(() -> {
+            try {
+                return url(routingDataSource);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        assertTrue(url(routingDataSource).startsWith("jdbc:h2:mem:replica1"));
+    }
+    
+    @Test
+    public void testGetConnection_UsesPrimaryWithoutAvailableReplica() throws Exception {
+        routingDataSource.setAvailable("replica-1", true);
+        routingDataSource.setAvailable("replica-1", false);
+        ReplicaRoutingDataSource.readFromReplicas(true);
+    
+        assertEquals(url(primary.getDataSource()), url(routingDataSource));
+    }
+}
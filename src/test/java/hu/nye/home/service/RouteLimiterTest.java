@@ -0,0 +1,128 @@
+package hu.nye.home.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLimiterTest {
+    
+    private static final long MILLIS = 1_000_000;
+    
+    private static void fill(RouteLimiter limiter) {
+        while (limiter.tryAcquire()) {
+            // take every slot
+        }
+    }
+    
+    private static void cycle(RouteLimiter limiter, int requests, long latencyNanos) {
+        for (int i = 0; i < requests; i++) {
+            fill(limiter);
+            limiter.release(latencyNanos);
+        }
+    }
+    
+    @Test
+    public void testTryAcquire_UpToTheLimit() {
+        RouteLimiter limiter = new RouteLimiter(2, 1, 10, 0);
+        
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.inFlight());
+    }
+    
+    @Test
+    public void testRelease_SteadyLatencyGrowsTheLimit() {
+        RouteLimiter limiter = new RouteLimiter(10, 1, 50, 0);
+        
+        cycle(limiter, 100, 5 * MILLIS);
+        
+        assertEquals(50, limiter.limit());
+    }
+    
+    @Test
+    public void testRelease_SlowdownShrinksTheLimit() {
+        RouteLimiter limiter = new RouteLimiter(40, 2, 50, 0);
+        cycle(limiter, 100, 5 * MILLIS);
+        
+        cycle(limiter, 100, 50 * MILLIS);
+        
+        // the headroom of the square root keeps it from going below 4
+        assertEquals(4, limiter.limit());
+    }
+    
+    @Test
+    public void testRelease_ToleratedSlowdownKeepsTheLimit() {
+        RouteLimiter limiter = new RouteLimiter(20, 1, 20, 0);
+        cycle(limiter, 50, 5 * MILLIS);
+        
+        cycle(limiter, 50, 7 * MILLIS);
+        
+        assertEquals(20, limiter.limit());
+    }
+    
+    @Test
+    public void testRelease_IdleRouteKeepsTheLimit() {
+        RouteLimiter limiter = new RouteLimiter(20, 1, 50, 0);
+        
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquire();
+            limiter.release(5 * MILLIS);
+        }
+        
+        assertEquals(20, limiter.limit());
+    }
+    
+    @Test
+    public void testRelease_LimitRecoversAfterASlowPeriod() {
+        RouteLimiter limiter = new RouteLimiter(20, 2, 20, 0);
+        cycle(limiter, 600, 50 * MILLIS);
+        cycle(limiter, 100, 500 * MILLIS);
+        assertEquals(4, limiter.limit());
+        
+        cycle(limiter, 200, 50 * MILLIS);
+        
+        assertEquals(20, limiter.limit());
+    }
+    
+    @Test
+    public void testAcquire_WaitsForAReleasedSlot() throws Exception {
+        RouteLimiter limiter = new RouteLimiter(1, 1, 1, 1);
+        fill(limiter);
+        
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (limiter.queued() == 0) {
+            Thread.onSpinWait();
+        }
+        limiter.release(MILLIS);
+        
+        assertTrue(waiter.get(10, TimeUnit.SECONDS));
+        assertEquals(1, limiter.inFlight());
+        assertEquals(0, limiter.queued());
+    }
+    
+    @Test
+    public void testAcquire_TimesOut() throws Exception {
+        RouteLimiter limiter = new RouteLimiter(1, 1, 1, 1);
+        fill(limiter);
+        
+        assertFalse(limiter.acquire(10, TimeUnit.MILLISECONDS));
+        assertEquals(0, limiter.queued());
+    }
+    
+    @Test
+    public void testAcquire_FullQueueIsRejectedAtOnce() throws Exception {
+        RouteLimiter limiter = new RouteLimiter(1, 1, 1, 0);
+        fill(limiter);
+        
+        assertFalse(limiter.acquire(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,124 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import hu.nye.home.repositories.GameRepositoryInterface;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class TrigramIndexTest {
+    @Mock
+    private GameRepositoryInterface gameRepository;
+    private TrigramIndex index;
+    
+    @BeforeEach
+    public void setUp() {
+        index = new TrigramIndex(gameRepository, false, 0.3);
+        index.gameSaved(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011));
+        index.gameSaved(new Game(2L, "Minecraft Legends", 100, "Mojang", "PC", 2023));
+        index.gameSaved(new Game(3L, "The Witcher 3", 100, "CD Projekt", "PC", 2015));
+        index.gameSaved(new Game(4L, "Mine Sweeper", 100, "Microsoft", "PC", 1990));
+    }
+    
+    @Test
+    public void testTrigrams_PadsEachWord() {
+        assertEquals(3, TrigramIndex.trigrams("Ab").length);
+        assertEquals(TrigramIndex.trigrams("ab").length, TrigramIndex.trigrams("  AB ").length);
+        assertEquals(0, TrigramIndex.trigrams("!!").length);
+    }
+    
+    @Test
+    public void testSearch_ToleratesTypos() {
+        List<TrigramIndex.ScoredId> hits = index.search("minecarft", 10);
+        
+        assertEquals(1L, hits.get(0).id());
+        assertTrue(hits.get(0).score() < 1.0);
+        assertTrue(hits.stream().noneMatch(hit -> hit.id() == 3L));
+    }
+    
+    @Test
+    public void testSearch_RanksExactMatchFirstAndHonoursLimit() {
+        List<TrigramIndex.ScoredId> hits = index.search("Minecraft", 1);
+        
+        assertEquals(List.of(new TrigramIndex.ScoredId(1L, 1.0)), hits);
+    }
+    
+    @Test
+    public void testSearch_EmptyQueryOrLimit() {
+        assertTrue(index.search("  ", 10).isEmpty());
+        assertTrue(index.search("Minecraft", 0).isEmpty());
+        assertTrue(index.search("zzzzzz", 10).isEmpty());
+    }
+    
+    @Test
+    public void testUpdate_ReusesTheOrdinalOfTheGame() {
+        for (int i = 0; i < 10; i++) {
+            index.gameUpdated(new Game(3L, "The Witcher " + (i + 3), 100, "CDP", "PC", 2015),
+              new Game(3L, "The Witcher " + (i + 4), 100, "CDP", "PC", 2015));
+        }
+        index.gameUpdated(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011),
+          new Game(1L, "Minecraft", 50, "Mojang", "PC", 2011));
+        
+        assertEquals(4, index.ordinalCount());
+        assertEquals(3L, index.search("The Witcher 13", 1).get(0).id());
+        assertEquals(1.0, index.search("The Witcher 13", 1).get(0).score());
+        assertEquals(1L, index.search("Minecraft", 1).get(0).id());
+    }
+    
+    @Test
+    public void testSearch_ReusesPooledCounts() {
+        index.search("witcher", 10);
+        index.search("minecraft", 10);
+        
+        assertEquals(1, index.pooledScratches());
+        assertEquals(3L, index.search("The Witcher 3", 1).get(0).id());
+    }
+    
+    @Test
+    public void testUpdateAndDelete() {
+        Game before = new Game(3L, "The Witcher 3", 100, "CD Projekt", "PC", 2015);
+        Game after = new Game(3L, "Cyberpunk 2077", 100, "CD Projekt", "PC", 2020);
+        
+        index.gameUpdated(before, after);
+        
+        assertTrue(index.search("witcher", 10).isEmpty());
+        assertEquals(3L, index.search("cyberpunk", 10).get(0).id());
+        
+        index.gameDeleted(after);
+        index.gameDeleted(Game.builder().id(5L).build());
+        index.gameSaved(Game.builder().id(6L).build());
+        
+        assertTrue(index.search("cyberpunk", 10).isEmpty());
+    }
+    
+    @Test
+    public void testSearch_LargeCatalogUsesBinarySearchForCommonTrigrams() {
+        for (long id = 10; id < 3000; id++) {
+            index.gameSaved(new Game(id, "Mine " + id, 100, "Dev", "PC", 2000));
+        }
+        index.gameSaved(new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011));
+        
+        List<TrigramIndex.ScoredId> hits = index.search("minecraft zzz", 3);
+        
+        assertEquals(List.of(1L, 2L), hits.stream().map(TrigramIndex.ScoredId::id).toList());
+    }
+    
+    @Test
+    public void testSearch_SkipsPostingsLeftBehindByReplayedRename() {
+        Game renamed = new Game(1L, "Zelda", 100, "Nintendo", "Switch", 2017);
+        Game original = new Game(1L, "Minecraft", 100, "Mojang", "PC", 2011);
+        index.gameSaved(renamed);
+        index.gameUpdated(renamed, original);
+        
+        List<TrigramIndex.ScoredId> hits = index.search("minecraft", 10);
+        
+        assertEquals(1, hits.stream().filter(hit -> hit.id() == 1L).count());
+        assertTrue(index.search("zelda", 10).isEmpty());
+    }
+}
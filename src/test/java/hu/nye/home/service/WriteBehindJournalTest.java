@@ -0,0 +1,127 @@
+package hu.nye.home.service;
+
+import hu.nye.home.model.Game;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindJournalTest {
+    @TempDir
+    private Path directory;
+    
+    private static PendingWrite upsert(long id, long version) {
+        return new PendingWrite(new Game(id, "Game " + id, 10, "Dev", "PC", 2000, version), false);
+    }
+    
+    private static PendingWrite delete(long id, long version) {
+        Game game = new Game();
+        game.setId(id);
+        game.setVersion(version);
+        return new PendingWrite(game, true);
+    }
+    
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+    
+    @Test
+    public void testRead_WritesOfThePreviousRunInOrder() throws Exception {
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            journal.append(upsert(1, 0));
+            journal.sync(journal.append(upsert(1, 1)));
+            journal.append(delete(2, 3));
+        }
+    
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            assertEquals(List.of(upsert(1, 0), upsert(1, 1), delete(2, 3)), journal.read());
+            journal.append(upsert(3, 0));
+            // the records of this run are not read back
+            assertEquals(3, journal.read().size());
+        }
+    }
+    
+    @Test
+    public void testSync_ForcesEverythingAppendedBefore() throws Exception {
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            long first = journal.append(upsert(1, 0));
+            long second = journal.append(upsert(2, 0));
+            journal.sync(first);
+            long size = Files.size(segments().get(0));
+    
+            journal.sync(second);
+    
+            assertEquals(second, size);
+            assertEquals(size, Files.size(segments().get(0)));
+        }
+    }
+    
+    @Test
+    public void testRead_TornRecordEndsTheSegment() throws Exception {
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            journal.append(upsert(1, 0));
+            journal.append(upsert(2, 0));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(segment) - 3);
+        }
+    
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            assertEquals(List.of(upsert(1, 0)), journal.read());
+        }
+    }
+    
+    @Test
+    public void testRead_CorruptRecordEndsTheSegment() throws Exception {
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            journal.append(upsert(1, 0));
+        }
+        Path segment = segments().get(0);
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(segment, bytes);
+    
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            assertEquals(List.of(), journal.read());
+        }
+    }
+    
+    @Test
+    public void testRotate_OlderSegmentsCanBeDeleted() throws Exception {
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            journal.append(upsert(1, 0));
+            long keep = journal.rotate();
+            journal.append(upsert(2, 0));
+    
+            journal.deleteBefore(keep);
+    
+            assertEquals(1, segments().size());
+        }
+    
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            assertEquals(List.of(upsert(2, 0)), journal.read());
+        }
+    }
+    
+    @Test
+    public void testDiscardRead_KeepsTheCurrentSegment() throws Exception {
+        new WriteBehindJournal(directory).close();
+    
+        try (WriteBehindJournal journal = new WriteBehindJournal(directory)) {
+            journal.discardRead();
+            journal.sync(journal.append(upsert(1, 0)));
+    
+            assertEquals(1, segments().size());
+        }
+    }
+}